@@ -0,0 +1,171 @@
+package pl.mikigal.config;
+
+import org.openjdk.jmh.annotations.*;
+import pl.mikigal.config.annotation.ConfigImplementation;
+import pl.mikigal.config.annotation.ConfigName;
+import pl.mikigal.config.annotation.ConfigSave;
+import pl.mikigal.config.style.ImplementationStyle;
+import pl.mikigal.config.style.SavePolicy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of config's getters and setters, implemented by proxy and by generated class, run by <code>gradlew jmh</code>
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigBenchmark {
+
+	private File directory;
+	private ProxyConfig proxy;
+	private GeneratedConfig generated;
+	private JournalConfig journal;
+	private int counter;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.directory = Files.createTempDirectory("config-benchmark").toFile();
+		TestPlugin plugin = new TestPlugin(this.directory);
+		this.proxy = ConfigAPI.init(ProxyConfig.class, plugin);
+		this.generated = ConfigAPI.init(GeneratedConfig.class, plugin);
+		this.journal = ConfigAPI.init(JournalConfig.class, plugin);
+	}
+
+	@TearDown
+	public void tearDown() {
+		ConfigAPI.shutdown();
+		for (File file : this.directory.listFiles()) {
+			file.delete();
+		}
+
+		this.directory.delete();
+	}
+
+	@Benchmark
+	public int proxyGetSimple() {
+		return this.proxy.getCount();
+	}
+
+	@Benchmark
+	public int generatedGetSimple() {
+		return this.generated.getCount();
+	}
+
+	@Benchmark
+	public String proxyGetString() {
+		return this.proxy.getMessage();
+	}
+
+	@Benchmark
+	public String generatedGetString() {
+		return this.generated.getMessage();
+	}
+
+	@Benchmark
+	public List<String> proxyGetList() {
+		return this.proxy.getLines();
+	}
+
+	@Benchmark
+	public List<String> generatedGetList() {
+		return this.generated.getLines();
+	}
+
+	@Benchmark
+	public User proxyGetObject() {
+		return this.proxy.getUser();
+	}
+
+	@Benchmark
+	public User generatedGetObject() {
+		return this.generated.getUser();
+	}
+
+	@Benchmark
+	public void proxySet() {
+		this.proxy.setCount(this.counter++);
+	}
+
+	@Benchmark
+	public void generatedSet() {
+		this.generated.setCount(this.counter++);
+	}
+
+	@Benchmark
+	public void journalSet() {
+		this.journal.setCount(this.counter++);
+	}
+
+	public static class User implements Serializable {
+		public String name = "player";
+		public int kills = 3;
+		public List<String> homes = Arrays.asList("spawn", "base");
+	}
+
+	@ConfigName("benchmark-proxy.yml")
+	@ConfigSave(SavePolicy.MANUAL)
+	public interface ProxyConfig extends Config {
+		default int getCount() {
+			return 5;
+		}
+
+		void setCount(int count);
+
+		default String getMessage() {
+			return "&cHello";
+		}
+
+		default List<String> getLines() {
+			return Arrays.asList("&aa", "b");
+		}
+
+		default User getUser() {
+			return new User();
+		}
+	}
+
+	@ConfigName("benchmark-generated.yml")
+	@ConfigSave(SavePolicy.MANUAL)
+	@ConfigImplementation(ImplementationStyle.GENERATED)
+	public interface GeneratedConfig extends Config {
+		default int getCount() {
+			return 5;
+		}
+
+		void setCount(int count);
+
+		default String getMessage() {
+			return "&cHello";
+		}
+
+		default List<String> getLines() {
+			return Arrays.asList("&aa", "b");
+		}
+
+		default User getUser() {
+			return new User();
+		}
+	}
+
+	@ConfigName("benchmark-journal.yml")
+	@ConfigSave(value = SavePolicy.JOURNAL, journalSize = 1 << 20, journalSync = false)
+	public interface JournalConfig extends Config {
+		default int getCount() {
+			return 5;
+		}
+
+		void setCount(int count);
+	}
+}
@@ -1,23 +1,39 @@
 package pl.mikigal.config;
 
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
-import org.yaml.snakeyaml.DumperOptions;
 import pl.mikigal.config.annotation.Comment;
 import pl.mikigal.config.exception.InvalidConfigException;
 import pl.mikigal.config.exception.MissingSerializerException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
 import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+import pl.mikigal.config.style.CollectionStyle;
 import pl.mikigal.config.style.CommentStyle;
 import pl.mikigal.config.style.NameStyle;
+import pl.mikigal.config.style.SavePolicy;
 import pl.mikigal.config.util.ConversionUtils;
-import pl.mikigal.config.util.ReflectionUtils;
 import pl.mikigal.config.util.TypeUtils;
 
 import java.io.*;
-import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * Utilities for management of config files
@@ -36,29 +52,129 @@ public class BukkitConfiguration extends YamlConfiguration {
 	private final CommentStyle commentStyle;
 	private final boolean automaticColorStrings;
 	private final String configComment;
+	private final SavePolicy savePolicy;
+	private final long saveDelay;
+	private final CollectionStyle collectionStyle;
+	private final ConfigBinaryCache binaryCache;
+	private final ConfigJournal journal;
 
 	/**
 	 * Caches
 	 */
-	private final Map<String, Object> cache;
 	private final Map<String, String> comments;
+	private final Map<String, TypeDescriptor> types;
 
 	/**
-	 *
-	 * Reflection Path
+	 * Snapshot used by readers, replaced atomically after every write
 	 */
-	private final String dumperFieldName = ReflectionUtils.isVeryNewVersion() ? "yamlDumperOptions" : "yamlOptions";
+	private volatile ConfigSnapshot snapshot;
+
+	/**
+	 * State of write in progress, visible only for writing thread until it's published
+	 */
+	private volatile Thread writer;
+	private int writeDepth;
+	private ConfigSnapshot working;
+	private Set<String> workingChanges;
+
+	/**
+	 * Subscriptions notified after changes are published, and their deliveries waiting until lock of config is released
+	 */
+	private final List<ConfigSubscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+	private final Queue<Runnable> deliveries = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean delivering = new AtomicBoolean();
+
+	/**
+	 * Changes staged by edits in progress, visible only for editing thread. Count of edits lets readers skip lookup of
+	 * thread's changes when nobody is editing
+	 */
+	private final ThreadLocal<Map<String, Object>> staged = new ThreadLocal<>();
+	private final AtomicInteger editors = new AtomicInteger();
+
+	/**
+	 * Dirty tracking, config has unsaved changes when count of modifications differs from saved one
+	 */
+	private long modifications;
+	private long savedModifications;
+
+	/**
+	 * Checksum of file's content, as it was last loaded or saved by API
+	 */
+	private long checksum = -1;
+
+	/**
+	 * Paths changed by last load
+	 */
+	private volatile Set<String> lastChanges = Collections.emptySet();
+	private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+	/**
+	 * Paths of values written in other format than selected CollectionStyle, with their serializers.
+	 * They are rewritten on next save
+	 */
+	private final Map<String, Migration> migrations = new ConcurrentHashMap<>();
+
+	/**
+	 * Paths changed since last append to journal, used by JOURNAL save policy
+	 */
+	private final Set<String> journalPaths = new LinkedHashSet<>();
+
+	/**
+	 * Closed config rejects changes, e.g. instance evicted from ConfigPool
+	 */
+	private boolean closed;
+
+	/**
+	 * Set when config is used through its interface, ConfigPool clears it to give used instances second chance before eviction
+	 */
+	private volatile boolean accessed;
+
+	/**
+	 * Orders saves and loads of file. It's held without lock of config while YAML is written,
+	 * so setters are not blocked by IO of save
+	 */
+	private final Object fileLock = new Object();
 
 	public BukkitConfiguration(File directory, File file, NameStyle nameStyle, CommentStyle commentStyle,
 							   boolean automaticColorStrings, String configComment) {
+		this(directory, file, nameStyle, commentStyle, automaticColorStrings, configComment, SavePolicy.IMMEDIATE, 0);
+	}
+
+	public BukkitConfiguration(File directory, File file, NameStyle nameStyle, CommentStyle commentStyle,
+							   boolean automaticColorStrings, String configComment, SavePolicy savePolicy, long saveDelay) {
+		this(directory, file, nameStyle, commentStyle, automaticColorStrings, configComment, savePolicy, saveDelay, CollectionStyle.SECTION);
+	}
+
+	public BukkitConfiguration(File directory, File file, NameStyle nameStyle, CommentStyle commentStyle,
+							   boolean automaticColorStrings, String configComment, SavePolicy savePolicy, long saveDelay,
+							   CollectionStyle collectionStyle) {
+		this(directory, file, nameStyle, commentStyle, automaticColorStrings, configComment, savePolicy, saveDelay, collectionStyle, null);
+	}
+
+	public BukkitConfiguration(File directory, File file, NameStyle nameStyle, CommentStyle commentStyle,
+							   boolean automaticColorStrings, String configComment, SavePolicy savePolicy, long saveDelay,
+							   CollectionStyle collectionStyle, ConfigBinaryCache binaryCache) {
+		this(directory, file, nameStyle, commentStyle, automaticColorStrings, configComment, savePolicy, saveDelay, collectionStyle,
+				binaryCache, null);
+	}
+
+	public BukkitConfiguration(File directory, File file, NameStyle nameStyle, CommentStyle commentStyle,
+							   boolean automaticColorStrings, String configComment, SavePolicy savePolicy, long saveDelay,
+							   CollectionStyle collectionStyle, ConfigBinaryCache binaryCache, ConfigJournal journal) {
 		this.directory = directory;
 		this.file = file;
 		this.nameStyle = nameStyle;
 		this.commentStyle = commentStyle;
 		this.automaticColorStrings = automaticColorStrings;
-		this.cache = new HashMap<>();
-		this.comments = new HashMap<>();
+		this.snapshot = new ConfigSnapshot(this);
+		this.comments = new ConcurrentHashMap<>();
+		this.types = new ConcurrentHashMap<>();
 		this.configComment = configComment;
+		this.savePolicy = savePolicy;
+		this.saveDelay = saveDelay;
+		this.collectionStyle = collectionStyle;
+		this.binaryCache = binaryCache;
+		this.journal = journal;
 
 		this.copyDefaultConfig();
 		this.load();
@@ -71,8 +187,18 @@ public class BukkitConfiguration extends YamlConfiguration {
 	 * @param comment field's comment, can be null
 	 */
 	public void set(String path, Object value, Comment comment) {
+		this.set(path, value, comment == null ? null : comment.value());
+	}
+
+	/**
+	 * Set value of field
+	 * @param path path in config
+	 * @param value value which you want to set
+	 * @param comment field's comment, can be null
+	 */
+	public void set(String path, Object value, String comment) {
 		if (comment != null) {
-			this.comments.put(path, comment.value());
+			this.comments.put(path, comment);
 		}
 
 		this.set(path, value);
@@ -80,19 +206,87 @@ public class BukkitConfiguration extends YamlConfiguration {
 
 	@Override
 	public void set(String path, Object value) {
-		if (!(value instanceof Collection) && !(value instanceof Map) && (value == null || TypeUtils.isSimpleType(value))) {
-			super.set(path, value);
+		this.write(path, value, false);
+		this.deliverChanges();
+	}
+
+	/**
+	 * Set value of field as it is, without serializers. Collections and arrays are written as YAML lists
+	 * @param path path in config
+	 * @param value value which you want to set
+	 */
+	public void setRaw(String path, Object value) {
+		this.write(path, value, true);
+		this.deliverChanges();
+	}
+
+	private synchronized void write(String path, Object value, boolean raw) {
+		this.beginWrite();
+		try {
+			this.modifications++;
+			this.working.invalidate(path);
+			if (raw) {
+				super.set(path, value);
+			}
+			else {
+				this.setValue(path, value);
+			}
+
+			this.refresh(path);
+			this.markChanged(path);
+			this.journalChanged(path);
+		} finally {
+			this.endWrite();
+		}
+	}
 
-			if (value == null) {
-				if (this.cache.containsKey(path)) {
-					this.cache.put(path, null);
+	/**
+	 * Replaces value of path by subtree built by serializer, in one write.
+	 * Objects which were deferred by builder are written after subtree is attached
+	 * @param path path in config
+	 * @param node builder of subtree
+	 */
+	public void attach(String path, ConfigNodeBuilder node) {
+		synchronized (this) {
+			this.beginWrite();
+			try {
+				this.modifications++;
+				this.working.invalidate(path);
+				super.set(path, null);
+				if (node.isSection()) {
+					node.fill(super.createSection(path));
+				}
+				else if (node.getValue() != null) {
+					super.set(path, node.getValue());
 				}
 
-				return;
+				this.refresh(path);
+				this.markChanged(path);
+				this.journalChanged(path);
+				node.writeDeferred(path);
+			} finally {
+				this.endWrite();
 			}
+		}
+
+		this.deliverChanges();
+	}
 
-			if (value.getClass().equals(String.class) && this.automaticColorStrings) {
-				this.cache.put(path, ConversionUtils.fixColors(value.toString()));
+	/**
+	 * Marks path to be appended to journal by next requestSave()
+	 */
+	private void journalChanged(String path) {
+		if (this.journal != null) {
+			this.journalPaths.add(path);
+		}
+	}
+
+	private void setValue(String path, Object value) {
+		if (!(value instanceof Collection) && !(value instanceof Map) && (value == null || TypeUtils.isSimpleType(value))) {
+			super.set(path, value);
+
+			if (value != null && value.getClass().equals(String.class) && this.automaticColorStrings) {
+				this.addToCache(path, ConversionUtils.fixColors(value.toString()));
 			}
 
 			return;
@@ -103,59 +297,301 @@ public class BukkitConfiguration extends YamlConfiguration {
 			throw new MissingSerializerException(value);
 		}
 
-		this.cache.put(path, value);
-		serializer.serialize(path, value, this);
+		serializer.serialize(path, value, this.types.get(path), this);
 	}
 
 	@Override
 	public Object get(String path) {
-		return this.cache.containsKey(path) ? this.cache.get(path) : super.get(path);
+		return this.getSnapshot().get(path);
 	}
 
 	/**
-	 * Workaround for writing comments to .yml file, Bukkit does to allow to do it
+	 * Allows to get raw value of path from index of snapshot, instead of walking sections from root.
+	 * Typed getters and getConfigurationSection() use it too, so serializers get read-only views of sections
+	 * which can enumerate their children by getKeys(false). Thread which is writing to config reads sections of tree directly
+	 * @param path path in config
+	 * @param def value returned if path does not exist
+	 * @return raw value of path, {@param def} if it does not exist
+	 */
+	@Override
+	public Object get(String path, Object def) {
+		if (path.isEmpty()) {
+			return this;
+		}
+
+		if (this.writer == Thread.currentThread()) {
+			return super.get(path, def);
+		}
+
+		Object value = this.getSnapshot().getRaw(path);
+		return value != null ? value : def;
+	}
+
+	/**
+	 * Returns keys of root section from snapshot, thread which is writing to config or holds its lock reads them from tree
+	 * @param deep true if keys of children's children should be included
+	 * @return keys of root section
+	 */
+	@Override
+	public Set<String> getKeys(boolean deep) {
+		if (this.writer == Thread.currentThread() || Thread.holdsLock(this)) {
+			return super.getKeys(deep);
+		}
+
+		return this.getSnapshot().getKeys("", deep);
+	}
+
+	/**
+	 * Returns values of root section from snapshot, thread which is writing to config or holds its lock reads them from tree
+	 * @param deep true if values of children's children should be included
+	 * @return values of root section
+	 */
+	@Override
+	public Map<String, Object> getValues(boolean deep) {
+		if (this.writer == Thread.currentThread() || Thread.holdsLock(this)) {
+			return super.getValues(deep);
+		}
+
+		return this.getSnapshot().getValues("", deep);
+	}
+
+	/**
+	 * Creates section at path, index of snapshot is updated like by set()
+	 * @param path path in config
+	 * @return created section
+	 */
+	@Override
+	public ConfigurationSection createSection(String path) {
+		ConfigurationSection section;
+		synchronized (this) {
+			this.beginWrite();
+			try {
+				this.modifications++;
+				this.working.invalidate(path);
+				section = super.createSection(path);
+				this.refresh(path);
+				this.markChanged(path);
+				this.journalChanged(path);
+			} finally {
+				this.endWrite();
+			}
+		}
+
+		this.deliverChanges();
+		return section;
+	}
+
+	/**
+	 * Executes batch of changes as single unit. Values set by config's setters inside {@param action} are staged,
+	 * then applied to config in one pass, published to readers at once and saved once according to save policy.
+	 * {@param action} is executed without lock of config, so other threads can read and write config meanwhile,
+	 * staged changes are applied over their changes. If {@param action} throws exception, none of staged changes is applied
+	 * @param action changes to execute
+	 */
+	public void edit(Runnable action) {
+		if (this.isEditing()) {
+			action.run();
+			return;
+		}
+
+		Map<String, Object> changes = new LinkedHashMap<>();
+		this.staged.set(changes);
+		this.editors.incrementAndGet();
+		try {
+			action.run();
+		} finally {
+			this.editors.decrementAndGet();
+			this.staged.remove();
+		}
+
+		if (changes.isEmpty()) {
+			return;
+		}
+
+		synchronized (this) {
+			this.beginWrite();
+			try {
+				changes.forEach((path, value) -> this.write(path, value, false));
+			} finally {
+				this.endWrite();
+			}
+		}
+
+		this.deliverChanges();
+		this.requestSave();
+	}
+
+	/**
+	 * Check is current thread inside of edit
+	 * @return true if changes made by current thread should be staged, else false
+	 */
+	public boolean isEditing() {
+		return this.editors.get() != 0 && this.staged.get() != null;
+	}
+
+	/**
+	 * Stages value of path, it will be set when edit ends
+	 * @param path path in config
+	 * @param value value which you want to set
+	 * @param comment field's comment, can be null
+	 * @throws MissingSerializerException if there's no serializer for {@param value}
+	 */
+	public void stage(String path, Object value, String comment) {
+		if (value != null && !(value instanceof Collection) && !(value instanceof Map) && !TypeUtils.isSimpleType(value) && Serializers.of(value) == null) {
+			throw new MissingSerializerException(value);
+		}
+
+		if (comment != null) {
+			this.comments.put(path, comment);
+		}
+
+		this.staged.get().put(path, value);
+	}
+
+	/**
+	 * Check is value of path staged by edit of current thread
+	 * @param path path in config
+	 * @return true if value is staged, else false
+	 */
+	public boolean isStaged(String path) {
+		return this.isEditing() && this.staged.get().containsKey(path);
+	}
+
+	/**
+	 * Returns value of path staged by edit of current thread
+	 * @param path path in config
+	 * @return staged value, null if it's not staged
+	 */
+	public Object getStaged(String path) {
+		return this.isEditing() ? this.staged.get().get(path) : null;
+	}
+
+	/**
+	 * Allows to get value of path materialized by given serializer
+	 * @param path path in config
+	 * @param serializer serializer which should have produced the value
+	 * @return cached value of {@param path} if it was produced by {@param serializer}, else null
+	 */
+	public Object getMaterialized(String path, Serializer<?> serializer) {
+		return this.getSnapshot().getMaterialized(path, serializer);
+	}
+
+	/**
+	 * Deserializes value of path and memoizes it in current snapshot. Readers deserialize raw values of snapshot
+	 * they got, without any locks, if other thread materialized the value in meantime its result is returned instead
+	 * @param path path in config
+	 * @param serializer serializer of value
+	 * @return deserialized value of path
+	 */
+	public Object materialize(String path, Serializer<?> serializer) {
+		ConfigSnapshot current = this.getSnapshot();
+		Object value = current.getMaterialized(path, serializer);
+		if (value != null) {
+			return value;
+		}
+
+		ConfigNode node = this.writer == Thread.currentThread() ? ConfigNode.of(this, path) : ConfigNode.of(this, path, current.getRaw(path));
+		value = serializer.deserialize(node, this.types.get(path));
+		return current.materializeIfAbsent(path, value, serializer);
+	}
+
+	/**
+	 * Returns snapshot of config. Readers get last published snapshot without any locks,
+	 * thread which is writing to config gets its own snapshot with changes which are not published yet
+	 * @return snapshot of config
+	 */
+	public ConfigSnapshot getSnapshot() {
+		return this.writer == Thread.currentThread() ? this.working : this.snapshot;
+	}
+
+	/**
+	 * Returns last published snapshot, if current thread doesn't see changes which aren't published yet
+	 * @return published snapshot, null if current thread is writing to config or editing it
+	 */
+	public ConfigSnapshot getPublishedSnapshot() {
+		return this.writer == Thread.currentThread() || this.isEditing() ? null : this.snapshot;
+	}
+
+	/**
+	 * Renders config to YAML with comments, prefer save() which streams it directly to file
 	 * @return Content of config parsed to YAML
 	 */
 	@Override
 	public String saveToString() {
-		this.overrideMaxLineWidth();
+		StringWriter writer = new StringWriter();
+		try {
+			this.emit(writer, this.getSnapshot(), this.options().header());
+		} catch (IOException e) {
+			throw new InvalidConfigException("Could not write config to String (name: " + this.file.getName() + ")", e);
+		}
 
-		String yaml = super.saveToString();
+		return writer.toString();
+	}
 
-		List<String> lines = new ArrayList<>();
-		if (this.configComment != null) {
-			lines.add("# " + this.configComment);
-		}
+	/**
+	 * Streams config with comments to file. Content is written to temporary file first and then moved over {@param file},
+	 * so file is never left half-written. Published snapshot is taken under lock of config and written without it,
+	 * so setters called during save are not blocked and are saved by next save
+	 * @param file destination file
+	 * @throws IOException if file could not be written
+	 */
+	@Override
+	public void save(File file) throws IOException {
+		synchronized (this.fileLock) {
+			ConfigSnapshot snapshot;
+			String header;
+			long modifications;
+			synchronized (this) {
+				this.applyMigrations();
+				snapshot = this.snapshot;
+				header = this.options().header();
+				modifications = this.modifications;
+			}
 
-		for (String line : yaml.split("\n")) {
-			// It's not line with new field
-			if (!line.contains(":") || line.startsWith(" ") || line.startsWith("\t")) {
-				lines.add(line);
-				continue;
+			Path target = file.toPath();
+			Path temporary = target.resolveSibling(file.getName() + ".tmp");
+			CRC32 crc = new CRC32();
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+					new CheckedOutputStream(Files.newOutputStream(temporary), crc), StandardCharsets.UTF_8))) {
+				this.emit(writer, snapshot, header);
 			}
 
-			String configFieldName = line.split(":")[0];
-			String comment = this.comments.get(configFieldName);
-			if (comment == null) {
-				lines.add(line);
-				continue;
+			try {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
 			}
 
-			if (this.commentStyle == CommentStyle.INLINE) {
-				lines.add(line + " # " + comment);
-				continue;
+			if (!file.equals(this.file)) {
+				return;
+			}
+
+			// Cache is encoded from the same snapshot as file, config can be changed meantime
+			if (this.binaryCache != null) {
+				this.binaryCache.writeLater(this.binaryCache.encode(snapshot.getRoot(), Files.size(target), crc.getValue(),
+						Files.getLastModifiedTime(target).toMillis()));
 			}
 
-			// ABOVE_CONTENT
-			lines.add("# " + comment);
-			lines.add(line);
+			synchronized (this) {
+				this.checksum = crc.getValue();
+				this.savedModifications = Math.max(this.savedModifications, modifications);
+
+				// Changes of journal are in file now, unless config was changed during save
+				if (this.journal != null && this.modifications == modifications) {
+					this.journalPaths.clear();
+					this.journal.clear();
+				}
+			}
 		}
+	}
 
-		return String.join("\n", lines);
+	private void emit(Writer writer, ConfigSnapshot snapshot, String header) throws IOException {
+		new YamlEmitter(writer, this.comments, this.commentStyle, this.options().pathSeparator(), this.options().indent())
+				.emit(snapshot.getRoot(), header, this.configComment);
 	}
 
 	/**
-	 * Loads data from config file
+	 * Loads data from config file, changes which weren't saved yet are discarded
 	 */
 	public void load() {
 		this.load(this.file);
@@ -163,14 +599,295 @@ public class BukkitConfiguration extends YamlConfiguration {
 
 	@Override
 	public void load(File file) {
+		synchronized (this.fileLock) {
+			byte[] content;
+			try {
+				content = Files.readAllBytes(file.toPath());
+			} catch (IOException e) {
+				throw new InvalidConfigException("Could not load config file (name: " + this.file.getName() + ")", e);
+			}
+
+			synchronized (this) {
+				this.load(content, file.equals(this.file));
+			}
+		}
+
+		this.deliverChanges();
+	}
+
+	/**
+	 * Loads data from config file, if its content differs from last loaded or saved one.
+	 * Used by hot reload, so writes of API don't cause reloads. File is not loaded when config has changes
+	 * which weren't saved yet, e.g. by DEBOUNCED or MANUAL save policy, they are kept and overwrite file on next save
+	 * @return true if config was reloaded, else false
+	 */
+	public boolean reloadIfChanged() {
+		synchronized (this.fileLock) {
+			byte[] content;
+			try {
+				content = Files.readAllBytes(this.file.toPath());
+			} catch (IOException e) {
+				throw new InvalidConfigException("Could not load config file (name: " + this.file.getName() + ")", e);
+			}
+
+			synchronized (this) {
+				long checksum = checksum(content);
+				if (checksum == this.checksum) {
+					return false;
+				}
+
+				if (this.modifications != this.savedModifications) {
+					// Warn only once per change of file
+					this.checksum = checksum;
+					ConfigAPI.getPlugin().getLogger().warning("Config file was changed while config has unsaved changes, "
+							+ "file was not reloaded and will be overwritten on next save (name: " + this.file.getName() + ")");
+					return false;
+				}
+
+				this.load(content, true);
+			}
+		}
+
+		this.deliverChanges();
+		return true;
+	}
+
+	private void load(byte[] content, boolean own) {
+		this.beginWrite();
+		ConfigSnapshot previous = this.working;
 		try {
-			this.cache.clear();
-			super.load(file);
-		} catch (IOException | InvalidConfigurationException e) {
+			long checksum = checksum(content);
+			YamlConfiguration parsed = this.parse(content, own, checksum);
+			if (own && this.journal != null) {
+				this.journal.replay(parsed);
+			}
+
+			// Nothing below can fail, so tree and snapshot are changed only if whole file and journal were read
+			this.working = new ConfigSnapshot(this);
+			this.replaceTree(parsed, this.readHeader(content, parsed));
+			this.working.index(this);
+			if (own) {
+				this.checksum = checksum;
+				this.journalPaths.clear();
+			}
+
+			this.lastChanges = Collections.unmodifiableSet(this.diff(previous.getIndex(), this.working.getIndex()));
+			this.workingChanges.addAll(this.lastChanges);
+
+			// Values of unchanged paths don't have to be deserialized again
+			for (Map.Entry<String, MaterializedValue> entry : previous.getMaterialized().entrySet()) {
+				if (!this.lastChanges.contains(entry.getKey())) {
+					this.working.putMaterializedIfAbsent(entry.getKey(), entry.getValue());
+				}
+			}
+
+			this.savedModifications = this.modifications;
+		} catch (InvalidConfigurationException e) {
 			throw new InvalidConfigException("Could not load config file (name: " + this.file.getName() + ")", e);
+		} catch (IOException e) {
+			throw new InvalidConfigException("Could not load journal of config (name: " + this.file.getName() + ")", e);
+		} finally {
+			this.endWrite();
 		}
 	}
 
+	/**
+	 * Parses content of file to new tree, so tree of config is not touched if content is invalid
+	 * @param content content of config's file
+	 * @param own true if content was read from config's file, so binary cache can be used
+	 * @param checksum checksum of {@param content}
+	 * @return parsed tree
+	 * @throws InvalidConfigurationException if content is not valid YAML
+	 */
+	private YamlConfiguration parse(byte[] content, boolean own, long checksum) throws InvalidConfigurationException {
+		if (own) {
+			YamlConfiguration cached = this.loadFromCache(content, checksum);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		YamlConfiguration parsed = new YamlConfiguration();
+		parsed.loadFromString(new String(content, StandardCharsets.UTF_8));
+		if (own && this.binaryCache != null) {
+			this.binaryCache.writeLater(this.binaryCache.encode(parsed, content.length, checksum, this.lastModified()));
+		}
+
+		return parsed;
+	}
+
+	/**
+	 * Loads values from binary cache instead of parsing YAML, if cache is enabled and valid for given content
+	 * @param content content of config's file
+	 * @param checksum checksum of {@param content}
+	 * @return tree loaded from cache, null if cache is disabled, outdated or corrupted
+	 */
+	private YamlConfiguration loadFromCache(byte[] content, long checksum) {
+		if (this.binaryCache == null) {
+			return null;
+		}
+
+		YamlConfiguration cached = new YamlConfiguration();
+		try {
+			if (this.binaryCache.read(cached, content, checksum, this.lastModified())) {
+				return cached;
+			}
+		} catch (IOException e) {
+			ConfigAPI.getPlugin().getLogger().log(Level.WARNING, e.getMessage() + ", parsing file instead", e);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Reads header of file like loadFromString(), without comments written by API above first value
+	 * @param content content of config's file
+	 * @param parsed parsed tree
+	 * @return header of file, empty if file has no header
+	 */
+	private String readHeader(byte[] content, YamlConfiguration parsed) {
+		// Only leading comments and empty lines can be part of header
+		int end = 0;
+		while (end < content.length && (content[end] == '#' || content[end] == '\n' || content[end] == '\r')) {
+			while (end < content.length && content[end] != '\n') {
+				end++;
+			}
+
+			end++;
+		}
+
+		String header = this.parseHeader(new String(content, 0, Math.min(end, content.length), StandardCharsets.UTF_8));
+		List<String> lines = Arrays.asList(header.split("\n", -1));
+		List<String> generated = new ArrayList<>();
+		if (this.configComment != null) {
+			generated.addAll(Arrays.asList(this.configComment.split("\n")));
+		}
+
+		Iterator<String> keys = parsed.getKeys(false).iterator();
+		String comment = keys.hasNext() ? this.comments.get(keys.next()) : null;
+		if (comment != null && this.commentStyle == CommentStyle.ABOVE_CONTENT) {
+			generated.addAll(Arrays.asList(comment.split("\n")));
+		}
+
+		lines = trimEmptyLines(lines);
+		if (lines.size() >= generated.size() && lines.subList(lines.size() - generated.size(), lines.size()).equals(generated)) {
+			lines = trimEmptyLines(lines.subList(0, lines.size() - generated.size()));
+		}
+
+		return String.join("\n", lines);
+	}
+
+	private static List<String> trimEmptyLines(List<String> lines) {
+		int size = lines.size();
+		while (size > 0 && lines.get(size - 1).isEmpty()) {
+			size--;
+		}
+
+		return lines.subList(0, size);
+	}
+
+	/**
+	 * Replaces values of config's tree by values of parsed tree, header is replaced only if file has it, like by loadFromString()
+	 * @param parsed parsed tree
+	 * @param header header of file
+	 */
+	private void replaceTree(YamlConfiguration parsed, String header) {
+		if (!header.isEmpty()) {
+			this.options().header(header);
+		}
+
+		this.map.clear();
+		for (Map.Entry<String, Object> entry : parsed.getValues(false).entrySet()) {
+			if (entry.getValue() instanceof ConfigurationSection) {
+				copySection((ConfigurationSection) entry.getValue(), super.createSection(entry.getKey()));
+			}
+			else {
+				super.set(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private static void copySection(ConfigurationSection from, ConfigurationSection to) {
+		for (Map.Entry<String, Object> entry : from.getValues(false).entrySet()) {
+			if (entry.getValue() instanceof ConfigurationSection) {
+				copySection((ConfigurationSection) entry.getValue(), to.createSection(entry.getKey()));
+			}
+			else {
+				to.set(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private long lastModified() {
+		try {
+			return Files.getLastModifiedTime(this.file.toPath()).toMillis();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Computes paths which differ between two trees of config.
+	 * Path is changed if its value was added, removed or modified, parent of changed path is changed too
+	 * @param previous index of previous snapshot
+	 * @param current index of current snapshot
+	 * @return set of changed paths
+	 */
+	private Set<String> diff(PersistentMap<String, Object> previous, PersistentMap<String, Object> current) {
+		Set<String> changes = new HashSet<>();
+		previous.forEach((path, value) -> {
+			if (!this.isSameValue(value, current.get(path))) {
+				changes.add(path);
+			}
+		});
+
+		current.forEach((path, value) -> {
+			if (previous.get(path) == null) {
+				changes.add(path);
+			}
+		});
+
+		// Root is not a path of config
+		changes.remove("");
+
+		char separator = this.options().pathSeparator();
+		for (String path : new ArrayList<>(changes)) {
+			for (int index = path.lastIndexOf(separator); index != -1; index = path.lastIndexOf(separator, index - 1)) {
+				if (!changes.add(path.substring(0, index))) {
+					break;
+				}
+			}
+		}
+
+		return changes;
+	}
+
+	/**
+	 * Sections are compared by their children, which are compared separately
+	 */
+	private boolean isSameValue(Object previous, Object current) {
+		if (previous instanceof ConfigSnapshot.SectionKeys || current instanceof ConfigSnapshot.SectionKeys) {
+			return previous instanceof ConfigSnapshot.SectionKeys && current instanceof ConfigSnapshot.SectionKeys;
+		}
+
+		return Objects.equals(previous, current);
+	}
+
+	/**
+	 * Returns paths changed by last load of config, including parents of changed paths.
+	 * Materialized values of other paths were kept, so they don't have to be deserialized again
+	 * @return unmodifiable set of changed paths
+	 */
+	public Set<String> getLastChanges() {
+		return lastChanges;
+	}
+
+	private static long checksum(byte[] content) {
+		CRC32 crc = new CRC32();
+		crc.update(content, 0, content.length);
+		return crc.getValue();
+	}
+
 	/**
 	 * Saves data to config file
 	 */
@@ -180,6 +897,214 @@ public class BukkitConfiguration extends YamlConfiguration {
 		} catch (IOException e) {
 			throw new InvalidConfigException("Could not save config file (name: " + this.file.getName() + ")", e);
 		}
+
+		this.deliverChanges();
+	}
+
+	/**
+	 * Saves data to config file, if it was modified since last save or load
+	 * @return true if file was written, else false
+	 */
+	public boolean flush() {
+		if (!this.isDirty()) {
+			return false;
+		}
+
+		this.save();
+		return true;
+	}
+
+	/**
+	 * Saves unsaved changes and closes config, every next change throws InvalidConfigException instead of being lost.
+	 * Values can still be read
+	 * @throws InvalidConfigException if file could not be saved, config is closed anyway
+	 */
+	public void close() {
+		synchronized (this) {
+			if (this.closed) {
+				return;
+			}
+
+			this.applyMigrations();
+			this.closed = true;
+		}
+
+		try {
+			if (this.isDirty()) {
+				this.save();
+			}
+		} finally {
+			if (this.journal != null) {
+				this.journal.close();
+			}
+		}
+	}
+
+	/**
+	 * Check was config closed
+	 * @return true if config rejects changes, else false
+	 */
+	public synchronized boolean isClosed() {
+		return this.closed;
+	}
+
+	/**
+	 * Saves data according to config's save policy, called after every setter
+	 * @see SavePolicy
+	 */
+	public void requestSave() {
+		switch (this.savePolicy) {
+			case IMMEDIATE:
+				this.save();
+				return;
+			case DEBOUNCED:
+				if (this.saveScheduled.compareAndSet(false, true)) {
+					ConfigSaveScheduler.schedule(this::flushScheduled, this.saveDelay);
+				}
+
+				return;
+			case JOURNAL:
+				this.appendJournal();
+				this.deliverChanges();
+				return;
+			default:
+				// MANUAL, saved by flush()
+		}
+	}
+
+	/**
+	 * Appends values of paths changed since last append to journal, instead of writing whole file.
+	 * Records are encoded under config's lock and written outside of it, together with records queued by other setters.
+	 * Journal is compacted into file by writer's thread when it reaches its limit
+	 */
+	private void appendJournal() {
+		boolean encoded;
+		synchronized (this) {
+			if (this.journalPaths.isEmpty()) {
+				return;
+			}
+
+			// Value of path contains values of its children
+			char separator = this.options().pathSeparator();
+			List<String> paths = new ArrayList<>();
+			for (String path : this.journalPaths) {
+				boolean covered = false;
+				for (int index = path.lastIndexOf(separator); index != -1 && !covered; index = path.lastIndexOf(separator, index - 1)) {
+					covered = this.journalPaths.contains(path.substring(0, index));
+				}
+
+				if (!covered) {
+					paths.add(path);
+				}
+			}
+
+			byte[] records = this.journal.encode(this, paths);
+			encoded = records != null;
+			if (encoded) {
+				this.journal.enqueue(records);
+				this.journalPaths.clear();
+				this.savedModifications = this.modifications;
+			}
+		}
+
+		if (!encoded) {
+			// Config contains values which YAML parser wouldn't produce, so they can't be replayed
+			this.save();
+			return;
+		}
+
+		try {
+			this.journal.flush();
+		} catch (IOException e) {
+			ConfigAPI.getPlugin().getLogger().log(Level.WARNING, "Could not write journal of config (name: " + this.file.getName() + "), saving file instead", e);
+			this.save();
+			return;
+		}
+
+		if (this.journal.isFull() && this.saveScheduled.compareAndSet(false, true)) {
+			ConfigSaveScheduler.schedule(this::flushScheduled, 0);
+		}
+	}
+
+	/**
+	 * Marks config as used through its interface. Flag is written only when it's cleared, so getters don't write to shared memory
+	 */
+	void markAccessed() {
+		if (!this.accessed) {
+			this.accessed = true;
+		}
+	}
+
+	/**
+	 * Clears flag set by markAccessed()
+	 * @return true if config was used since last call, else false
+	 */
+	boolean clearAccessed() {
+		if (!this.accessed) {
+			return false;
+		}
+
+		this.accessed = false;
+		return true;
+	}
+
+	/**
+	 * Check has config unsaved changes, changes which are only in journal are unsaved too
+	 * @return true if config was modified since last save or load, else false
+	 */
+	public synchronized boolean isDirty() {
+		return this.modifications != this.savedModifications || !this.migrations.isEmpty()
+				|| (this.journal != null && this.journal.hasRecords());
+	}
+
+	/**
+	 * Marks value of path to be rewritten on next save, used by serializers which read value written in older format
+	 * or other format than selected by CollectionStyle
+	 * @param path path in config
+	 * @param serializer serializer which can read and write value of path
+	 * @param type declared type of value, null if it's unknown
+	 */
+	public void migrate(String path, Serializer<?> serializer, TypeDescriptor type) {
+		this.migrations.put(path, new Migration(serializer, type));
+	}
+
+	/**
+	 * Rewrites values marked by migrate(), in one write
+	 */
+	private void applyMigrations() {
+		// Closed config is not changed anymore, values are rewritten when it's opened again
+		if (this.closed || this.migrations.isEmpty()) {
+			return;
+		}
+
+		Map<String, Migration> pending = new HashMap<>(this.migrations);
+		this.beginWrite();
+		try {
+			for (Map.Entry<String, Migration> entry : pending.entrySet()) {
+				if (super.get(entry.getKey(), null) == null) {
+					continue;
+				}
+
+				Serializer<?> serializer = entry.getValue().serializer;
+				TypeDescriptor type = entry.getValue().type;
+				serializer.serialize(entry.getKey(), serializer.deserialize(ConfigNode.of(this, entry.getKey()), type), type, this);
+			}
+		} finally {
+			this.migrations.keySet().removeAll(pending.keySet());
+			this.endWrite();
+		}
+	}
+
+	/**
+	 * Save task executed by writer's thread
+	 */
+	private void flushScheduled() {
+		this.saveScheduled.set(false);
+		try {
+			this.flush();
+		} catch (InvalidConfigException e) {
+			ConfigAPI.getPlugin().getLogger().log(Level.SEVERE, e.getMessage(), e);
+		}
 	}
 
 	/**
@@ -188,7 +1113,7 @@ public class BukkitConfiguration extends YamlConfiguration {
 	private void copyDefaultConfig() {
 		try {
 			if (!directory.exists()) {
-				directory.mkdir();
+				directory.mkdirs();
 			}
 
 			if (this.file.exists()) {
@@ -217,27 +1142,119 @@ public class BukkitConfiguration extends YamlConfiguration {
 	}
 
 	/**
-	 * Set SnakeYaml's max line width to max Integer value.
-	 * Required for inline comments
+	 * Add value to cache for optimization, to do not parse it every time user want to access it
+	 * @param path path in config
+	 * @param value value of field
 	 */
-	private void overrideMaxLineWidth() {
-		try {
-			Field yamlOptionsField = YamlConfiguration.class.getDeclaredField(dumperFieldName);
-			yamlOptionsField.setAccessible(true);
-			DumperOptions yamlOptions = (DumperOptions) yamlOptionsField.get(this);
-			yamlOptions.setWidth(Integer.MAX_VALUE);
-		} catch (Exception e) {
-			throw new RuntimeException("Could not set max YAML line width", e);
-		}
+	public void addToCache(String path, Object value) {
+		this.addToCache(path, value, null);
 	}
 
 	/**
-	 * Add value to cache for optimization, to do not parse it every time user want to access it
+	 * Add value materialized by serializer to cache, to do not deserialize it every time user want to access it
 	 * @param path path in config
 	 * @param value value of field
+	 * @param serializer serializer which produced {@param value}, null for simple types
 	 */
-	public void addToCache(String path, Object value) {
-		this.cache.put(path, value);
+	public void addToCache(String path, Object value, Serializer<?> serializer) {
+		this.getSnapshot().materialize(path, value, serializer);
+	}
+
+	/**
+	 * Starts write, outermost write creates working copy of current snapshot
+	 */
+	private void beginWrite() {
+		if (this.closed) {
+			throw new InvalidConfigException("Config was closed, it can't be changed anymore (name: " + this.file.getName() + ")");
+		}
+
+		if (this.writeDepth++ > 0) {
+			return;
+		}
+
+		this.working = this.snapshot.next();
+		this.workingChanges = new HashSet<>();
+		this.writer = Thread.currentThread();
+	}
+
+	/**
+	 * Ends write, outermost write publishes working snapshot to readers
+	 */
+	private void endWrite() {
+		if (--this.writeDepth > 0) {
+			return;
+		}
+
+		Set<String> changes = Collections.unmodifiableSet(this.workingChanges);
+		this.snapshot = this.working;
+		this.writer = null;
+		this.working = null;
+		this.workingChanges = null;
+
+		if (!changes.isEmpty()) {
+			for (ConfigSubscription<?> subscription : this.subscriptions) {
+				Runnable delivery = subscription.onChanges(changes);
+				if (delivery != null) {
+					this.deliveries.add(delivery);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Delivers new values to listeners of subscriptions. Called after lock of config is released,
+	 * so listeners can't block other writers or readers which take the lock. Deliveries are executed in order of writes
+	 */
+	private void deliverChanges() {
+		while (!this.deliveries.isEmpty() && !Thread.holdsLock(this) && this.delivering.compareAndSet(false, true)) {
+			try {
+				Runnable delivery;
+				while ((delivery = this.deliveries.poll()) != null) {
+					delivery.run();
+				}
+			} finally {
+				this.delivering.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Marks path and its parents as changed by current write
+	 * @param path changed path
+	 */
+	private void markChanged(String path) {
+		char separator = this.options().pathSeparator();
+		this.workingChanges.add(path);
+		for (int index = path.lastIndexOf(separator); index != -1; index = path.lastIndexOf(separator, index - 1)) {
+			if (!this.workingChanges.add(path.substring(0, index))) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Registers subscription of changes
+	 * @param subscription subscription to register
+	 */
+	synchronized void subscribe(ConfigSubscription<?> subscription) {
+		subscription.initialize();
+		this.subscriptions.add(subscription);
+	}
+
+	/**
+	 * Unregisters subscription of changes
+	 * @param subscription subscription to unregister
+	 */
+	void unsubscribe(ConfigSubscription<?> subscription) {
+		this.subscriptions.remove(subscription);
+	}
+
+	/**
+	 * Copies changed path and its children from tree to working snapshot, keys of its parents are updated if path was added or removed
+	 * @param path changed path
+	 */
+	private void refresh(String path) {
+		this.working.update(path, super.get(path, null), parent -> parent.isEmpty() ? this : super.get(parent, null));
 	}
 
 	public File getFile() {
@@ -252,7 +1269,52 @@ public class BukkitConfiguration extends YamlConfiguration {
 		return commentStyle;
 	}
 
-	public Map<String, Object> getCache() {
-		return cache;
+	public SavePolicy getSavePolicy() {
+		return savePolicy;
+	}
+
+	public CollectionStyle getCollectionStyle() {
+		return collectionStyle;
+	}
+
+	/**
+	 * Registers declared type of path, it's passed to serializers when value of path is written or read
+	 * @param path path in config
+	 * @param type declared type of value
+	 */
+	public void setType(String path, TypeDescriptor type) {
+		if (type == null) {
+			this.types.remove(path);
+			return;
+		}
+
+		this.types.put(path, type);
+	}
+
+	/**
+	 * Returns declared type of path
+	 * @param path path in config
+	 * @return declared type of value, null if it's not registered
+	 */
+	public TypeDescriptor getType(String path) {
+		return this.types.get(path);
+	}
+
+	public Map<String, MaterializedValue> getCache() {
+		return this.getSnapshot().getMaterialized();
+	}
+
+	/**
+	 * Value which should be rewritten on next save
+	 */
+	private static final class Migration {
+
+		private final Serializer<?> serializer;
+		private final TypeDescriptor type;
+
+		private Migration(Serializer<?> serializer, TypeDescriptor type) {
+			this.serializer = serializer;
+			this.type = type;
+		}
 	}
 }
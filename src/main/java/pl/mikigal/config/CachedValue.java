@@ -0,0 +1,45 @@
+package pl.mikigal.config;
+
+import pl.mikigal.config.serializer.Serializers;
+
+/**
+ * Value of getter cached in field of generated implementation of config, together with snapshot from which it was read.
+ * It's valid until another snapshot is published or registered serializers change, so getter of generated class
+ * reads its field and compares two references instead of calling ConfigInvocationHandler
+ * @see pl.mikigal.config.generator.ConfigClassGenerator
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class CachedValue {
+
+	/**
+	 * Value which is never valid, initial value of generated fields
+	 */
+	public static final CachedValue NONE = new CachedValue(null, -1, null);
+
+	/**
+	 * Published snapshot from which value was read, null if it was read from working snapshot or staged by edit
+	 */
+	private final ConfigSnapshot snapshot;
+	private final int generation;
+	private final Object value;
+
+	CachedValue(ConfigSnapshot snapshot, int generation, Object value) {
+		this.snapshot = snapshot;
+		this.generation = snapshot == null ? -1 : generation;
+		this.value = value;
+	}
+
+	/**
+	 * Check can cached value be returned by getter
+	 * @param snapshot snapshot returned by {@link ConfigInvocationHandler#getPublishedSnapshot()}
+	 * @return true if value was read from given snapshot and serializers weren't changed since then, else false
+	 */
+	public boolean isValid(ConfigSnapshot snapshot) {
+		return this.snapshot == snapshot && snapshot != null && this.generation == Serializers.getGeneration();
+	}
+
+	public Object getValue() {
+		return value;
+	}
+}
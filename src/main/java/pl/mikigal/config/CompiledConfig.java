@@ -0,0 +1,100 @@
+package pl.mikigal.config;
+
+import pl.mikigal.config.exception.InvalidConfigException;
+import pl.mikigal.config.style.NameStyle;
+
+import java.lang.reflect.Method;
+
+/**
+ * Implementation of config's interface generated at compile time by annotation processor.
+ * It contains precomputed paths, comments, kinds of values and default values, so ConfigAPI does not have to validate interface and
+ * compute them with reflections at init
+ * @param <T> config's interface
+ * @see pl.mikigal.config.processor.ConfigProcessor
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public interface CompiledConfig<T extends Config> {
+
+	/**
+	 * Suffix of generated class' name, added to name of config's interface (with '$' replaced by '_')
+	 */
+	String SUFFIX = "_ConfigImpl";
+
+	/**
+	 * Returns names of config's getters and setters
+	 * @return names of methods
+	 */
+	String[] getMethodNames();
+
+	/**
+	 * Returns getter or setter of config's interface, looked up by its name and parameter types known at compile time
+	 * @param method name of getter or setter
+	 * @return instance of method
+	 */
+	Method getMethod(String method);
+
+	/**
+	 * Returns kind of getter's value, resolved at compile time the same way as by TypeUtils.isSimpleType(Method).
+	 * Getters of String are COLOR_STRING, they are SIMPLE when automatic translation of colors is disabled
+	 * @param method name of getter
+	 * @return kind of value
+	 */
+	ConfigAccessor.ValueKind getValueKind(String method);
+
+	/**
+	 * Returns path of field in config
+	 * @param method name of getter or setter
+	 * @param nameStyle style of config's fields names
+	 * @return path of field
+	 */
+	String getPath(String method, NameStyle nameStyle);
+
+	/**
+	 * Returns comment of field
+	 * @param method name of getter or setter
+	 * @return comment of field, null if field has no comment
+	 */
+	String getComment(String method);
+
+	/**
+	 * Check is field optional
+	 * @param method name of getter
+	 * @return true if method has ConfigOptional annotation, else false
+	 */
+	boolean isOptional(String method);
+
+	/**
+	 * Returns default value of getter, without reflections
+	 * @param method name of getter
+	 * @return default value of getter
+	 */
+	Object getDefaultValue(String method);
+
+	/**
+	 * Creates instance of config backed by given handler
+	 * @param handler initialized handler of config
+	 * @return instance of config
+	 */
+	T create(ConfigInvocationHandler handler);
+
+	/**
+	 * Allows to get compiled implementation of config's interface
+	 * @param clazz class of config's interface
+	 * @return instance of compiled config, null if interface was not processed by annotation processor
+	 */
+	static <T extends Config> CompiledConfig<T> of(Class<T> clazz) {
+		String packageName = clazz.getPackage() == null ? "" : clazz.getPackage().getName();
+		String simpleName = packageName.isEmpty() ? clazz.getName() : clazz.getName().substring(packageName.length() + 1);
+		String name = (packageName.isEmpty() ? "" : packageName + ".") + simpleName.replace('$', '_') + SUFFIX;
+
+		try {
+			Class<?> compiled = Class.forName(name, true, clazz.getClassLoader());
+			return (CompiledConfig<T>) compiled.newInstance();
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (InstantiationException | IllegalAccessException e) {
+			throw new InvalidConfigException("Could not create instance of " + name, e);
+		}
+	}
+}
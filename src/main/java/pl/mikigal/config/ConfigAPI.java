@@ -1,18 +1,27 @@
 package pl.mikigal.config;
 
 import org.bukkit.plugin.java.JavaPlugin;
-import pl.mikigal.config.annotation.Comment;
+import pl.mikigal.config.annotation.ConfigKeyed;
 import pl.mikigal.config.annotation.ConfigName;
+import pl.mikigal.config.annotation.ConfigWatch;
 import pl.mikigal.config.exception.InvalidConfigException;
 import pl.mikigal.config.serializer.Serializer;
 import pl.mikigal.config.serializer.Serializers;
 import pl.mikigal.config.style.CommentStyle;
 import pl.mikigal.config.style.NameStyle;
+import pl.mikigal.config.style.SavePolicy;
+import pl.mikigal.config.util.TypeUtils;
 
 import java.io.File;
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Main class of API, it allows to manage configs
@@ -37,6 +46,17 @@ public class ConfigAPI {
 	 */
 	private static final Map<String, BukkitConfiguration> rawConfigurations = new HashMap<>();
 
+	/**
+	 * Map for keeping handlers of configs, used to resolve getters
+	 */
+	private static final Map<String, ConfigInvocationHandler> handlers = new HashMap<>();
+
+	/**
+	 * Map for keeping pools of keyed configs, by their interfaces
+	 * @see ConfigPool
+	 */
+	private static final Map<Class<?>, ConfigPool<?>> pools = new ConcurrentHashMap<>();
+
 	/**
 	 * Initializes instance of Config
 	 * @param clazz Class of your Config interface
@@ -53,24 +73,22 @@ public class ConfigAPI {
 											boolean automaticColorStrings, File directory, JavaPlugin plugin){
 
 		ConfigAPI.plugin = plugin;
-		ConfigName configName = clazz.getAnnotation(ConfigName.class);
-		if (configName == null) {
-			throw new InvalidConfigException("Config must have annotation ConfigName with file's name");
-		}
-
-		Comment configCommentAnnotation = clazz.getAnnotation(Comment.class);
-		String configComment = configCommentAnnotation == null ? null : configCommentAnnotation.value();
+		ConfigSaveScheduler.start();
+		ConfigMetadata<T> metadata = ConfigMetadata.of(clazz, nameStyle, commentStyle, automaticColorStrings);
+		String name = metadata.getName();
 
-		String name = configName.value() + (configName.value().endsWith(".yml") ? "" : ".yml");
-		File file = new File(directory, name);
-
-		BukkitConfiguration rawConfiguration = new BukkitConfiguration(directory, file, nameStyle, commentStyle,
-				automaticColorStrings, configComment);
+		BukkitConfiguration rawConfiguration = metadata.createConfiguration(directory, new File(directory, name));
 		rawConfigurations.put(name, rawConfiguration);
 
-		T configuration = (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class[]{clazz},
-				new ConfigInvocationHandler(clazz, rawConfiguration, automaticColorStrings));
+		ConfigInvocationHandler handler = metadata.createHandler(rawConfiguration);
+		T configuration = metadata.createInstance(handler);
 		configurations.put(name, configuration);
+		handlers.put(name, handler);
+
+		ConfigWatch configWatch = clazz.getAnnotation(ConfigWatch.class);
+		if (configWatch != null) {
+			ConfigWatcher.watch(rawConfiguration, configWatch.delay());
+		}
 
 		return configuration;
 	}
@@ -117,6 +135,103 @@ public class ConfigAPI {
 		return init(clazz, NameStyle.CAMEL_CASE, CommentStyle.ABOVE_CONTENT, true, directory, plugin);
 	}
 
+	/**
+	 * Initializes pool of keyed config, which keeps one file per key in directory named by ConfigName,
+	 * e.g. <code>players/&lt;uuid&gt;.yml</code>. Properties and accessors of {@param clazz} are resolved once and shared by all instances
+	 * @param clazz Class of your Config interface
+	 * @param nameStyle Style of config's fields names
+	 * @param commentStyle Style of config's comments
+	 * @param automaticColorStrings Automatic translate '&' based colors
+	 * @param directory The directory in which directory of config's files is created
+	 * @param plugin Instance of your plugin
+	 * @see pl.mikigal.config.annotation.ConfigKeyed
+	 * @return pool of {@param clazz}, instances are loaded by its open() methods
+	 */
+	public static <T extends Config> ConfigPool<T> initPool(Class<T> clazz, NameStyle nameStyle, CommentStyle commentStyle,
+															boolean automaticColorStrings, File directory, JavaPlugin plugin) {
+		ConfigAPI.plugin = plugin;
+		ConfigSaveScheduler.start();
+		ConfigMetadata<T> metadata = ConfigMetadata.of(clazz, nameStyle, commentStyle, automaticColorStrings);
+		String name = metadata.getName();
+
+		ConfigKeyed configKeyed = clazz.getAnnotation(ConfigKeyed.class);
+		ConfigPool<T> pool = new ConfigPool<>(metadata, new File(directory, name.substring(0, name.length() - 4)),
+				configKeyed == null ? 1000 : configKeyed.maximumSize());
+
+		ConfigPool<?> previous = pools.put(clazz, pool);
+		if (previous != null) {
+			previous.flush();
+		}
+
+		return pool;
+	}
+
+	/**
+	 * Initializes pool of keyed config with default values
+	 * (CAMEL_CASE as NameStyle, ABOVE_CONTENT as CommentStyle, enabled automatic translation of '&' based colors)
+	 * @param clazz Class of your Config interface
+	 * @param plugin Instance of your plugin
+	 * @return pool of {@param clazz}, instances are loaded by its open() methods
+	 */
+	public static <T extends Config> ConfigPool<T> initPool(Class<T> clazz, JavaPlugin plugin) {
+		return initPool(clazz, NameStyle.CAMEL_CASE, CommentStyle.ABOVE_CONTENT, true, plugin.getDataFolder(), plugin);
+	}
+
+	/**
+	 * Allows to get pool of keyed config, it's initialized with default values if it was not initialized by initPool()
+	 * @param clazz Class of your Config interface
+	 * @return pool of {@param clazz}
+	 */
+	public static <T extends Config> ConfigPool<T> getPool(Class<T> clazz) {
+		ConfigPool<?> pool = pools.get(clazz);
+		if (pool != null) {
+			return (ConfigPool<T>) pool;
+		}
+
+		if (plugin == null) {
+			throw new InvalidConfigException("Keyed config " + clazz.getName() + " is not initialized, use ConfigAPI.initPool() first");
+		}
+
+		synchronized (pools) {
+			pool = pools.get(clazz);
+			return pool != null ? (ConfigPool<T>) pool : initPool(clazz, plugin);
+		}
+	}
+
+	/**
+	 * Returns instance of keyed config for given key, file is loaded on calling thread if instance is not cached
+	 * @param clazz Class of your Config interface
+	 * @param key key of instance, name of its file without <code>.yml</code>, e.g. UUID of player
+	 * @return instance of {@param clazz} for {@param key}
+	 * @see ConfigPool#open(String)
+	 */
+	public static <T extends Config> T open(Class<T> clazz, String key) {
+		return getPool(clazz).open(key);
+	}
+
+	/**
+	 * Returns instance of keyed config for given key, file is loaded on background thread if instance is not cached
+	 * @param clazz Class of your Config interface
+	 * @param key key of instance, name of its file without <code>.yml</code>, e.g. UUID of player
+	 * @return future of instance of {@param clazz} for {@param key}
+	 * @see ConfigPool#openAsync(String)
+	 */
+	public static <T extends Config> CompletableFuture<T> openAsync(Class<T> clazz, String key) {
+		return getPool(clazz).openAsync(key);
+	}
+
+	/**
+	 * Removes instance of keyed config from cache and writes its unsaved changes
+	 * @param clazz Class of your Config interface
+	 * @param key key of instance
+	 * @return true if instance was loaded, else false
+	 * @see ConfigPool#close(String)
+	 */
+	public static boolean close(Class<? extends Config> clazz, String key) {
+		ConfigPool<?> pool = pools.get(clazz);
+		return pool != null && pool.close(key);
+	}
+
 	/**
 	 * Allows to get BukkitConfiguration object for config. It allows to access Bukkit's YamlConfiguration raw methods
 	 * @param name Name of your config
@@ -169,6 +284,116 @@ public class ConfigAPI {
 		Serializers.register(clazz, serializer);
 	}
 
+	/**
+	 * Subscribes changes of config's value. Listener is called on thread which changed the value
+	 * @param config class of config
+	 * @param getter reference to getter of config, e.g. <code>MyConfig::getSpawnRate</code>
+	 * @param listener listener of new values
+	 * @return subscription, allows to cancel it
+	 * @see #onChange(Class, Function, Consumer, Executor)
+	 */
+	public static <T extends Config, R> ConfigSubscription<R> onChange(Class<T> config, Function<T, R> getter, Consumer<R> listener) {
+		return onChange(config, getter, listener, Runnable::run);
+	}
+
+	/**
+	 * Subscribes changes of config's value. Listener is called only when value really changed,
+	 * by setter, load or hot reload of config, after lock of config was released by thread which changed it
+	 * @param config class of config
+	 * @param getter reference to getter of config, e.g. <code>MyConfig::getSpawnRate</code>
+	 * @param listener listener of new values
+	 * @param executor executor which calls listener, e.g. Bukkit's main thread
+	 * @return subscription, allows to cancel it
+	 */
+	public static <T extends Config, R> ConfigSubscription<R> onChange(Class<T> config, Function<T, R> getter, Consumer<R> listener, Executor executor) {
+		ConfigInvocationHandler handler = handlers.get(getName(config));
+		if (handler == null) {
+			throw new InvalidConfigException("Config " + config.getName() + " is not initialized");
+		}
+
+		Method[] called = new Method[1];
+		T recorder = (T) Proxy.newProxyInstance(config.getClassLoader(), new Class[]{config}, (proxy, method, args) -> {
+			called[0] = method;
+			return TypeUtils.getDefaultValue(method.getReturnType());
+		});
+		getter.apply(recorder);
+
+		ConfigAccessor accessor = called[0] == null ? null : handler.getAccessor(called[0]);
+		if (accessor == null || accessor.getKind() != ConfigAccessor.Kind.GETTER) {
+			throw new InvalidConfigException("Given function is not reference to getter of " + config.getName());
+		}
+
+		ConfigSubscription<R> subscription = new ConfigSubscription<>(handler.getConfiguration(), accessor.getPath(),
+				() -> (R) handler.getValue(accessor), listener, executor);
+		handler.getConfiguration().subscribe(subscription);
+		return subscription;
+	}
+
+	/**
+	 * Subscribes changes of value of path. Listener is called only when value really changed
+	 * @param config class of config
+	 * @param path path in config
+	 * @param listener listener of new values, value is null when path was removed
+	 * @param executor executor which calls listener, e.g. Bukkit's main thread
+	 * @return subscription, allows to cancel it
+	 */
+	public static ConfigSubscription<Object> onChange(Class<? extends Config> config, String path, Consumer<Object> listener, Executor executor) {
+		BukkitConfiguration configuration = rawConfigurations.get(getName(config));
+		if (configuration == null) {
+			throw new InvalidConfigException("Config " + config.getName() + " is not initialized");
+		}
+
+		ConfigSubscription<Object> subscription = new ConfigSubscription<>(configuration, path, () -> configuration.get(path), listener, executor);
+		configuration.subscribe(subscription);
+		return subscription;
+	}
+
+	private static String getName(Class<? extends Config> config) {
+		ConfigName configName = config.getAnnotation(ConfigName.class);
+		if (configName == null) {
+			throw new InvalidConfigException("Config must have annotation ConfigName with file's name");
+		}
+
+		return configName.value() + (configName.value().endsWith(".yml") ? "" : ".yml");
+	}
+
+	/**
+	 * Executes batch of changes of config as single unit. Values set by config's setters inside {@param editor}
+	 * are validated and staged, then applied at once and saved once
+	 * <pre>
+	 * ConfigAPI.edit(config, c -&gt; {
+	 *     c.setA(1);
+	 *     c.setB("b");
+	 * });
+	 * </pre>
+	 * @param config instance of config
+	 * @param editor changes to execute
+	 * @see BukkitConfiguration#edit(Runnable)
+	 */
+	public static <T extends Config> void edit(T config, Consumer<T> editor) {
+		config.getBukkitConfiguration().edit(() -> editor.accept(config));
+	}
+
+	/**
+	 * Saves all configs with unsaved changes and stops background writer and watcher of files.
+	 * Journals of configs are compacted into their files, loaded instances of keyed configs are written back.
+	 * Should be called in <code>onDisable()</code> of plugin when any config uses DEBOUNCED, MANUAL or JOURNAL save policy or ConfigWatch
+	 * @see SavePolicy
+	 */
+	public static void shutdown() {
+		ConfigWatcher.shutdown();
+		for (BukkitConfiguration configuration : rawConfigurations.values()) {
+			configuration.flush();
+		}
+
+		for (ConfigPool<?> pool : pools.values()) {
+			pool.flush();
+		}
+
+		// Saves are finished before writer's thread is stopped, later saves are executed by calling thread
+		ConfigSaveScheduler.shutdown();
+	}
+
 	/**
 	 * Return instance of plugin given in <code>ConfigAPI.init()</code> method
 	 * @return instance of plugin, nullable if called before <code>ConfigAPI.init()</code>
@@ -0,0 +1,161 @@
+package pl.mikigal.config;
+
+import pl.mikigal.config.exception.MissingSerializerException;
+import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+
+import java.lang.reflect.Method;
+
+/**
+ * Precompiled description of config's method, resolved once by ConfigInvocationHandler
+ * @see ConfigInvocationHandler
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigAccessor {
+
+	private final Method method;
+	private final Kind kind;
+	private final ValueKind valueKind;
+	private final String path;
+	private final boolean optional;
+	private final TypeDescriptor type;
+	private final String comment;
+
+	/**
+	 * Serializer of value together with generation of registered serializers in which it was resolved,
+	 * null if value is not serialized
+	 */
+	private volatile Resolution resolution;
+
+	/**
+	 * @param serializer serializer of value, null if value is not serialized or if serializer should be resolved on first use
+	 * @param generation generation of registered serializers read before {@param serializer} was resolved
+	 * @see Serializers#getGeneration()
+	 */
+	public ConfigAccessor(Method method, Kind kind, ValueKind valueKind, String path, boolean optional,
+						  Serializer<?> serializer, int generation, TypeDescriptor type, String comment) {
+		this.method = method;
+		this.kind = kind;
+		this.valueKind = valueKind;
+		this.path = path;
+		this.optional = optional;
+		this.resolution = serializer == null ? null : new Resolution(generation, serializer);
+		this.type = type;
+		this.comment = comment;
+	}
+
+	/**
+	 * Creates accessor for method which does not touch config's values
+	 * @param method instance of method
+	 * @param kind kind of method
+	 * @return instance of accessor
+	 */
+	public static ConfigAccessor of(Method method, Kind kind) {
+		return new ConfigAccessor(method, kind, null, null, false, null, 0, null, null);
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public ValueKind getValueKind() {
+		return valueKind;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public boolean isOptional() {
+		return optional;
+	}
+
+	/**
+	 * Returns serializer of getter's value, it's resolved again when serializers were registered or unregistered since last call
+	 * @return serializer of value, null if value is not serialized
+	 * @throws MissingSerializerException if serializer of value is not registered
+	 */
+	public Serializer<?> getSerializer() {
+		if (this.valueKind != ValueKind.SERIALIZED) {
+			return null;
+		}
+
+		Resolution resolution = this.resolution;
+		int generation = Serializers.getGeneration();
+		if (resolution == null || resolution.generation != generation) {
+			Serializer<?> serializer = Serializers.of(this.method.getReturnType());
+			if (serializer == null) {
+				throw new MissingSerializerException(this.method.getReturnType());
+			}
+
+			resolution = new Resolution(generation, serializer);
+			this.resolution = resolution;
+		}
+
+		return resolution.serializer;
+	}
+
+	/**
+	 * Returns declared type of getter's value, used by serializers instead of names of classes written in config
+	 * @return declared type, null if value is not serialized
+	 */
+	public TypeDescriptor getType() {
+		return type;
+	}
+
+	public String getComment() {
+		return comment;
+	}
+
+	/**
+	 * Kind of config's method
+	 */
+	public enum Kind {
+		BUKKIT_CONFIGURATION,
+		TO_STRING,
+		HASH_CODE,
+		EQUALS,
+		GETTER,
+		SETTER
+	}
+
+	/**
+	 * Way in which getter materializes it's value
+	 */
+	public enum ValueKind {
+		/**
+		 * Primitive, wrapper, String or Collection of them, returned as it is stored
+		 */
+		SIMPLE,
+
+		/**
+		 * String with automatic translation of '&' based colors
+		 */
+		COLOR_STRING,
+
+		/**
+		 * Type processed by Serializer
+		 */
+		SERIALIZED
+	}
+
+	/**
+	 * Serializer resolved in given generation of registered serializers
+	 */
+	private static final class Resolution {
+
+		private final int generation;
+		private final Serializer<?> serializer;
+
+		private Resolution(int generation, Serializer<?> serializer) {
+			this.generation = generation;
+			this.serializer = serializer;
+		}
+	}
+}
@@ -0,0 +1,351 @@
+package pl.mikigal.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import pl.mikigal.config.style.CollectionStyle;
+import pl.mikigal.config.style.NameStyle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Binary cache of parsed config, written next to .yml file with <code>.cache</code> suffix.
+ * Cache is valid only for file with the same size, modification time and checksum of content,
+ * and for the same schema of config's interface. Valid cache is memory-mapped and decoded directly to sections,
+ * without parsing YAML
+ * @see pl.mikigal.config.annotation.ConfigCache
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigBinaryCache {
+
+	private static final int MAGIC = 0x43415043;
+	private static final byte VERSION = 1;
+
+	/**
+	 * Tags of encoded values
+	 */
+	private static final byte NULL = 0;
+	private static final byte STRING = 1;
+	private static final byte INT = 2;
+	private static final byte LONG = 3;
+	private static final byte DOUBLE = 4;
+	private static final byte BOOLEAN = 5;
+	private static final byte LIST = 6;
+	private static final byte MAP = 7;
+	private static final byte SECTION = 8;
+
+	private final Path path;
+	private final long schema;
+
+	/**
+	 * @param file config's file
+	 * @param schema hash of config's interface, see schema()
+	 */
+	public ConfigBinaryCache(File file, long schema) {
+		this.path = file.toPath().resolveSibling(file.getName() + ".cache");
+		this.schema = schema;
+	}
+
+	/**
+	 * Computes hash of config's interface, from signatures and annotations of its methods
+	 * @param clazz Class of config's interface
+	 * @param nameStyle style of config's fields names
+	 * @param collectionStyle style of config's collections
+	 * @return hash of schema
+	 */
+	public static long schema(Class<?> clazz, NameStyle nameStyle, CollectionStyle collectionStyle) {
+		List<String> signatures = new ArrayList<>();
+		for (Method method : clazz.getMethods()) {
+			signatures.add(method.toGenericString() + Arrays.toString(method.getAnnotations()));
+		}
+
+		Collections.sort(signatures);
+		StringBuilder builder = new StringBuilder(clazz.getName()).append(nameStyle).append(collectionStyle);
+		for (String signature : signatures) {
+			builder.append('\n').append(signature);
+		}
+
+		CRC32 crc = new CRC32();
+		byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+		crc.update(bytes, 0, bytes.length);
+		return crc.getValue();
+	}
+
+	/**
+	 * Loads cached values to {@param root}, if cache is valid for given content of file
+	 * @param root empty section to which values are loaded
+	 * @param content content of config's file
+	 * @param checksum checksum of {@param content}
+	 * @param modified modification time of config's file in milliseconds
+	 * @return true if values were loaded, false if cache is missing or outdated
+	 * @throws IOException if cache could not be read or is corrupted, {@param root} can be partially loaded then
+	 */
+	boolean read(ConfigurationSection root, byte[] content, long checksum, long modified) throws IOException {
+		if (!Files.isRegularFile(this.path)) {
+			return false;
+		}
+
+		try {
+			// Cache is read to heap, mapping of file would stay open until it's collected and block its replacement on Windows
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(this.path));
+			if (buffer.remaining() < 37 || buffer.getInt() != MAGIC || buffer.get() != VERSION || buffer.getLong() != this.schema
+					|| buffer.getLong() != content.length || buffer.getLong() != modified || buffer.getLong() != checksum) {
+				return false;
+			}
+
+			readSection(buffer, root);
+			return true;
+		} catch (RuntimeException e) {
+			throw new IOException("Corrupted cache of config (name: " + this.path.getFileName() + ")", e);
+		}
+	}
+
+	/**
+	 * Encodes values of {@param root} with header of given file
+	 * @param root section to encode
+	 * @param size size of config's file in bytes
+	 * @param checksum checksum of config's file
+	 * @param modified modification time of config's file in milliseconds
+	 * @return encoded cache, null if config contains values which YAML parser wouldn't produce
+	 */
+	byte[] encode(ConfigurationSection root, long size, long checksum, long modified) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(bytes)) {
+			output.writeInt(MAGIC);
+			output.writeByte(VERSION);
+			output.writeLong(this.schema);
+			output.writeLong(size);
+			output.writeLong(modified);
+			output.writeLong(checksum);
+			writeSection(output, root);
+		} catch (UnsupportedOperationException e) {
+			return null;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Writes encoded cache on writer's thread, cache is removed if {@param encoded} is null
+	 * @param encoded cache returned by encode()
+	 */
+	void writeLater(byte[] encoded) {
+		ConfigSaveScheduler.schedule(() -> {
+			try {
+				if (encoded == null) {
+					Files.deleteIfExists(this.path);
+					return;
+				}
+
+				Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+				Files.write(temporary, encoded);
+				try {
+					Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} catch (IOException e) {
+				ConfigAPI.getPlugin().getLogger().log(Level.WARNING, "Could not write cache of config (name: " + this.path.getFileName() + ")", e);
+			}
+		}, 0);
+	}
+
+	/**
+	 * Maps are written as sections, as YAML parser converts them to sections when loading file
+	 */
+	private static void writeSection(DataOutputStream output, ConfigurationSection section) throws IOException {
+		Set<String> keys = section.getKeys(false);
+		output.writeInt(keys.size());
+		for (String key : keys) {
+			writeString(output, key);
+			writeNode(output, section.get(key, null));
+		}
+	}
+
+	/**
+	 * Encodes value of section's key, Maps are written as sections
+	 * @param output destination of encoded value
+	 * @param value value of key
+	 * @throws UnsupportedOperationException if value can't be encoded
+	 */
+	static void writeNode(DataOutputStream output, Object value) throws IOException {
+		if (value instanceof Map) {
+			output.writeByte(SECTION);
+			writeMapAsSection(output, (Map<?, ?>) value);
+			return;
+		}
+
+		writeValue(output, value);
+	}
+
+	private static void writeMapAsSection(DataOutputStream output, Map<?, ?> map) throws IOException {
+		output.writeInt(map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			writeString(output, String.valueOf(entry.getKey()));
+			if (entry.getValue() instanceof Map) {
+				output.writeByte(SECTION);
+				writeMapAsSection(output, (Map<?, ?>) entry.getValue());
+				continue;
+			}
+
+			writeValue(output, entry.getValue());
+		}
+	}
+
+	private static void writeValue(DataOutputStream output, Object value) throws IOException {
+		if (value == null) {
+			output.writeByte(NULL);
+		}
+		else if (value instanceof String) {
+			output.writeByte(STRING);
+			writeString(output, (String) value);
+		}
+		else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			output.writeByte(INT);
+			output.writeInt(((Number) value).intValue());
+		}
+		else if (value instanceof Long) {
+			// YAML parser produces Integer for every number which fits in it
+			long number = (Long) value;
+			if (number == (int) number) {
+				output.writeByte(INT);
+				output.writeInt((int) number);
+			}
+			else {
+				output.writeByte(LONG);
+				output.writeLong(number);
+			}
+		}
+		else if (value instanceof Double || value instanceof Float) {
+			output.writeByte(DOUBLE);
+			output.writeDouble(value instanceof Float ? Double.parseDouble(value.toString()) : (Double) value);
+		}
+		else if (value instanceof Boolean) {
+			output.writeByte(BOOLEAN);
+			output.writeBoolean((Boolean) value);
+		}
+		else if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			output.writeByte(LIST);
+			output.writeInt(list.size());
+			for (Object element : list) {
+				writeValue(output, element);
+			}
+		}
+		else if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			output.writeByte(MAP);
+			output.writeInt(map.size());
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				writeValue(output, entry.getKey());
+				writeValue(output, entry.getValue());
+			}
+		}
+		else if (value instanceof ConfigurationSection) {
+			output.writeByte(SECTION);
+			writeSection(output, (ConfigurationSection) value);
+		}
+		else {
+			throw new UnsupportedOperationException(value.getClass().getName());
+		}
+	}
+
+	static void writeString(DataOutputStream output, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static void readSection(ByteBuffer buffer, ConfigurationSection section) throws IOException {
+		int size = readSize(buffer);
+		for (int i = 0; i < size; i++) {
+			readNode(buffer, section, readString(buffer));
+		}
+	}
+
+	/**
+	 * Decodes value encoded by writeNode() and sets it to section's key
+	 * @param buffer source of encoded value
+	 * @param section section of key
+	 * @param key key in section
+	 * @throws IOException if value is corrupted
+	 */
+	static void readNode(ByteBuffer buffer, ConfigurationSection section, String key) throws IOException {
+		byte tag = buffer.get();
+		if (tag == SECTION) {
+			readSection(buffer, section.createSection(key));
+			return;
+		}
+
+		section.set(key, readValue(buffer, tag));
+	}
+
+	private static Object readValue(ByteBuffer buffer, byte tag) throws IOException {
+		switch (tag) {
+			case NULL:
+				return null;
+			case STRING:
+				return readString(buffer);
+			case INT:
+				return buffer.getInt();
+			case LONG:
+				return buffer.getLong();
+			case DOUBLE:
+				return buffer.getDouble();
+			case BOOLEAN:
+				return buffer.get() != 0;
+			case LIST: {
+				int size = readSize(buffer);
+				List<Object> list = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					list.add(readValue(buffer, buffer.get()));
+				}
+
+				return list;
+			}
+			case MAP: {
+				int size = readSize(buffer);
+				Map<Object, Object> map = new LinkedHashMap<>();
+				for (int i = 0; i < size; i++) {
+					map.put(readValue(buffer, buffer.get()), readValue(buffer, buffer.get()));
+				}
+
+				return map;
+			}
+			default:
+				throw new IOException("Unknown tag of value: " + tag);
+		}
+	}
+
+	static String readString(ByteBuffer buffer) throws IOException {
+		byte[] bytes = new byte[readSize(buffer)];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Every element takes at least one byte, so size bigger than rest of cache means it's corrupted
+	 */
+	private static int readSize(ByteBuffer buffer) throws IOException {
+		int size = buffer.getInt();
+		if (size < 0 || size > buffer.remaining()) {
+			throw new IOException("Invalid size: " + size);
+		}
+
+		return size;
+	}
+}
@@ -6,8 +6,11 @@ import pl.mikigal.config.annotation.ConfigPath;
 import pl.mikigal.config.exception.InvalidConfigException;
 import pl.mikigal.config.exception.InvalidConfigFileException;
 import pl.mikigal.config.exception.MissingSerializerException;
+import pl.mikigal.config.serializer.ConfigNode;
 import pl.mikigal.config.serializer.Serializer;
 import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+import pl.mikigal.config.style.InitStrategy;
 import pl.mikigal.config.util.ConversionUtils;
 import pl.mikigal.config.util.ReflectionUtils;
 import pl.mikigal.config.util.TypeUtils;
@@ -15,9 +18,12 @@ import pl.mikigal.config.util.TypeUtils;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Proxy invocation handler for configs
@@ -26,125 +32,443 @@ import java.util.Map;
  */
 public class ConfigInvocationHandler implements InvocationHandler {
 
+	/**
+	 * Time after which idle worker's thread is stopped, in seconds
+	 */
+	private static final long WORKER_KEEP_ALIVE = 30;
+
+	/**
+	 * Daemon threads shared by parallel validation and warm-up of all configs. Threads are started on demand and stopped
+	 * when they are idle, so executor is never shut down
+	 */
+	private static final ThreadPoolExecutor WORKERS = newWorkers();
+
 	private final Class<? extends Config> clazz;
-	private final Map<String, String> configPaths;
+	private final Map<Method, ConfigAccessor> accessors;
+	private final Map<String, ConfigAccessor> accessorsByName;
 	private final BukkitConfiguration configuration;
 	private final boolean automaticColorStrings;
 
+	/**
+	 * Implementation generated by annotation processor, null if config was not processed
+	 */
+	private final CompiledConfig<?> compiled;
+
+	/**
+	 * Accessors by identity of Method instances passed by proxy, filled on first call of each method
+	 */
+	private volatile Map<Method, ConfigAccessor> resolvedAccessors;
+
 	public ConfigInvocationHandler(Class<? extends Config> clazz, BukkitConfiguration configuration, boolean automaticColorStrings) {
+		this(clazz, configuration, automaticColorStrings, null);
+	}
+
+	public ConfigInvocationHandler(Class<? extends Config> clazz, BukkitConfiguration configuration, boolean automaticColorStrings,
+								   CompiledConfig<?> compiled) {
+		this(clazz, configuration, automaticColorStrings, compiled, InitStrategy.EAGER_SERIAL, false);
+	}
+
+	public ConfigInvocationHandler(Class<? extends Config> clazz, BukkitConfiguration configuration, boolean automaticColorStrings,
+								   CompiledConfig<?> compiled, InitStrategy initStrategy, boolean warmUp) {
+		this(clazz, configuration, automaticColorStrings, compiled, initStrategy, warmUp, null, null);
+	}
+
+	/**
+	 * Creates handler which uses accessors prepared by handler of other instance of the same config's interface
+	 * @param accessors accessors returned by getAccessors(), null if they should be prepared
+	 * @param accessorsByName accessors returned by getAccessorsByName(), null if they should be prepared
+	 * @see ConfigMetadata
+	 */
+	ConfigInvocationHandler(Class<? extends Config> clazz, BukkitConfiguration configuration, boolean automaticColorStrings,
+							CompiledConfig<?> compiled, InitStrategy initStrategy, boolean warmUp,
+							Map<Method, ConfigAccessor> accessors, Map<String, ConfigAccessor> accessorsByName) {
+		boolean shared = accessors != null;
 		this.clazz = clazz;
-		this.configPaths = new HashMap<>();
+		this.accessors = shared ? accessors : new HashMap<>();
+		this.accessorsByName = shared ? accessorsByName : new LinkedHashMap<>();
+		this.resolvedAccessors = new IdentityHashMap<>();
 		this.configuration = configuration;
 		this.automaticColorStrings = automaticColorStrings;
+		this.compiled = compiled;
 
-		this.prepareMethods();
+		if (shared) {
+			this.prepareTypes();
+		}
+		else {
+			this.prepareMethods();
+		}
+
+		// Accessors don't depend on content of file, so they are not prepared again after it's reloaded
 		if (this.updateConfigFile()) {
 			this.configuration.load();
-			this.prepareMethods();
 		}
 
-		// Execute all getter for test and fill cache
-		for (Method method : this.clazz.getDeclaredMethods()) {
-			this.executeGetter(method);
+		switch (initStrategy) {
+			case EAGER_SERIAL:
+				// Execute all getter for test and fill cache
+				for (ConfigAccessor accessor : this.getGetters()) {
+					this.executeGetter(accessor);
+				}
+
+				break;
+			case EAGER_PARALLEL:
+				this.validateParallel();
+				break;
+			default:
+				if (warmUp) {
+					WORKERS.execute(this::warmUp);
+				}
+		}
+
+		// Values written in other format than selected CollectionStyle were found by validation
+		if (this.configuration.isDirty()) {
+			this.configuration.requestSave();
 		}
 	}
 
-	@Override
-	public Object invoke(Object proxy, Method method, Object[] args) {
-		String name = method.getName();
-		if (name.equals("getBukkitConfiguration")) {
-			return this.configuration;
+	private List<ConfigAccessor> getGetters() {
+		List<ConfigAccessor> getters = new ArrayList<>();
+		for (ConfigAccessor accessor : this.accessors.values()) {
+			if (accessor.getKind() == ConfigAccessor.Kind.GETTER) {
+				getters.add(accessor);
+			}
+		}
+
+		return getters;
+	}
+
+	/**
+	 * Executes all getters in parallel and reports all invalid values together. Values are validated against published snapshot,
+	 * without lock of configuration. Values whose serializers are not thread-safe are validated by calling thread in the meantime
+	 * @throws InvalidConfigFileException if any of values is invalid
+	 */
+	private void validateParallel() {
+		ConfigSnapshot snapshot = this.configuration.getSnapshot();
+		List<ConfigAccessor> parallel = new ArrayList<>();
+		List<ConfigAccessor> serial = new ArrayList<>();
+		for (ConfigAccessor accessor : this.getGetters()) {
+			(isThreadSafe(accessor) ? parallel : serial).add(accessor);
 		}
-		else if (name.equals("toString")) {
-			return this.clazz.toString();
+
+		Map<String, Throwable> errors = new TreeMap<>();
+		List<CompletableFuture<Void>> tasks = new ArrayList<>();
+		for (ConfigAccessor accessor : parallel) {
+			tasks.add(CompletableFuture.runAsync(() -> this.validate(accessor, snapshot), WORKERS));
 		}
-		else if (name.equals("hashCode")) {
-			return this.hashCode();
+
+		for (ConfigAccessor accessor : serial) {
+			try {
+				this.validate(accessor, snapshot);
+			} catch (RuntimeException e) {
+				errors.put(accessor.getPath(), e);
+			}
 		}
-		else if (name.equals("equals")) {
-			return proxy == args[0];
+
+		for (int i = 0; i < tasks.size(); i++) {
+			try {
+				tasks.get(i).join();
+			} catch (CompletionException e) {
+				errors.put(parallel.get(i).getPath(), e.getCause());
+			}
+		}
+
+		if (errors.isEmpty()) {
+			return;
 		}
-		else if (name.startsWith("get")) {
-			return this.executeGetter(method);
+
+		StringBuilder report = new StringBuilder("Config " + this.clazz.getSimpleName() + " has " + errors.size() + " invalid value(s):");
+		for (Map.Entry<String, Throwable> error : errors.entrySet()) {
+			report.append("\n - ").append(error.getKey()).append(": ").append(error.getValue().getMessage());
 		}
-		else if (name.startsWith("set")) {
-			this.executeSetter(method, args);
-			return null;
+
+		InvalidConfigFileException exception = new InvalidConfigFileException(report.append('\n').toString());
+		errors.values().forEach(exception::addSuppressed);
+		throw exception;
+	}
+
+	/**
+	 * Validates and deserializes value of getter from given snapshot, without taking lock of configuration
+	 * @param accessor accessor of getter
+	 * @param snapshot published snapshot of configuration
+	 */
+	private void validate(ConfigAccessor accessor, ConfigSnapshot snapshot) {
+		String path = accessor.getPath();
+		if (accessor.getValueKind() != ConfigAccessor.ValueKind.SERIALIZED || snapshot.get(path) == null) {
+			this.executeGetter(accessor);
+			return;
+		}
+
+		Serializer<?> serializer = accessor.getSerializer();
+		if (snapshot.getMaterialized(path, serializer) == null) {
+			ConfigNode node = ConfigNode.of(this.configuration, path, snapshot.getRaw(path));
+			snapshot.materialize(path, serializer.deserialize(node, accessor.getType()), serializer);
+		}
+	}
+
+	/**
+	 * Deserializes values on background thread, used by LAZY init. Values whose serializers are not thread-safe
+	 * are left for first access. Invalid values are only logged, they will be reported again on access
+	 */
+	private void warmUp() {
+		for (ConfigAccessor accessor : this.getGetters()) {
+			if (!isThreadSafe(accessor)) {
+				continue;
+			}
+
+			try {
+				this.executeGetter(accessor);
+			} catch (RuntimeException e) {
+				ConfigAPI.getPlugin().getLogger().warning("Could not warm up value of config (path: " + accessor.getPath() + "): " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Check can value of getter be deserialized on other thread than Bukkit's main thread
+	 * @param accessor accessor of getter
+	 * @return true if value is simple or its serializer is thread-safe, else false
+	 * @see Serializer#isThreadSafe(TypeDescriptor)
+	 */
+	private static boolean isThreadSafe(ConfigAccessor accessor) {
+		if (accessor.getValueKind() != ConfigAccessor.ValueKind.SERIALIZED) {
+			return true;
+		}
+
+		try {
+			return accessor.getSerializer().isThreadSafe(accessor.getType());
+		} catch (MissingSerializerException e) {
+			// Reported by validation on calling thread
+			return false;
+		}
+	}
+
+	private static ThreadPoolExecutor newWorkers() {
+		int threads = Runtime.getRuntime().availableProcessors();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, WORKER_KEEP_ALIVE, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "ConfigAPI Worker Thread");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) {
+		ConfigAccessor accessor = this.resolvedAccessors.get(method);
+		if (accessor == null) {
+			accessor = this.resolveAccessor(method);
+			if (accessor == null) {
+				return null;
+			}
 		}
 
-		return null;
+		switch (accessor.getKind()) {
+			case GETTER:
+				this.configuration.markAccessed();
+				return this.executeGetter(accessor);
+			case SETTER:
+				this.configuration.markAccessed();
+				this.executeSetter(accessor, args[0]);
+				return null;
+			case BUKKIT_CONFIGURATION:
+				return this.configuration;
+			case TO_STRING:
+				return this.clazz.toString();
+			case HASH_CODE:
+				return this.hashCode();
+			case EQUALS:
+				return proxy == args[0];
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Returns value of getter, used by generated implementations of config
+	 * @param accessor accessor of getter
+	 * @return value of getter
+	 * @see pl.mikigal.config.generator.ConfigClassGenerator
+	 */
+	public Object getValue(ConfigAccessor accessor) {
+		this.configuration.markAccessed();
+		return this.executeGetter(accessor);
+	}
+
+	/**
+	 * Returns value of getter with snapshot from which it was read, used by generated implementations of config
+	 * to cache value in their fields
+	 * @param accessor accessor of getter
+	 * @return value of getter, valid until next snapshot is published
+	 * @see CachedValue
+	 */
+	public CachedValue getCachedValue(ConfigAccessor accessor) {
+		// Snapshot is read before value, so value is never older than snapshot
+		ConfigSnapshot snapshot = this.getPublishedSnapshot();
+		int generation = Serializers.getGeneration();
+		return new CachedValue(snapshot, generation, this.executeGetter(accessor));
+	}
+
+	/**
+	 * Returns snapshot against which values cached by generated implementations are checked
+	 * @return published snapshot, null if current thread is writing to config or editing it
+	 * @see CachedValue#isValid(ConfigSnapshot)
+	 */
+	public ConfigSnapshot getPublishedSnapshot() {
+		this.configuration.markAccessed();
+		return this.configuration.getPublishedSnapshot();
+	}
+
+	/**
+	 * Sets value of setter, used by generated implementations of config
+	 * @param accessor accessor of setter
+	 * @param value new value
+	 * @see pl.mikigal.config.generator.ConfigClassGenerator
+	 */
+	public void setValue(ConfigAccessor accessor, Object value) {
+		this.configuration.markAccessed();
+		this.executeSetter(accessor, value);
+	}
+
+	/**
+	 * Allows to get prepared accessor of config's method
+	 * @param method instance of method
+	 * @return accessor of method, null if method is not handled by config
+	 */
+	public ConfigAccessor getAccessor(Method method) {
+		return this.accessors.get(method);
+	}
+
+	/**
+	 * Allows to get prepared accessor of config's method
+	 * @param name name of getter or setter
+	 * @return accessor of method, null if method is not handled by config
+	 */
+	public ConfigAccessor getAccessor(String name) {
+		return this.accessorsByName.get(name);
+	}
+
+	public BukkitConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * Returns accessors of config's methods, they are not modified after handler is created
+	 * @return accessors by methods
+	 */
+	Map<Method, ConfigAccessor> getAccessors() {
+		return accessors;
+	}
+
+	/**
+	 * Returns accessors of config's methods, they are not modified after handler is created
+	 * @return accessors by names of methods
+	 */
+	Map<String, ConfigAccessor> getAccessorsByName() {
+		return accessorsByName;
 	}
 
 	/**
 	 * Execute getter method
-	 * @param method instance of called method
+	 * @param accessor accessor of called method
 	 */
-	private Object executeGetter(Method method) {
-		if (!method.getName().startsWith("get")) {
-			return null;
+	private Object executeGetter(ConfigAccessor accessor) {
+		String path = accessor.getPath();
+		if (this.configuration.isStaged(path)) {
+			Object staged = this.configuration.getStaged(path);
+			return staged != null && accessor.getValueKind() == ConfigAccessor.ValueKind.COLOR_STRING ? ConversionUtils.fixColors((String) staged) : staged;
 		}
 
-		String path = this.getConfigPath(method);
-		Object value = this.configuration.get(path);
+		ConfigSnapshot snapshot = this.configuration.getSnapshot();
+		Object value = snapshot.get(path);
 
 		if (value == null) {
-			if (!method.isAnnotationPresent(ConfigOptional.class)) {
+			if (!accessor.isOptional()) {
 				throw new InvalidConfigFileException("Variable in config (path: " + path + ") is required, but is not set");
 			}
 
 			return null;
 		}
 
-		if (method.getReturnType().equals(String.class) && this.automaticColorStrings) {
-			String asString = (String) value;
-			if (!this.configuration.getCache().containsKey(path)) {
-				asString = ConversionUtils.fixColors(asString);
-				this.configuration.addToCache(path, asString);
-			}
+		switch (accessor.getValueKind()) {
+			case COLOR_STRING:
+				if (snapshot.isMaterialized(path)) {
+					return value;
+				}
+
+				String colored = ConversionUtils.fixColors((String) value);
+				snapshot.materialize(path, colored, null);
+				return colored;
+			case SIMPLE:
+				return value;
+			default:
+				Serializer<?> serializer = accessor.getSerializer();
+				Object materialized = snapshot.getMaterialized(path, serializer);
+				if (materialized != null) {
+					return materialized;
+				}
 
-			return asString;
+				return this.configuration.materialize(path, serializer);
 		}
+	}
 
-		if (TypeUtils.isSimpleType(method)) {
-			return value;
+	/**
+	 * Execute setter method
+	 * @param accessor accessor of called method
+	 * @param value new value
+	 */
+	private void executeSetter(ConfigAccessor accessor, Object value) {
+		if (value == null && !accessor.isOptional()) {
+			throw new InvalidConfigException("You can't set value to config setter that isn't @ConfigOptional (method: " + accessor.getMethod() + ")");
 		}
 
-		Serializer<?> serializer = Serializers.of(method.getReturnType());
-		if (serializer == null) {
-			throw new MissingSerializerException(method.getReturnType());
+		if (this.configuration.isEditing()) {
+			this.configuration.stage(accessor.getPath(), value, accessor.getComment());
+			return;
 		}
 
-		if (!serializer.getSerializerType().equals(value.getClass())) {
-			value = serializer.deserialize(path, this.configuration);
-			this.configuration.addToCache(path, value);
+		// Value didn't change, there is nothing to save
+		if (value != null && TypeUtils.isSimpleType(value.getClass()) && value.equals(this.configuration.getSnapshot().getRaw(accessor.getPath()))) {
+			return;
 		}
 
-		return value;
+		this.configuration.set(accessor.getPath(), value, accessor.getComment());
+		this.configuration.requestSave();
 	}
 
 	/**
-	 * Execute setter method
+	 * Find accessor for Method instance used by proxy and remember it by identity
 	 * @param method instance of called method
-	 * @param args arguments of called method
+	 * @return accessor of method, null if method is not handled by config
 	 */
-	private void executeSetter(Method method, Object[] args) {
-		if (!method.getName().startsWith("set")) {
-			return;
-		}
-
-		Object value = args[0];
-		if (value == null && !method.isAnnotationPresent(ConfigOptional.class)) {
-			throw new InvalidConfigException("You can't set value to config setter that isn't @ConfigOptional (method: " + method + ")");
+	private synchronized ConfigAccessor resolveAccessor(Method method) {
+		ConfigAccessor accessor = this.accessors.get(method);
+		if (accessor == null) {
+			return null;
 		}
 
-		configuration.set(this.getConfigPath(method), value, method.getAnnotation(Comment.class));
-		this.configuration.save();
+		Map<Method, ConfigAccessor> resolved = new IdentityHashMap<>(this.resolvedAccessors);
+		resolved.put(method, accessor);
+		this.resolvedAccessors = resolved;
+		return accessor;
 	}
 
 	/**
 	 * Validate methods, prepare paths of fields
 	 */
 	private void prepareMethods() {
+		this.accessors.clear();
+		this.accessorsByName.clear();
+		this.resolvedAccessors = new IdentityHashMap<>();
+		this.prepareBuiltinMethods();
+
+		if (this.compiled != null) {
+			this.prepareCompiledMethods();
+			return;
+		}
+
 		// Process getters
 		for (Method method : this.clazz.getDeclaredMethods()) {
 			String name = method.getName();
@@ -163,12 +487,8 @@ public class ConfigInvocationHandler implements InvocationHandler {
 				}
 			}
 
-			if (TypeUtils.isPrimitiveArray(method.getReturnType())) {
-				throw new InvalidConfigException("Arrays with primitives are not supported");
-			}
-
-			ConfigPath configPath = method.getAnnotation(ConfigPath.class);
-			this.configPaths.put(name, configPath == null ? configuration.getNameStyle().format(name) : configPath.value());
+			this.putAccessor(method, ConfigAccessor.Kind.GETTER, this.createConfigPath(method),
+					method.isAnnotationPresent(ConfigOptional.class), this.getComment(method));
 		}
 
 		// Process setters
@@ -186,10 +506,6 @@ public class ConfigInvocationHandler implements InvocationHandler {
 				throw new InvalidConfigException("Setter method " + name + " is not void type");
 			}
 
-			if (TypeUtils.isPrimitiveArray(method.getReturnType())) {
-				throw new InvalidConfigException("Arrays with primitives are not supported");
-			}
-
 			if (method.getParameterCount() != 1) {
 				throw new InvalidConfigException("Setter method " + name + " has not 1 parameter");
 			}
@@ -208,46 +524,161 @@ public class ConfigInvocationHandler implements InvocationHandler {
 				throw new InvalidConfigException("Setter method " + name + " has not getter");
 			}
 
-			ConfigPath configPath = method.getAnnotation(ConfigPath.class);
-			this.configPaths.put(name, configPath == null ? configuration.getNameStyle().format(name) : configPath.value());
+			this.putAccessor(method, ConfigAccessor.Kind.SETTER, this.createConfigPath(method),
+					method.isAnnotationPresent(ConfigOptional.class), this.getComment(method));
+		}
+	}
+
+	/**
+	 * Register declared types of serialized values of shared accessors in configuration
+	 */
+	private void prepareTypes() {
+		for (ConfigAccessor accessor : this.accessors.values()) {
+			if (accessor.getKind() == ConfigAccessor.Kind.GETTER && accessor.getType() != null) {
+				this.configuration.setType(accessor.getPath(), accessor.getType());
+			}
+		}
+	}
+
+	/**
+	 * Prepare accessors from implementation generated by annotation processor.
+	 * Interface was already validated at compile time, paths, comments and kinds of values are precomputed,
+	 * serializers are resolved on first use
+	 */
+	private void prepareCompiledMethods() {
+		for (String name : this.compiled.getMethodNames()) {
+			Method method = this.compiled.getMethod(name);
+			String path = this.compiled.getPath(name, this.configuration.getNameStyle());
+			if (!name.startsWith("get")) {
+				this.putAccessor(new ConfigAccessor(method, ConfigAccessor.Kind.SETTER, null, path, false, null, 0, null, this.compiled.getComment(name)));
+				continue;
+			}
+
+			ConfigAccessor.ValueKind valueKind = this.compiled.getValueKind(name);
+			if (valueKind == ConfigAccessor.ValueKind.COLOR_STRING && !this.automaticColorStrings) {
+				valueKind = ConfigAccessor.ValueKind.SIMPLE;
+			}
+
+			TypeDescriptor type = null;
+			if (valueKind == ConfigAccessor.ValueKind.SERIALIZED) {
+				type = TypeDescriptor.of(method.getGenericReturnType());
+				this.configuration.setType(path, type);
+			}
+
+			this.putAccessor(new ConfigAccessor(method, ConfigAccessor.Kind.GETTER, valueKind, path, this.compiled.isOptional(name),
+					null, 0, type, this.compiled.getComment(name)));
+		}
+	}
+
+	/**
+	 * Create accessor of getter or setter and register it
+	 * @param method instance of method
+	 * @param kind GETTER or SETTER
+	 * @param path field's path
+	 * @param optional true if field is optional
+	 * @param comment field's comment, can be null
+	 */
+	private void putAccessor(Method method, ConfigAccessor.Kind kind, String path, boolean optional, String comment) {
+		ConfigAccessor.ValueKind valueKind = null;
+		Serializer<?> serializer = null;
+		int generation = Serializers.getGeneration();
+		TypeDescriptor type = null;
+		if (kind == ConfigAccessor.Kind.GETTER) {
+			if (method.getReturnType().equals(String.class) && this.automaticColorStrings) {
+				valueKind = ConfigAccessor.ValueKind.COLOR_STRING;
+			}
+			else if (TypeUtils.isSimpleType(method)) {
+				valueKind = ConfigAccessor.ValueKind.SIMPLE;
+			}
+			else {
+				valueKind = ConfigAccessor.ValueKind.SERIALIZED;
+				serializer = Serializers.of(method.getReturnType());
+				if (serializer == null) {
+					throw new MissingSerializerException(method.getReturnType());
+				}
+
+				type = TypeDescriptor.of(method.getGenericReturnType());
+				this.configuration.setType(path, type);
+			}
+		}
+
+		this.putAccessor(new ConfigAccessor(method, kind, valueKind, path, optional, serializer, generation, type, comment));
+	}
+
+	/**
+	 * Register accessor of getter or setter
+	 * @param accessor accessor of method
+	 */
+	private void putAccessor(ConfigAccessor accessor) {
+		this.accessors.put(accessor.getMethod(), accessor);
+		this.accessorsByName.put(accessor.getMethod().getName(), accessor);
+	}
+
+	/**
+	 * Prepare accessors of methods which are not config's fields
+	 */
+	private void prepareBuiltinMethods() {
+		try {
+			this.putBuiltinMethod(Config.class.getMethod("getBukkitConfiguration"), ConfigAccessor.Kind.BUKKIT_CONFIGURATION);
+			this.putBuiltinMethod(Object.class.getMethod("toString"), ConfigAccessor.Kind.TO_STRING);
+			this.putBuiltinMethod(Object.class.getMethod("hashCode"), ConfigAccessor.Kind.HASH_CODE);
+			this.putBuiltinMethod(Object.class.getMethod("equals", Object.class), ConfigAccessor.Kind.EQUALS);
+		} catch (NoSuchMethodException e) {
+			throw new InvalidConfigException("Could not find built-in method", e);
 		}
 	}
 
+	/**
+	 * Register accessor of built-in method
+	 * @param method instance of method
+	 * @param kind kind of method
+	 */
+	private void putBuiltinMethod(Method method, ConfigAccessor.Kind kind) {
+		this.accessors.put(method, ConfigAccessor.of(method, kind));
+	}
+
 	/**
 	 * Check for new methods in config's class, update config's file if new methods exist
 	 * @return true if config was update, else false
 	 */
 	private boolean updateConfigFile() {
-		boolean modified = false;
-		for (Method method : this.clazz.getDeclaredMethods()) {
-			String name = method.getName();
-			if (!name.startsWith("get") && !name.startsWith("set")) {
-				throw new InvalidConfigException("Found non getter/setter method (name: " + name + ") in " + clazz.getCanonicalName());
-			}
+		// Compiled interface was validated by annotation processor
+		if (this.compiled == null) {
+			for (Method method : this.clazz.getDeclaredMethods()) {
+				String name = method.getName();
+				if (!name.startsWith("get") && !name.startsWith("set")) {
+					throw new InvalidConfigException("Found non getter/setter method (name: " + name + ") in " + clazz.getCanonicalName());
+				}
 
-			if (!name.startsWith("set") && method.getParameters().length != 0) {
-				throw new InvalidConfigException("Found method with parameters (name: " + name + ") in " + clazz.getCanonicalName());
+				if (!name.startsWith("set") && method.getParameters().length != 0) {
+					throw new InvalidConfigException("Found method with parameters (name: " + name + ") in " + clazz.getCanonicalName());
+				}
 			}
+		}
 
-			if (!method.isDefault() || this.configuration.contains(this.getConfigPath(method))) {
+		boolean modified = false;
+		for (ConfigAccessor accessor : this.accessorsByName.values()) {
+			if (accessor.getKind() != ConfigAccessor.Kind.GETTER || this.configuration.contains(accessor.getPath())) {
 				continue;
 			}
 
-			Object defaultValue = ReflectionUtils.getDefaultValue(method);
-			if (defaultValue == null && !method.isAnnotationPresent(ConfigOptional.class)) {
-				throw new InvalidConfigException("Method " + method.getName() + " is not optional, but it's default value is null");
+			String name = accessor.getMethod().getName();
+			Object defaultValue = this.compiled == null ? ReflectionUtils.getDefaultValue(accessor.getMethod()) : this.compiled.getDefaultValue(name);
+			if (defaultValue == null && !accessor.isOptional()) {
+				throw new InvalidConfigException("Method " + name + " is not optional, but it's default value is null");
 			}
 
-			if (defaultValue instanceof Collection && ((Collection<?>) defaultValue).size() == 0) {
+			// Types of elements of empty Collection or Map can be known only from generic signature
+			if (defaultValue instanceof Collection && ((Collection<?>) defaultValue).size() == 0 && !this.isDeclared(accessor, 0)) {
 				throw new InvalidConfigException("Could not use empty Collection as default value, method: " + name);
 			}
 
-			if (defaultValue instanceof Map && ((Map<?, ?>) defaultValue).size() == 0) {
+			if (defaultValue instanceof Map && ((Map<?, ?>) defaultValue).size() == 0 && !this.isDeclared(accessor, 1)) {
 				throw new InvalidConfigException("Could not use empty Map as default value, method: " + name);
 			}
 
 			modified = true;
-			this.configuration.set(this.getConfigPath(method), defaultValue, method.getAnnotation(Comment.class));
+			this.configuration.set(accessor.getPath(), defaultValue, accessor.getComment());
 		}
 
 		if (modified) {
@@ -258,11 +689,32 @@ public class ConfigInvocationHandler implements InvocationHandler {
 	}
 
 	/**
-	 * Get path of method from cache
+	 * Check is generic argument of getter's type declared
+	 * @param accessor accessor of getter
+	 * @param index index of generic argument
+	 * @return true if argument is declared, else false
+	 */
+	private boolean isDeclared(ConfigAccessor accessor, int index) {
+		return accessor.getType() != null && accessor.getType().getArgument(index) != null;
+	}
+
+	/**
+	 * Get comment of method from Comment annotation
+	 * @param method instance of method
+	 * @return field's comment, null if method has no comment
+	 */
+	private String getComment(Method method) {
+		Comment comment = method.getAnnotation(Comment.class);
+		return comment == null ? null : comment.value();
+	}
+
+	/**
+	 * Create path of method, based on ConfigPath annotation or selected name style
 	 * @param method instance of method
-	 * @return field's path from cache
+	 * @return field's path
 	 */
-	private String getConfigPath(Method method) {
-		return this.configPaths.get(method.getName());
+	private String createConfigPath(Method method) {
+		ConfigPath configPath = method.getAnnotation(ConfigPath.class);
+		return configPath == null ? this.configuration.getNameStyle().format(method.getName()) : configPath.value();
 	}
 }
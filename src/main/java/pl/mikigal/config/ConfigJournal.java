@@ -0,0 +1,242 @@
+package pl.mikigal.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Queue;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of changes, written next to .yml file with <code>.journal</code> suffix.
+ * Every record contains path and its new value, encoded like values of binary cache. Records are replayed over values
+ * of file when config is loaded, and journal is cleared when file is saved.
+ * Record which is incomplete or has invalid checksum ends journal, e.g. when server crashed during its write.
+ * Records are queued by setters under config's lock and written outside of it through one channel opened in append mode,
+ * so records queued by concurrent setters are written, and optionally forced to disk, together
+ * @see pl.mikigal.config.style.SavePolicy#JOURNAL
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigJournal {
+
+	private final Path path;
+	private final long limit;
+	private final boolean sync;
+
+	/**
+	 * Records which were queued, but not written yet
+	 */
+	private final Queue<byte[]> pending = new ArrayDeque<>();
+	private FileChannel channel;
+
+	/**
+	 * Size of valid records in journal, including queued ones, in bytes
+	 */
+	private long size;
+
+	/**
+	 * @param file config's file
+	 * @param limit size of journal in bytes after which it's compacted into file
+	 */
+	public ConfigJournal(File file, long limit) {
+		this(file, limit, true);
+	}
+
+	/**
+	 * @param file config's file
+	 * @param limit size of journal in bytes after which it's compacted into file
+	 * @param sync true if written records should be forced to disk
+	 */
+	public ConfigJournal(File file, long limit, boolean sync) {
+		this.path = file.toPath().resolveSibling(file.getName() + ".journal");
+		this.limit = limit;
+		this.sync = sync;
+	}
+
+	/**
+	 * Applies records of journal to {@param root}, in order they were written.
+	 * Invalid tail of journal is logged and truncated, so next records are appended after valid ones
+	 * @param root section to which values are applied
+	 * @throws IOException if journal could not be read
+	 */
+	synchronized void replay(ConfigurationSection root) throws IOException {
+		this.flush();
+		this.closeChannel();
+		this.size = 0;
+		if (!Files.isRegularFile(this.path)) {
+			return;
+		}
+
+		// Journal is read to heap, mapping of file would stay open until it's collected and block truncation on Windows
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(this.path));
+		int records = 0;
+		while (buffer.remaining() >= 8) {
+			int length = buffer.getInt();
+			int crc = buffer.getInt();
+			if (length <= 0 || length > buffer.remaining()) {
+				break;
+			}
+
+			ByteBuffer record = buffer.slice();
+			record.limit(length);
+			if (checksum(record) != crc) {
+				break;
+			}
+
+			try {
+				ConfigBinaryCache.readNode(record, root, ConfigBinaryCache.readString(record));
+			} catch (RuntimeException e) {
+				throw new IOException("Corrupted record of journal (name: " + this.path.getFileName() + ")", e);
+			}
+
+			buffer.position(buffer.position() + length);
+			this.size = buffer.position();
+			records++;
+		}
+
+		if (this.size != buffer.capacity()) {
+			ConfigAPI.getPlugin().getLogger().warning("Journal of config (name: " + this.path.getFileName()
+					+ ") has invalid record after " + records + " records, rest of journal is skipped");
+			try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.WRITE)) {
+				channel.truncate(this.size);
+			}
+		}
+	}
+
+	/**
+	 * Encodes records with current values of given paths
+	 * @param root section from which values are read
+	 * @param paths paths of changed values, removed ones are written as null
+	 * @return encoded records, null if any value can't be encoded
+	 */
+	byte[] encode(ConfigurationSection root, Collection<String> paths) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		try (DataOutputStream output = new DataOutputStream(bytes)) {
+			DataOutputStream record = new DataOutputStream(payload);
+			for (String path : paths) {
+				payload.reset();
+				ConfigBinaryCache.writeString(record, path);
+				ConfigBinaryCache.writeNode(record, root.get(path, null));
+
+				CRC32 crc = new CRC32();
+				crc.update(payload.toByteArray(), 0, payload.size());
+				output.writeInt(payload.size());
+				output.writeInt((int) crc.getValue());
+				payload.writeTo(output);
+			}
+		} catch (UnsupportedOperationException e) {
+			return null;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Queues records to be appended to end of journal by flush(), called under config's lock so records keep order of changes
+	 * @param records records returned by encode()
+	 */
+	synchronized void enqueue(byte[] records) {
+		this.pending.add(records);
+		this.size += records.length;
+	}
+
+	/**
+	 * Appends all queued records to end of journal and forces them to disk if journal is synchronous.
+	 * Records queued by other threads in meantime are written by the same call
+	 * @throws IOException if journal could not be written
+	 */
+	synchronized void flush() throws IOException {
+		if (this.pending.isEmpty()) {
+			return;
+		}
+
+		if (this.channel == null) {
+			this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		}
+
+		for (byte[] records = this.pending.peek(); records != null; records = this.pending.peek()) {
+			ByteBuffer buffer = ByteBuffer.wrap(records);
+			while (buffer.hasRemaining()) {
+				this.channel.write(buffer);
+			}
+
+			this.pending.remove();
+		}
+
+		if (this.sync) {
+			this.channel.force(false);
+		}
+	}
+
+	/**
+	 * Removes journal and its queued records, called after its records were saved to file
+	 */
+	synchronized void clear() {
+		this.pending.clear();
+		try {
+			this.closeChannel();
+			Files.deleteIfExists(this.path);
+			this.size = 0;
+		} catch (IOException e) {
+			ConfigAPI.getPlugin().getLogger().log(Level.WARNING, "Could not remove journal of config (name: " + this.path.getFileName() + ")", e);
+		}
+	}
+
+	/**
+	 * Writes queued records and closes journal's file, called when config is closed
+	 */
+	synchronized void close() {
+		try {
+			this.flush();
+			this.closeChannel();
+		} catch (IOException e) {
+			ConfigAPI.getPlugin().getLogger().log(Level.WARNING, "Could not close journal of config (name: " + this.path.getFileName() + ")", e);
+		}
+	}
+
+	private void closeChannel() throws IOException {
+		if (this.channel != null) {
+			FileChannel closing = this.channel;
+			this.channel = null;
+			closing.close();
+		}
+	}
+
+	/**
+	 * Check does journal contain records which were not saved to file
+	 * @return true if journal is not empty, else false
+	 */
+	public synchronized boolean hasRecords() {
+		return this.size > 0;
+	}
+
+	/**
+	 * Check should journal be compacted into file
+	 * @return true if size of journal reached its limit, else false
+	 */
+	public synchronized boolean isFull() {
+		return this.size >= this.limit;
+	}
+
+	private static int checksum(ByteBuffer record) {
+		CRC32 crc = new CRC32();
+		byte[] bytes = new byte[record.remaining()];
+		record.duplicate().get(bytes);
+		crc.update(bytes, 0, bytes.length);
+		return (int) crc.getValue();
+	}
+}
@@ -0,0 +1,169 @@
+package pl.mikigal.config;
+
+import pl.mikigal.config.annotation.Comment;
+import pl.mikigal.config.annotation.ConfigCache;
+import pl.mikigal.config.annotation.ConfigCollections;
+import pl.mikigal.config.annotation.ConfigImplementation;
+import pl.mikigal.config.annotation.ConfigInit;
+import pl.mikigal.config.annotation.ConfigName;
+import pl.mikigal.config.annotation.ConfigSave;
+import pl.mikigal.config.exception.InvalidConfigException;
+import pl.mikigal.config.generator.ConfigClassGenerator;
+import pl.mikigal.config.style.CollectionStyle;
+import pl.mikigal.config.style.CommentStyle;
+import pl.mikigal.config.style.ImplementationStyle;
+import pl.mikigal.config.style.InitStrategy;
+import pl.mikigal.config.style.NameStyle;
+import pl.mikigal.config.style.SavePolicy;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+/**
+ * Properties of config's interface resolved from its annotations, and accessors of its methods.
+ * Resolved once per interface and shared by all instances of keyed config
+ * @see ConfigPool
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+final class ConfigMetadata<T extends Config> {
+
+	private final Class<T> clazz;
+	private final String name;
+	private final NameStyle nameStyle;
+	private final CommentStyle commentStyle;
+	private final boolean automaticColorStrings;
+	private final String configComment;
+	private final SavePolicy savePolicy;
+	private final long saveDelay;
+	private final long journalSize;
+	private final boolean journalSync;
+	private final CollectionStyle collectionStyle;
+	private final long cacheSchema;
+	private final InitStrategy initStrategy;
+	private final boolean warmUp;
+	private final CompiledConfig<T> compiled;
+
+	/**
+	 * Accessors of methods, prepared by handler of first instance
+	 */
+	private volatile Map<Method, ConfigAccessor> accessors;
+	private volatile Map<String, ConfigAccessor> accessorsByName;
+
+	private ConfigMetadata(Class<T> clazz, NameStyle nameStyle, CommentStyle commentStyle, boolean automaticColorStrings) {
+		ConfigName configName = clazz.getAnnotation(ConfigName.class);
+		if (configName == null) {
+			throw new InvalidConfigException("Config must have annotation ConfigName with file's name");
+		}
+
+		this.clazz = clazz;
+		this.name = configName.value() + (configName.value().endsWith(".yml") ? "" : ".yml");
+		this.nameStyle = nameStyle;
+		this.commentStyle = commentStyle;
+		this.automaticColorStrings = automaticColorStrings;
+
+		Comment configCommentAnnotation = clazz.getAnnotation(Comment.class);
+		this.configComment = configCommentAnnotation == null ? null : configCommentAnnotation.value();
+
+		ConfigSave configSave = clazz.getAnnotation(ConfigSave.class);
+		this.savePolicy = configSave == null ? SavePolicy.IMMEDIATE : configSave.value();
+		this.saveDelay = configSave == null ? 0 : configSave.delay();
+		this.journalSize = configSave == null ? 0 : configSave.journalSize();
+		this.journalSync = configSave == null || configSave.journalSync();
+
+		ConfigCollections configCollections = clazz.getAnnotation(ConfigCollections.class);
+		this.collectionStyle = configCollections == null ? CollectionStyle.SECTION : configCollections.value();
+		this.cacheSchema = clazz.isAnnotationPresent(ConfigCache.class)
+				? ConfigBinaryCache.schema(clazz, nameStyle, this.collectionStyle)
+				: -1;
+
+		ConfigInit configInit = clazz.getAnnotation(ConfigInit.class);
+		this.initStrategy = configInit == null ? InitStrategy.EAGER_SERIAL : configInit.value();
+		this.warmUp = configInit != null && configInit.warmUp();
+
+		this.compiled = CompiledConfig.of(clazz);
+	}
+
+	/**
+	 * Resolves properties of config's interface
+	 * @param clazz Class of your Config interface
+	 * @param nameStyle Style of config's fields names
+	 * @param commentStyle Style of config's comments
+	 * @param automaticColorStrings Automatic translate '&' based colors
+	 * @return metadata of {@param clazz}
+	 */
+	static <T extends Config> ConfigMetadata<T> of(Class<T> clazz, NameStyle nameStyle, CommentStyle commentStyle,
+												   boolean automaticColorStrings) {
+		return new ConfigMetadata<>(clazz, nameStyle, commentStyle, automaticColorStrings);
+	}
+
+	/**
+	 * Creates and loads BukkitConfiguration of given file
+	 * @param directory directory of file
+	 * @param file config's file
+	 * @return loaded configuration
+	 */
+	BukkitConfiguration createConfiguration(File directory, File file) {
+		ConfigBinaryCache binaryCache = this.cacheSchema != -1 ? new ConfigBinaryCache(file, this.cacheSchema) : null;
+		ConfigJournal journal = this.savePolicy == SavePolicy.JOURNAL ? new ConfigJournal(file, this.journalSize, this.journalSync) : null;
+
+		return new BukkitConfiguration(directory, file, this.nameStyle, this.commentStyle, this.automaticColorStrings,
+				this.configComment, this.savePolicy, this.saveDelay, this.collectionStyle, binaryCache, journal);
+	}
+
+	/**
+	 * Creates instance of config backed by given configuration, accessors of methods are prepared only for first instance
+	 * @param configuration loaded configuration
+	 * @return handler of instance
+	 */
+	ConfigInvocationHandler createHandler(BukkitConfiguration configuration) {
+		if (this.accessors != null) {
+			return new ConfigInvocationHandler(this.clazz, configuration, this.automaticColorStrings, this.compiled,
+					this.initStrategy, this.warmUp, this.accessors, this.accessorsByName);
+		}
+
+		ConfigInvocationHandler handler = new ConfigInvocationHandler(this.clazz, configuration, this.automaticColorStrings,
+				this.compiled, this.initStrategy, this.warmUp);
+		this.accessorsByName = handler.getAccessorsByName();
+		this.accessors = handler.getAccessors();
+		return handler;
+	}
+
+	/**
+	 * Creates instance of config's interface, compiled or generated class if it's available or proxy
+	 * @param handler initialized handler of config
+	 * @see ConfigImplementation
+	 * @return Instance of config's interface
+	 */
+	T createInstance(ConfigInvocationHandler handler) {
+		if (this.compiled != null) {
+			return this.compiled.create(handler);
+		}
+
+		ConfigImplementation implementation = this.clazz.getAnnotation(ConfigImplementation.class);
+		if (implementation != null && implementation.value() == ImplementationStyle.GENERATED) {
+			T generated = ConfigClassGenerator.generate(this.clazz, handler);
+			if (generated != null) {
+				return generated;
+			}
+
+			ConfigAPI.getPlugin().getLogger().warning("Could not generate implementation of " + this.clazz.getName() + ", it's not public or uses non-public types. Using proxy instead");
+		}
+
+		return (T) Proxy.newProxyInstance(this.clazz.getClassLoader(), new Class[]{this.clazz}, handler);
+	}
+
+	public Class<T> getConfigClass() {
+		return clazz;
+	}
+
+	/**
+	 * Returns name of config's file, or of directory of keyed config's files
+	 * @return value of ConfigName with <code>.yml</code> suffix
+	 */
+	public String getName() {
+		return name;
+	}
+}
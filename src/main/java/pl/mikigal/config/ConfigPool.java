@@ -0,0 +1,268 @@
+package pl.mikigal.config;
+
+import pl.mikigal.config.exception.InvalidConfigException;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+
+/**
+ * Bounded cache of instances of keyed config, one file per key, e.g. <code>players/&lt;uuid&gt;.yml</code>.
+ * Files are stored in directory named by ConfigName. Instances share properties and accessors of config's interface,
+ * least recently used instances are evicted when there are more of them than maximum size, and their unsaved changes are written back
+ * in background. Instances used through their interface since last eviction get second chance before they are evicted.
+ * Instance rejects changes after it was evicted or closed, open it again instead. Instance of key isn't loaded again
+ * until write-back of its previous instance is finished
+ * @see ConfigAPI#open(Class, String)
+ * @see pl.mikigal.config.annotation.ConfigKeyed
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigPool<T extends Config> {
+
+	private final ConfigMetadata<T> metadata;
+	private final File directory;
+	private final int maximumSize;
+
+	/**
+	 * Loaded instances in access order, loads and write-backs in progress, guarded by this
+	 */
+	private final LinkedHashMap<String, T> instances = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, CompletableFuture<T>> loading = new HashMap<>();
+	private final Map<String, CompletableFuture<Void>> writing = new HashMap<>();
+
+	ConfigPool(ConfigMetadata<T> metadata, File directory, int maximumSize) {
+		if (maximumSize < 1) {
+			throw new InvalidConfigException("Maximum size of keyed config " + metadata.getConfigClass().getName() + " must be positive");
+		}
+
+		this.metadata = metadata;
+		this.directory = directory;
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Returns instance of config for given key, file is loaded on calling thread if instance is not cached
+	 * @param key key of instance, name of its file without <code>.yml</code>
+	 * @return instance of config
+	 * @throws InvalidConfigException if file could not be loaded
+	 */
+	public T open(String key) {
+		try {
+			return this.request(key, Runnable::run).join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns instance of config for given key, file is loaded on common ForkJoinPool if instance is not cached,
+	 * e.g. when player joins
+	 * @param key key of instance, name of its file without <code>.yml</code>
+	 * @return future of instance
+	 */
+	public CompletableFuture<T> openAsync(String key) {
+		return this.request(key, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns instance of config for given key, file is loaded by given executor if instance is not cached
+	 * @param key key of instance, name of its file without <code>.yml</code>
+	 * @param executor executor which loads file
+	 * @return future of instance
+	 */
+	public CompletableFuture<T> openAsync(String key, Executor executor) {
+		return this.request(key, executor);
+	}
+
+	/**
+	 * Returns instance of config for given key, only if it's cached
+	 * @param key key of instance
+	 * @return instance of config, null if it's not loaded
+	 */
+	public synchronized T getIfLoaded(String key) {
+		return this.instances.get(key);
+	}
+
+	/**
+	 * Removes instance from cache, writes its unsaved changes and closes it, e.g. when player quits
+	 * @param key key of instance
+	 * @return true if instance was loaded, else false
+	 * @throws InvalidConfigException if file could not be saved
+	 */
+	public boolean close(String key) {
+		T instance;
+		CompletableFuture<Void> written;
+		synchronized (this) {
+			instance = this.instances.remove(key);
+			if (instance == null) {
+				return false;
+			}
+
+			written = this.startWriteBack(key);
+		}
+
+		try {
+			instance.getBukkitConfiguration().close();
+		} finally {
+			this.finishWriteBack(key, written);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Writes unsaved changes of all loaded instances
+	 */
+	public void flush() {
+		List<T> loaded;
+		synchronized (this) {
+			loaded = new ArrayList<>(this.instances.values());
+		}
+
+		for (T instance : loaded) {
+			try {
+				instance.getBukkitConfiguration().flush();
+			} catch (InvalidConfigException e) {
+				ConfigAPI.getPlugin().getLogger().log(Level.SEVERE, e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Returns count of loaded instances
+	 * @return count of instances in cache
+	 */
+	public synchronized int size() {
+		return this.instances.size();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Returns cached instance, or joins load in progress, or starts new load by given executor,
+	 * after write-back of previous instance of key is finished
+	 */
+	private CompletableFuture<T> request(String key, Executor executor) {
+		if (key == null || key.isEmpty() || key.contains("/") || key.contains("\\") || key.startsWith(".")) {
+			throw new InvalidConfigException("Invalid key of keyed config " + this.metadata.getConfigClass().getName() + ": " + key);
+		}
+
+		CompletableFuture<T> future;
+		CompletableFuture<Void> written;
+		synchronized (this) {
+			T instance = this.instances.get(key);
+			if (instance != null) {
+				return CompletableFuture.completedFuture(instance);
+			}
+
+			future = this.loading.get(key);
+			if (future != null) {
+				return future;
+			}
+
+			future = new CompletableFuture<>();
+			this.loading.put(key, future);
+			written = this.writing.get(key);
+		}
+
+		CompletableFuture<T> result = future;
+		if (written == null) {
+			executor.execute(() -> this.load(key, result));
+		}
+		else {
+			written.whenComplete((ignored, throwable) -> executor.execute(() -> this.load(key, result)));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Loads instance, puts it to cache and writes back instances evicted by it
+	 */
+	private void load(String key, CompletableFuture<T> future) {
+		T instance;
+		try {
+			BukkitConfiguration configuration = this.metadata.createConfiguration(this.directory, new File(this.directory, key + ".yml"));
+			instance = this.metadata.createInstance(this.metadata.createHandler(configuration));
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				this.loading.remove(key);
+			}
+
+			future.completeExceptionally(e);
+			return;
+		}
+
+		Map<String, T> evicted = new LinkedHashMap<>();
+		Map<String, CompletableFuture<Void>> writes = new HashMap<>();
+		synchronized (this) {
+			this.loading.remove(key);
+			this.instances.put(key, instance);
+
+			while (this.instances.size() > this.maximumSize) {
+				Map.Entry<String, T> entry = this.instances.entrySet().iterator().next();
+				// Instances used since last eviction get second chance, getters don't reorder cache.
+				// Flags are cleared on the way, so loop ends after at most one pass over cache
+				if (entry.getKey().equals(key) || entry.getValue().getBukkitConfiguration().clearAccessed()) {
+					this.instances.get(entry.getKey());
+					continue;
+				}
+
+				evicted.put(entry.getKey(), entry.getValue());
+				writes.put(entry.getKey(), this.startWriteBack(entry.getKey()));
+				this.instances.remove(entry.getKey());
+			}
+		}
+
+		future.complete(instance);
+		evicted.forEach((evictedKey, evictedInstance) -> ConfigSaveScheduler.schedule(() ->
+				this.writeBack(evictedKey, evictedInstance, writes.get(evictedKey)), 0));
+	}
+
+	/**
+	 * Writes unsaved changes of evicted instance and closes it on writer's thread, so load which evicted it isn't blocked by IO.
+	 * Errors are only logged, so they don't break write-backs of other instances
+	 */
+	private void writeBack(String key, T instance, CompletableFuture<Void> written) {
+		try {
+			instance.getBukkitConfiguration().close();
+		} catch (InvalidConfigException e) {
+			ConfigAPI.getPlugin().getLogger().log(Level.SEVERE, e.getMessage(), e);
+		} finally {
+			this.finishWriteBack(key, written);
+		}
+	}
+
+	/**
+	 * Registers write-back of removed instance, which next load of its key waits for. Called with lock of this held,
+	 * key has at most one write-back in progress, because it's not loaded again before it's finished
+	 */
+	private CompletableFuture<Void> startWriteBack(String key) {
+		CompletableFuture<Void> written = new CompletableFuture<>();
+		this.writing.put(key, written);
+		return written;
+	}
+
+	private void finishWriteBack(String key, CompletableFuture<Void> written) {
+		synchronized (this) {
+			this.writing.remove(key, written);
+		}
+
+		written.complete(null);
+	}
+}
@@ -0,0 +1,125 @@
+package pl.mikigal.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Background writer of configs with DEBOUNCED save policy, journals and binary caches
+ * @see pl.mikigal.config.style.SavePolicy#DEBOUNCED
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigSaveScheduler {
+
+	/**
+	 * Time for which shutdown waits for task in progress, in seconds
+	 */
+	private static final long TERMINATION_TIMEOUT = 10;
+
+	private static ScheduledThreadPoolExecutor executor;
+	private static boolean stopped;
+
+	/**
+	 * Tasks which were scheduled, but didn't start yet
+	 */
+	private static final Set<Runnable> pending = new LinkedHashSet<>();
+
+	private ConfigSaveScheduler() {
+	}
+
+	/**
+	 * Schedules task on writer's thread. After shutdown() task is executed by calling thread instead,
+	 * so writer's thread is not started again
+	 * @param task task to run
+	 * @param delay delay in milliseconds
+	 */
+	static void schedule(Runnable task, long delay) {
+		synchronized (ConfigSaveScheduler.class) {
+			if (!stopped) {
+				if (executor == null) {
+					executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+						Thread thread = new Thread(runnable, "ConfigAPI Save Thread");
+						thread.setDaemon(true);
+						return thread;
+					});
+
+					executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+				}
+
+				Runnable tracked = new Runnable() {
+					@Override
+					public void run() {
+						if (start(this)) {
+							task.run();
+						}
+					}
+				};
+
+				pending.add(tracked);
+				executor.schedule(tracked, delay, TimeUnit.MILLISECONDS);
+				return;
+			}
+		}
+
+		task.run();
+	}
+
+	/**
+	 * Removes task from pending ones, so it's executed only once
+	 * @return true if task should be executed, false if it was already executed by shutdown()
+	 */
+	private static synchronized boolean start(Runnable task) {
+		return pending.remove(task);
+	}
+
+	/**
+	 * Allows to schedule tasks on writer's thread again, after shutdown()
+	 */
+	static synchronized void start() {
+		stopped = false;
+	}
+
+	/**
+	 * Stops writer's thread. Task in progress is finished, delayed tasks which didn't start yet
+	 * are executed by calling thread, so their configs don't stay marked as scheduled
+	 */
+	static void shutdown() {
+		ScheduledThreadPoolExecutor stopping;
+		synchronized (ConfigSaveScheduler.class) {
+			stopped = true;
+			stopping = executor;
+			executor = null;
+		}
+
+		if (stopping == null) {
+			return;
+		}
+
+		stopping.shutdown();
+		try {
+			if (!stopping.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.SECONDS)) {
+				ConfigAPI.getPlugin().getLogger().warning("Save of config did not finish in " + TERMINATION_TIMEOUT + " seconds");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		List<Runnable> dropped;
+		synchronized (ConfigSaveScheduler.class) {
+			dropped = new ArrayList<>(pending);
+		}
+
+		for (Runnable task : dropped) {
+			try {
+				task.run();
+			} catch (RuntimeException e) {
+				ConfigAPI.getPlugin().getLogger().log(Level.SEVERE, "Could not execute save of config", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,398 @@
+package pl.mikigal.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import pl.mikigal.config.serializer.Serializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Immutable state of config published by BukkitConfiguration.
+ * Raw values are detached copies of config's tree, stored in persistent map by full path, so next snapshot shares
+ * all values except changed subtree. Sections are read through read-only views of snapshot.
+ * Materialized values are memoized lazily per snapshot, so readers don't need any locks and never see half-loaded config
+ * @see BukkitConfiguration
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigSnapshot {
+
+	private final BukkitConfiguration configuration;
+
+	/**
+	 * Detached raw values of config by full path. Section is stored as keys of its children, root under empty path.
+	 * Modified only by writing thread, before snapshot is published
+	 */
+	private PersistentMap<String, Object> values;
+
+	/**
+	 * Values materialized from previous snapshots, which are still valid for this one
+	 */
+	private PersistentMap<String, MaterializedValue> inherited;
+
+	/**
+	 * Values materialized from raw values of this snapshot
+	 */
+	private final ConcurrentMap<String, MaterializedValue> materialized = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates empty snapshot
+	 * @param configuration configuration which owns snapshot
+	 */
+	ConfigSnapshot(BukkitConfiguration configuration) {
+		this(configuration, PersistentMap.<String, Object>empty().put("", SectionKeys.EMPTY), PersistentMap.empty());
+	}
+
+	private ConfigSnapshot(BukkitConfiguration configuration, PersistentMap<String, Object> values,
+						   PersistentMap<String, MaterializedValue> inherited) {
+		this.configuration = configuration;
+		this.values = values;
+		this.inherited = inherited;
+	}
+
+	/**
+	 * Allows to get value of path, materialized value has priority over raw value
+	 * @param path path in config
+	 * @return value of path, null if it does not exist
+	 */
+	public Object get(String path) {
+		MaterializedValue cached = this.getMaterializedValue(path);
+		return cached != null ? cached.getValue() : this.getRaw(path);
+	}
+
+	/**
+	 * Allows to get raw value of path, as it was loaded from file.
+	 * Sections are returned as read-only views of this snapshot, lists and maps are unmodifiable
+	 * @param path path in config
+	 * @return raw value of path, null if it does not exist
+	 */
+	public Object getRaw(String path) {
+		Object value = this.values.get(path);
+		if (value instanceof SectionKeys) {
+			return path.isEmpty() ? this.configuration : new SnapshotSection(this.configuration, this, path);
+		}
+
+		return value;
+	}
+
+	/**
+	 * Returns read-only view of whole snapshot, e.g. written to file by save without lock of config
+	 * @return root section of snapshot
+	 */
+	public ConfigurationSection getRoot() {
+		return new SnapshotSection(this.configuration, this, "");
+	}
+
+	/**
+	 * Allows to get value of path materialized by given serializer
+	 * @param path path in config
+	 * @param serializer serializer which should have produced the value, null for simple types
+	 * @return materialized value of {@param path} if it was produced by {@param serializer}, else null
+	 */
+	public Object getMaterialized(String path, Serializer<?> serializer) {
+		MaterializedValue cached = this.getMaterializedValue(path);
+		return cached != null && cached.isProducedBy(serializer) ? cached.getValue() : null;
+	}
+
+	/**
+	 * Check is value of path already materialized
+	 * @param path path in config
+	 * @return true if value of path is materialized, else false
+	 */
+	public boolean isMaterialized(String path) {
+		return this.getMaterializedValue(path) != null;
+	}
+
+	/**
+	 * Memoize value materialized from raw values of this snapshot
+	 * @param path path in config
+	 * @param value materialized value
+	 * @param serializer serializer which produced {@param value}, null for simple types
+	 */
+	public void materialize(String path, Object value, Serializer<?> serializer) {
+		this.materialized.put(path, new MaterializedValue(serializer, value));
+	}
+
+	/**
+	 * Memoize value materialized from raw values of this snapshot, unless other thread already did it
+	 * @param path path in config
+	 * @param value materialized value
+	 * @param serializer serializer which produced {@param value}, null for simple types
+	 * @return value memoized by other thread if it was produced by same serializer, else {@param value}
+	 */
+	Object materializeIfAbsent(String path, Object value, Serializer<?> serializer) {
+		MaterializedValue previous = this.materialized.putIfAbsent(path, new MaterializedValue(serializer, value));
+		if (previous == null) {
+			return value;
+		}
+
+		if (!previous.isProducedBy(serializer)) {
+			this.materialized.put(path, new MaterializedValue(serializer, value));
+			return value;
+		}
+
+		return previous.getValue();
+	}
+
+	/**
+	 * Memoize value materialized from equal raw value of previous snapshot, unless value of path is already materialized
+	 * @param path path in config
+	 * @param value materialized value of previous snapshot
+	 */
+	void putMaterializedIfAbsent(String path, MaterializedValue value) {
+		if (this.inherited.get(path) == null) {
+			this.materialized.putIfAbsent(path, value);
+		}
+	}
+
+	/**
+	 * Returns raw values of snapshot, map is built on every call
+	 * @return unmodifiable map of raw values by full path, without root
+	 */
+	public Map<String, Object> getValues() {
+		return Collections.unmodifiableMap(this.getValues("", true));
+	}
+
+	/**
+	 * Returns materialized values of snapshot, map is built on every call
+	 * @return unmodifiable map of materialized values by full path
+	 */
+	public Map<String, MaterializedValue> getMaterialized() {
+		Map<String, MaterializedValue> materialized = new LinkedHashMap<>();
+		this.inherited.forEach(materialized::put);
+		materialized.putAll(this.materialized);
+		return Collections.unmodifiableMap(materialized);
+	}
+
+	/**
+	 * Returns keys of section's children
+	 * @param path full path of section, empty for root
+	 * @param deep true if keys of children's children should be included
+	 * @return keys relative to section, in order of file
+	 */
+	Set<String> getKeys(String path, boolean deep) {
+		Set<String> keys = new LinkedHashSet<>();
+		this.collect(path, "", deep, (key, value) -> keys.add(key));
+		return keys;
+	}
+
+	/**
+	 * Returns raw values of section's children
+	 * @param path full path of section, empty for root
+	 * @param deep true if values of children's children should be included
+	 * @return values by keys relative to section, in order of file
+	 */
+	Map<String, Object> getValues(String path, boolean deep) {
+		Map<String, Object> values = new LinkedHashMap<>();
+		this.collect(path, "", deep, values::put);
+		return values;
+	}
+
+	private void collect(String path, String prefix, boolean deep, BiConsumer<String, Object> action) {
+		Object section = this.values.get(path);
+		if (!(section instanceof SectionKeys)) {
+			return;
+		}
+
+		char separator = this.configuration.options().pathSeparator();
+		for (String key : ((SectionKeys) section).keys) {
+			String child = this.child(path, key);
+			action.accept(prefix + key, this.getRaw(child));
+			if (deep) {
+				this.collect(child, prefix + key + separator, true, action);
+			}
+		}
+	}
+
+	/**
+	 * Creates working copy of snapshot for next write. Values are shared, materialized values of this snapshot
+	 * are inherited by copy
+	 * @return working snapshot
+	 */
+	ConfigSnapshot next() {
+		PersistentMap<String, MaterializedValue> inherited = this.inherited;
+		for (Map.Entry<String, MaterializedValue> entry : this.materialized.entrySet()) {
+			inherited = inherited.put(entry.getKey(), entry.getValue());
+		}
+
+		return new ConfigSnapshot(this.configuration, this.values, inherited);
+	}
+
+	/**
+	 * Removes materialized values of path, its parents and its current children. Called before path is changed
+	 * @param path path which will be changed
+	 */
+	void invalidate(String path) {
+		char separator = this.configuration.options().pathSeparator();
+		this.removeMaterialized(path);
+		for (int index = path.lastIndexOf(separator); index != -1; index = path.lastIndexOf(separator, index - 1)) {
+			this.removeMaterialized(path.substring(0, index));
+		}
+
+		Object value = this.values.get(path);
+		if (value instanceof SectionKeys) {
+			this.forEachChild(path, (SectionKeys) value, this::removeMaterialized);
+		}
+	}
+
+	private void removeMaterialized(String path) {
+		this.inherited = this.inherited.remove(path);
+		this.materialized.remove(path);
+	}
+
+	/**
+	 * Replaces value of path and its children by detached copy of given value of config's tree.
+	 * Keys of parent are updated only if path was added or removed
+	 * @param path changed path
+	 * @param value new value of path in tree, null if it was removed
+	 * @param tree function which returns current value of path in tree
+	 */
+	void update(String path, Object value, Function<String, Object> tree) {
+		Object previous = this.values.get(path);
+		if (previous instanceof SectionKeys) {
+			this.forEachChild(path, (SectionKeys) previous, child -> this.values = this.values.remove(child));
+		}
+
+		if (value == null) {
+			this.values = this.values.remove(path);
+		}
+		else {
+			this.put(path, value);
+		}
+
+		if ((previous == null) == (value == null)) {
+			return;
+		}
+
+		char separator = this.configuration.options().pathSeparator();
+		for (String child = path; !child.isEmpty(); ) {
+			int index = child.lastIndexOf(separator);
+			String parent = index == -1 ? "" : child.substring(0, index);
+			Object section = tree.apply(parent);
+			if (!(section instanceof ConfigurationSection)) {
+				return;
+			}
+
+			Object parentPrevious = this.values.get(parent);
+			this.values = this.values.put(parent, new SectionKeys(((ConfigurationSection) section).getKeys(false)));
+
+			// Parent which existed before is still in keys of its parent
+			if (parentPrevious != null) {
+				return;
+			}
+
+			child = parent;
+		}
+	}
+
+	/**
+	 * Replaces all values by detached copy of config's tree, used when config is loaded
+	 * @param root root of config's tree
+	 */
+	void index(ConfigurationSection root) {
+		this.values = PersistentMap.empty();
+		this.put("", root);
+	}
+
+	/**
+	 * Returns index of raw values, sections are represented by SectionKeys
+	 * @return persistent map of raw values by full path
+	 */
+	PersistentMap<String, Object> getIndex() {
+		return values;
+	}
+
+	private void put(String path, Object value) {
+		if (!(value instanceof ConfigurationSection)) {
+			this.values = this.values.put(path, detach(value));
+			return;
+		}
+
+		ConfigurationSection section = (ConfigurationSection) value;
+		SectionKeys keys = new SectionKeys(section.getKeys(false));
+		this.values = this.values.put(path, keys);
+		for (String key : keys.keys) {
+			Object child = section.get(key, null);
+			if (child != null) {
+				this.put(this.child(path, key), child);
+			}
+		}
+	}
+
+	private void forEachChild(String path, SectionKeys section, Consumer<String> action) {
+		for (String key : section.keys) {
+			String child = this.child(path, key);
+			Object value = this.values.get(child);
+			if (value instanceof SectionKeys) {
+				this.forEachChild(child, (SectionKeys) value, action);
+			}
+
+			action.accept(child);
+		}
+	}
+
+	private MaterializedValue getMaterializedValue(String path) {
+		MaterializedValue cached = this.materialized.get(path);
+		return cached != null ? cached : this.inherited.get(path);
+	}
+
+	private String child(String path, String key) {
+		return path.isEmpty() ? key : path + this.configuration.options().pathSeparator() + key;
+	}
+
+	/**
+	 * Copies value of config's tree, so later writes to tree don't change it. Lists and maps are copied deeply
+	 * and can't be modified, other values are immutable
+	 * @param value raw value of tree
+	 * @return detached value
+	 */
+	static Object detach(Object value) {
+		if (value instanceof List) {
+			List<Object> copy = new ArrayList<>(((List<?>) value).size());
+			for (Object element : (List<?>) value) {
+				copy.add(detach(element));
+			}
+
+			return Collections.unmodifiableList(copy);
+		}
+
+		if (value instanceof Map) {
+			Map<Object, Object> copy = new LinkedHashMap<>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				copy.put(entry.getKey(), detach(entry.getValue()));
+			}
+
+			return Collections.unmodifiableMap(copy);
+		}
+
+		if (value instanceof ConfigurationSection) {
+			return detach(((ConfigurationSection) value).getValues(false));
+		}
+
+		return value;
+	}
+
+	/**
+	 * Keys of section's children, in order of file
+	 */
+	static final class SectionKeys {
+
+		private static final SectionKeys EMPTY = new SectionKeys(Collections.emptySet());
+
+		private final Set<String> keys;
+
+		private SectionKeys(Set<String> keys) {
+			this.keys = Collections.unmodifiableSet(keys);
+		}
+	}
+}
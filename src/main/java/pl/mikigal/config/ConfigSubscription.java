@@ -0,0 +1,108 @@
+package pl.mikigal.config;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Subscription of changes of config's value, created by <code>ConfigAPI.onChange()</code>.
+ * Listener is called only when value really changed, by setter, load or hot reload
+ * @see ConfigAPI#onChange(Class, java.util.function.Function, Consumer, Executor)
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigSubscription<T> {
+
+	private final BukkitConfiguration configuration;
+	private final String path;
+	private final Supplier<T> value;
+	private final Consumer<T> listener;
+	private final Executor executor;
+
+	/**
+	 * Last value seen by subscription, guarded by lock of configuration
+	 */
+	private T last;
+
+	ConfigSubscription(BukkitConfiguration configuration, String path, Supplier<T> value, Consumer<T> listener, Executor executor) {
+		this.configuration = configuration;
+		this.path = path;
+		this.value = value;
+		this.listener = listener;
+		this.executor = executor;
+	}
+
+	/**
+	 * Remembers current value, called when subscription is registered
+	 */
+	void initialize() {
+		this.last = this.value.get();
+	}
+
+	/**
+	 * Called after changes of config are published, while lock of configuration is held
+	 * @param changes changed paths, including parents of changed paths
+	 * @return delivery of new value to listener, executed after lock is released, null if value didn't change
+	 */
+	Runnable onChanges(Set<String> changes) {
+		if (!this.isAffected(changes)) {
+			return null;
+		}
+
+		T current;
+		try {
+			current = this.value.get();
+		} catch (RuntimeException e) {
+			ConfigAPI.getPlugin().getLogger().log(Level.WARNING, "Could not get changed value of config (path: " + this.path + ")", e);
+			return null;
+		}
+
+		if (Objects.equals(current, this.last)) {
+			return null;
+		}
+
+		this.last = current;
+		return () -> this.executor.execute(() -> {
+			try {
+				this.listener.accept(current);
+			} catch (RuntimeException e) {
+				ConfigAPI.getPlugin().getLogger().log(Level.SEVERE, "Listener of config's value threw exception (path: " + this.path + ")", e);
+			}
+		});
+	}
+
+	/**
+	 * Check was value of subscription's path changed. Value is changed if its path or one of its parents was changed,
+	 * changes of children are represented by their parents
+	 * @param changes changed paths
+	 * @return true if value could change, else false
+	 */
+	private boolean isAffected(Set<String> changes) {
+		if (changes.contains(this.path)) {
+			return true;
+		}
+
+		char separator = this.configuration.options().pathSeparator();
+		for (int index = this.path.lastIndexOf(separator); index != -1; index = this.path.lastIndexOf(separator, index - 1)) {
+			if (changes.contains(this.path.substring(0, index))) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Stops delivering changes to listener
+	 */
+	public void cancel() {
+		this.configuration.unsubscribe(this);
+	}
+
+	public String getPath() {
+		return path;
+	}
+}
@@ -0,0 +1,164 @@
+package pl.mikigal.config;
+
+import pl.mikigal.config.exception.InvalidConfigException;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Watches directories of configs with ConfigWatch and reloads modified configs on background thread.
+ * Bursts of modifications are debounced, reload is skipped when content of file didn't change,
+ * so writes made by API itself are ignored
+ * @see pl.mikigal.config.annotation.ConfigWatch
+ * @see BukkitConfiguration#reloadIfChanged()
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigWatcher {
+
+	private static final Map<Path, Watched> watched = new ConcurrentHashMap<>();
+	private static final Set<Path> directories = new HashSet<>();
+	private static WatchService service;
+
+	private ConfigWatcher() {
+	}
+
+	/**
+	 * Starts watching file of config
+	 * @param configuration config to reload
+	 * @param delay time in milliseconds without further modifications of file, after which it's reloaded
+	 */
+	static synchronized void watch(BukkitConfiguration configuration, long delay) {
+		Path file = configuration.getFile().toPath().toAbsolutePath().normalize();
+		Path directory = file.getParent();
+		try {
+			if (service == null) {
+				service = FileSystems.getDefault().newWatchService();
+				Thread thread = new Thread(new Loop(service), "ConfigAPI Watch Thread");
+				thread.setDaemon(true);
+				thread.start();
+			}
+
+			if (directories.add(directory)) {
+				directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			}
+		} catch (IOException e) {
+			throw new InvalidConfigException("Could not watch config file (name: " + file.getFileName() + ")", e);
+		}
+
+		watched.put(file, new Watched(configuration, delay));
+	}
+
+	/**
+	 * Stops watching of all configs
+	 */
+	static synchronized void shutdown() {
+		if (service == null) {
+			return;
+		}
+
+		try {
+			service.close();
+		} catch (IOException ignored) {
+		}
+
+		service = null;
+		directories.clear();
+		watched.clear();
+	}
+
+	private static class Watched {
+		private final BukkitConfiguration configuration;
+		private final long delay;
+
+		Watched(BukkitConfiguration configuration, long delay) {
+			this.configuration = configuration;
+			this.delay = delay;
+		}
+	}
+
+	/**
+	 * Loop of watcher's thread, it collects events and reloads configs which weren't modified for their delay
+	 */
+	private static class Loop implements Runnable {
+
+		private final WatchService service;
+		private final Map<Watched, Long> pending = new LinkedHashMap<>();
+
+		Loop(WatchService service) {
+			this.service = service;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					WatchKey key = this.pending.isEmpty()
+							? this.service.take()
+							: this.service.poll(Math.max(0, this.nextDeadline() - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+
+					if (key != null) {
+						this.collect(key);
+					}
+
+					this.reloadDue();
+				}
+			} catch (InterruptedException | ClosedWatchServiceException ignored) {
+				// Watcher was stopped
+			}
+		}
+
+		private void collect(WatchKey key) {
+			Path directory = (Path) key.watchable();
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					long now = System.currentTimeMillis();
+					watched.values().forEach(watched -> this.pending.put(watched, now + watched.delay));
+					continue;
+				}
+
+				Watched watched = ConfigWatcher.watched.get(directory.resolve((Path) event.context()));
+				if (watched != null) {
+					this.pending.put(watched, System.currentTimeMillis() + watched.delay);
+				}
+			}
+
+			key.reset();
+		}
+
+		private long nextDeadline() {
+			long deadline = Long.MAX_VALUE;
+			for (long value : this.pending.values()) {
+				deadline = Math.min(deadline, value);
+			}
+
+			return deadline;
+		}
+
+		private void reloadDue() {
+			long now = System.currentTimeMillis();
+			Iterator<Map.Entry<Watched, Long>> iterator = this.pending.entrySet().iterator();
+			while (iterator.hasNext()) {
+				Map.Entry<Watched, Long> entry = iterator.next();
+				if (entry.getValue() > now) {
+					continue;
+				}
+
+				iterator.remove();
+				BukkitConfiguration configuration = entry.getKey().configuration;
+				try {
+					if (configuration.reloadIfChanged()) {
+						ConfigAPI.getPlugin().getLogger().info("Reloaded modified config file (name: " + configuration.getFile().getName()
+								+ ", changed paths: " + configuration.getLastChanges().size() + ")");
+					}
+				} catch (RuntimeException e) {
+					ConfigAPI.getPlugin().getLogger().log(Level.SEVERE, "Could not reload config file (name: " + configuration.getFile().getName() + ")", e);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package pl.mikigal.config;
+
+import pl.mikigal.config.serializer.Serializer;
+
+/**
+ * Entry of BukkitConfiguration's cache, keeps materialized value of path together with serializer which produced it
+ * @see BukkitConfiguration
+ * @see Serializer
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class MaterializedValue {
+
+	/**
+	 * Serializer which produced value, null for simple types (e.g. colored Strings)
+	 */
+	private final Serializer<?> serializer;
+	private final Object value;
+
+	public MaterializedValue(Serializer<?> serializer, Object value) {
+		this.serializer = serializer;
+		this.value = value;
+	}
+
+	/**
+	 * Check was value produced by given serializer
+	 * @param serializer instance of serializer, null for simple types
+	 * @return true if value was produced by {@param serializer}, else false
+	 */
+	public boolean isProducedBy(Serializer<?> serializer) {
+		return this.serializer == serializer;
+	}
+
+	public Serializer<?> getSerializer() {
+		return serializer;
+	}
+
+	public Object getValue() {
+		return value;
+	}
+}
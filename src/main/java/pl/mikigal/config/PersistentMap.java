@@ -0,0 +1,323 @@
+package pl.mikigal.config;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map, every modification returns new map which shares unchanged nodes with previous one.
+ * It's hash array mapped trie, so put and remove copy only nodes on path to changed key, at most 7 levels of 32 entries.
+ * Used by ConfigSnapshot, so next snapshot is created without copying values of whole config
+ * @see ConfigSnapshot
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+final class PersistentMap<K, V> {
+
+	private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+
+	private final Node root;
+	private final int size;
+
+	private PersistentMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <K, V> PersistentMap<K, V> empty() {
+		return (PersistentMap<K, V>) EMPTY;
+	}
+
+	/**
+	 * Allows to get value of key
+	 * @param key key of value
+	 * @return value of {@param key}, null if it does not exist
+	 */
+	@SuppressWarnings("unchecked")
+	V get(K key) {
+		return this.root == null ? null : (V) this.root.get(0, key.hashCode(), key);
+	}
+
+	/**
+	 * Returns map with given value of key
+	 * @param key key of value
+	 * @param value new value, can't be null
+	 * @return new map, or this map if it already contains same value
+	 */
+	PersistentMap<K, V> put(K key, V value) {
+		int hash = key.hashCode();
+		boolean[] added = new boolean[1];
+		Node root = this.root == null
+				? BitmapNode.EMPTY.put(0, hash, key, value, added)
+				: this.root.put(0, hash, key, value, added);
+
+		return root == this.root ? this : new PersistentMap<>(root, added[0] ? this.size + 1 : this.size);
+	}
+
+	/**
+	 * Returns map without given key
+	 * @param key key to remove
+	 * @return new map, or this map if it does not contain {@param key}
+	 */
+	PersistentMap<K, V> remove(K key) {
+		if (this.root == null) {
+			return this;
+		}
+
+		Node root = this.root.remove(0, key.hashCode(), key);
+		return root == this.root ? this : new PersistentMap<>(root, this.size - 1);
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Calls action for every entry, in order of hashes
+	 * @param action action called with key and value
+	 */
+	@SuppressWarnings("unchecked")
+	void forEach(BiConsumer<? super K, ? super V> action) {
+		if (this.root != null) {
+			this.root.forEach((BiConsumer<Object, Object>) action);
+		}
+	}
+
+	private interface Node {
+
+		/**
+		 * @return value of key, null if it does not exist
+		 */
+		Object get(int shift, int hash, Object key);
+
+		/**
+		 * @return node with value of key, this if it's not changed
+		 */
+		Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+		/**
+		 * @return node without key, this if it does not exist, null if node is empty
+		 */
+		Node remove(int shift, int hash, Object key);
+
+		void forEach(BiConsumer<Object, Object> action);
+	}
+
+	/**
+	 * Node with up to 32 entries, present ones are marked in bitmap. Entry is pair of key and value,
+	 * or null and child node if more keys share these bits of hash
+	 */
+	private static final class BitmapNode implements Node {
+
+		private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+		private final int bitmap;
+		private final Object[] entries;
+
+		private BitmapNode(int bitmap, Object[] entries) {
+			this.bitmap = bitmap;
+			this.entries = entries;
+		}
+
+		@Override
+		public Object get(int shift, int hash, Object key) {
+			int bit = bit(shift, hash);
+			if ((this.bitmap & bit) == 0) {
+				return null;
+			}
+
+			int index = this.index(bit);
+			Object entryKey = this.entries[index];
+			Object entryValue = this.entries[index + 1];
+			if (entryKey == null) {
+				return ((Node) entryValue).get(shift + BITS, hash, key);
+			}
+
+			return key.equals(entryKey) ? entryValue : null;
+		}
+
+		@Override
+		public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+			int bit = bit(shift, hash);
+			int index = this.index(bit);
+			if ((this.bitmap & bit) == 0) {
+				Object[] entries = new Object[this.entries.length + 2];
+				System.arraycopy(this.entries, 0, entries, 0, index);
+				System.arraycopy(this.entries, index, entries, index + 2, this.entries.length - index);
+				entries[index] = key;
+				entries[index + 1] = value;
+				added[0] = true;
+				return new BitmapNode(this.bitmap | bit, entries);
+			}
+
+			Object entryKey = this.entries[index];
+			Object entryValue = this.entries[index + 1];
+			if (entryKey == null) {
+				Node child = ((Node) entryValue).put(shift + BITS, hash, key, value, added);
+				return child == entryValue ? this : this.with(index, null, child);
+			}
+
+			if (key.equals(entryKey)) {
+				return value == entryValue ? this : this.with(index, entryKey, value);
+			}
+
+			added[0] = true;
+			return this.with(index, null, node(shift + BITS, entryKey, entryValue, hash, key, value));
+		}
+
+		@Override
+		public Node remove(int shift, int hash, Object key) {
+			int bit = bit(shift, hash);
+			if ((this.bitmap & bit) == 0) {
+				return this;
+			}
+
+			int index = this.index(bit);
+			Object entryKey = this.entries[index];
+			Object entryValue = this.entries[index + 1];
+			if (entryKey == null) {
+				Node child = ((Node) entryValue).remove(shift + BITS, hash, key);
+				if (child == entryValue) {
+					return this;
+				}
+
+				if (child != null) {
+					return this.with(index, null, child);
+				}
+			}
+			else if (!key.equals(entryKey)) {
+				return this;
+			}
+
+			if (this.bitmap == bit) {
+				return null;
+			}
+
+			Object[] entries = new Object[this.entries.length - 2];
+			System.arraycopy(this.entries, 0, entries, 0, index);
+			System.arraycopy(this.entries, index + 2, entries, index, entries.length - index);
+			return new BitmapNode(this.bitmap & ~bit, entries);
+		}
+
+		@Override
+		public void forEach(BiConsumer<Object, Object> action) {
+			for (int i = 0; i < this.entries.length; i += 2) {
+				if (this.entries[i] == null) {
+					((Node) this.entries[i + 1]).forEach(action);
+				}
+				else {
+					action.accept(this.entries[i], this.entries[i + 1]);
+				}
+			}
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(this.bitmap & (bit - 1)) * 2;
+		}
+
+		private BitmapNode with(int index, Object key, Object value) {
+			Object[] entries = this.entries.clone();
+			entries[index] = key;
+			entries[index + 1] = value;
+			return new BitmapNode(this.bitmap, entries);
+		}
+
+		/**
+		 * Creates node of two keys which share bits of hash above given shift
+		 */
+		private static Node node(int shift, Object firstKey, Object firstValue, int hash, Object key, Object value) {
+			int firstHash = firstKey.hashCode();
+			if (firstHash == hash) {
+				return new CollisionNode(hash, new Object[]{firstKey, firstValue, key, value});
+			}
+
+			boolean[] added = new boolean[1];
+			return EMPTY.put(shift, firstHash, firstKey, firstValue, added).put(shift, hash, key, value, added);
+		}
+	}
+
+	/**
+	 * Node of keys with equal hashes
+	 */
+	private static final class CollisionNode implements Node {
+
+		private final int hash;
+		private final Object[] entries;
+
+		private CollisionNode(int hash, Object[] entries) {
+			this.hash = hash;
+			this.entries = entries;
+		}
+
+		@Override
+		public Object get(int shift, int hash, Object key) {
+			int index = this.find(key);
+			return index == -1 ? null : this.entries[index + 1];
+		}
+
+		@Override
+		public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+			if (hash != this.hash) {
+				// Key with another hash moves this node one level deeper
+				return new BitmapNode(bit(shift, this.hash), new Object[]{null, this}).put(shift, hash, key, value, added);
+			}
+
+			int index = this.find(key);
+			if (index != -1) {
+				if (this.entries[index + 1] == value) {
+					return this;
+				}
+
+				Object[] entries = this.entries.clone();
+				entries[index + 1] = value;
+				return new CollisionNode(hash, entries);
+			}
+
+			Object[] entries = Arrays.copyOf(this.entries, this.entries.length + 2);
+			entries[this.entries.length] = key;
+			entries[this.entries.length + 1] = value;
+			added[0] = true;
+			return new CollisionNode(hash, entries);
+		}
+
+		@Override
+		public Node remove(int shift, int hash, Object key) {
+			int index = this.find(key);
+			if (index == -1) {
+				return this;
+			}
+
+			if (this.entries.length == 2) {
+				return null;
+			}
+
+			Object[] entries = new Object[this.entries.length - 2];
+			System.arraycopy(this.entries, 0, entries, 0, index);
+			System.arraycopy(this.entries, index + 2, entries, index, entries.length - index);
+			return new CollisionNode(this.hash, entries);
+		}
+
+		@Override
+		public void forEach(BiConsumer<Object, Object> action) {
+			for (int i = 0; i < this.entries.length; i += 2) {
+				action.accept(this.entries[i], this.entries[i + 1]);
+			}
+		}
+
+		private int find(Object key) {
+			for (int i = 0; i < this.entries.length; i += 2) {
+				if (key.equals(this.entries[i])) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+	}
+
+	private static int bit(int shift, int hash) {
+		return 1 << ((hash >>> shift) & MASK);
+	}
+}
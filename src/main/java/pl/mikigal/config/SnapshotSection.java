@@ -0,0 +1,86 @@
+package pl.mikigal.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemorySection;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view of section stored in ConfigSnapshot, returned to readers instead of section of config's tree.
+ * Values are resolved from index of snapshot by full path, so view never sees changes published after its snapshot.
+ * Writes are forwarded to BukkitConfiguration, they are visible in views of next snapshots
+ * @see ConfigSnapshot
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+final class SnapshotSection extends MemorySection {
+
+	private final BukkitConfiguration configuration;
+	private final ConfigSnapshot snapshot;
+
+	/**
+	 * @param configuration root of section
+	 * @param snapshot snapshot which contains section
+	 * @param path full path of section, empty for root
+	 */
+	SnapshotSection(BukkitConfiguration configuration, ConfigSnapshot snapshot, String path) {
+		super(configuration, path);
+		this.configuration = configuration;
+		this.snapshot = snapshot;
+	}
+
+	@Override
+	public Object get(String path, Object def) {
+		if (path.isEmpty()) {
+			return this;
+		}
+
+		Object value = this.snapshot.getRaw(this.child(path));
+		return value != null ? value : def;
+	}
+
+	@Override
+	public Set<String> getKeys(boolean deep) {
+		return this.snapshot.getKeys(this.getCurrentPath(), deep);
+	}
+
+	@Override
+	public Map<String, Object> getValues(boolean deep) {
+		return this.snapshot.getValues(this.getCurrentPath(), deep);
+	}
+
+	@Override
+	public String getName() {
+		String path = this.getCurrentPath();
+		return path.substring(path.lastIndexOf(this.configuration.options().pathSeparator()) + 1);
+	}
+
+	@Override
+	public ConfigurationSection getParent() {
+		String path = this.getCurrentPath();
+		if (path.isEmpty()) {
+			return null;
+		}
+
+		int index = path.lastIndexOf(this.configuration.options().pathSeparator());
+		return index == -1 ? this.configuration : (ConfigurationSection) this.snapshot.getRaw(path.substring(0, index));
+	}
+
+	@Override
+	public void set(String path, Object value) {
+		this.configuration.set(this.child(path), value);
+	}
+
+	@Override
+	public ConfigurationSection createSection(String path) {
+		String child = this.child(path);
+		this.configuration.createSection(child);
+		return (ConfigurationSection) this.configuration.getSnapshot().getRaw(child);
+	}
+
+	private String child(String path) {
+		String current = this.getCurrentPath();
+		return current.isEmpty() ? path : current + this.configuration.options().pathSeparator() + path;
+	}
+}
@@ -0,0 +1,368 @@
+package pl.mikigal.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import pl.mikigal.config.style.CommentStyle;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.util.*;
+
+/**
+ * Writes config's tree as YAML directly to Writer, in one pass.
+ * Comments are written for paths at any depth, without rendering and re-parsing whole document
+ * @see BukkitConfiguration#save(java.io.File)
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class YamlEmitter {
+
+	/**
+	 * Prefix of list's items, content of item is indented by its length
+	 */
+	private static final String ITEM = "- ";
+	private static final Set<String> RESERVED = new HashSet<>(Arrays.asList(
+			"true", "false", "yes", "no", "on", "off", "null"));
+
+	private final Writer writer;
+	private final Map<String, String> comments;
+	private final CommentStyle commentStyle;
+	private final char separator;
+	private final int indent;
+
+	/**
+	 * @param writer destination of YAML
+	 * @param comments comments of fields by full path
+	 * @param commentStyle style of comments
+	 * @param separator separator of path's sections
+	 */
+	public YamlEmitter(Writer writer, Map<String, String> comments, CommentStyle commentStyle, char separator) {
+		this(writer, comments, commentStyle, separator, 2);
+	}
+
+	/**
+	 * @param writer destination of YAML
+	 * @param comments comments of fields by full path
+	 * @param commentStyle style of comments
+	 * @param separator separator of path's sections
+	 * @param indent indent of nested sections, like in YamlConfigurationOptions
+	 */
+	public YamlEmitter(Writer writer, Map<String, String> comments, CommentStyle commentStyle, char separator, int indent) {
+		this.writer = writer;
+		this.comments = comments;
+		this.commentStyle = commentStyle;
+		this.separator = separator;
+		this.indent = indent;
+	}
+
+	/**
+	 * Writes whole config
+	 * @param root root section of config
+	 * @param header comment of config, can be null
+	 * @throws IOException if writer fails
+	 */
+	public void emit(ConfigurationSection root, String header) throws IOException {
+		this.emit(root, null, header);
+	}
+
+	/**
+	 * Writes whole config
+	 * @param root root section of config
+	 * @param fileHeader header of file like in FileConfigurationOptions, separated from content by empty line, can be null
+	 * @param header comment of config, can be null
+	 * @throws IOException if writer fails
+	 */
+	public void emit(ConfigurationSection root, String fileHeader, String header) throws IOException {
+		if (fileHeader != null) {
+			// Trailing empty lines are skipped like by YamlConfiguration
+			String trimmed = fileHeader.replaceAll("[\\r\\n]+$", "");
+			if (!trimmed.isEmpty()) {
+				this.writeComment(0, trimmed);
+				this.writer.write('\n');
+			}
+		}
+
+		if (header != null) {
+			this.writeComment(0, header);
+		}
+
+		this.writeEntries(root.getValues(false), "", 0, false);
+		this.writer.flush();
+	}
+
+	/**
+	 * Writes entries of section or map
+	 * @param entries entries to write
+	 * @param path full path of entries' owner, null if entries are not part of config's tree
+	 * @param indent indent of entries
+	 * @param continuation true if indent of first entry is already written
+	 */
+	private void writeEntries(Map<?, ?> entries, String path, int indent, boolean continuation) throws IOException {
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			String key = String.valueOf(entry.getKey());
+			String entryPath = path == null ? null : path.isEmpty() ? key : path + this.separator + key;
+			String comment = entryPath == null ? null : this.comments.get(entryPath);
+
+			if (comment != null && this.commentStyle == CommentStyle.ABOVE_CONTENT) {
+				if (continuation) {
+					this.writer.write('\n');
+					continuation = false;
+				}
+
+				this.writeComment(indent, comment);
+			}
+
+			if (!continuation) {
+				this.writeIndent(indent);
+			}
+
+			continuation = false;
+			this.writeString(key);
+			this.writer.write(':');
+			this.writeValue(entry.getValue(), entryPath, indent, comment);
+		}
+	}
+
+	/**
+	 * Writes value of entry, after its key
+	 * @param value value to write
+	 * @param path full path of value, null if value is not part of config's tree
+	 * @param indent indent of entry
+	 * @param comment comment of entry, can be null
+	 */
+	private void writeValue(Object value, String path, int indent, String comment) throws IOException {
+		Object node = this.toNode(value);
+		if (node instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) node;
+			if (map.isEmpty()) {
+				this.writer.write(" {}");
+				this.writeInlineComment(comment);
+				this.writer.write('\n');
+				return;
+			}
+
+			this.writeInlineComment(comment);
+			this.writer.write('\n');
+			this.writeEntries(map, value instanceof ConfigurationSection ? path : null, indent + this.indent, false);
+			return;
+		}
+
+		if (node instanceof List) {
+			List<?> list = (List<?>) node;
+			if (list.isEmpty()) {
+				this.writer.write(" []");
+				this.writeInlineComment(comment);
+				this.writer.write('\n');
+				return;
+			}
+
+			this.writeInlineComment(comment);
+			this.writer.write('\n');
+			this.writeItems(list, indent, false);
+			return;
+		}
+
+		this.writer.write(' ');
+		this.writeScalar(node);
+		this.writeInlineComment(comment);
+		this.writer.write('\n');
+	}
+
+	/**
+	 * Writes items of list
+	 * @param items items to write
+	 * @param indent indent of items
+	 * @param continuation true if indent of first item is already written
+	 */
+	private void writeItems(List<?> items, int indent, boolean continuation) throws IOException {
+		for (Object item : items) {
+			if (!continuation) {
+				this.writeIndent(indent);
+			}
+
+			continuation = false;
+			this.writer.write(ITEM);
+
+			Object node = this.toNode(item);
+			if (node instanceof Map && !((Map<?, ?>) node).isEmpty()) {
+				this.writeEntries((Map<?, ?>) node, null, indent + ITEM.length(), true);
+			}
+			else if (node instanceof List && !((List<?>) node).isEmpty()) {
+				this.writeItems((List<?>) node, indent + ITEM.length(), true);
+			}
+			else if (node instanceof Map) {
+				this.writer.write("{}\n");
+			}
+			else if (node instanceof List) {
+				this.writer.write("[]\n");
+			}
+			else {
+				this.writeScalar(node);
+				this.writer.write('\n');
+			}
+		}
+	}
+
+	/**
+	 * Converts value to Map, List or scalar
+	 * @param value value from config's tree
+	 * @return node which can be written
+	 */
+	private Object toNode(Object value) {
+		if (value instanceof ConfigurationSection) {
+			return ((ConfigurationSection) value).getValues(false);
+		}
+
+		if (value instanceof ConfigurationSerializable) {
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, ConfigurationSerialization.getAlias(((ConfigurationSerializable) value).getClass()));
+			map.putAll(((ConfigurationSerializable) value).serialize());
+			return map;
+		}
+
+		if (value instanceof Collection && !(value instanceof List)) {
+			return new ArrayList<>((Collection<?>) value);
+		}
+
+		if (value != null && value.getClass().isArray()) {
+			List<Object> list = new ArrayList<>();
+			for (int i = 0; i < Array.getLength(value); i++) {
+				list.add(Array.get(value, i));
+			}
+
+			return list;
+		}
+
+		return value;
+	}
+
+	private void writeScalar(Object value) throws IOException {
+		if (value == null) {
+			this.writer.write("null");
+			return;
+		}
+
+		if (value instanceof Double || value instanceof Float) {
+			double number = ((Number) value).doubleValue();
+			if (Double.isNaN(number)) {
+				this.writer.write(".NaN");
+			}
+			else if (Double.isInfinite(number)) {
+				this.writer.write(number > 0 ? ".inf" : "-.inf");
+			}
+			else {
+				this.writer.write(value.toString());
+			}
+
+			return;
+		}
+
+		if (value instanceof Number || value instanceof Boolean) {
+			this.writer.write(value.toString());
+			return;
+		}
+
+		this.writeString(value.toString());
+	}
+
+	/**
+	 * Writes String as plain scalar if it's safe, else quoted
+	 * @param value String to write
+	 */
+	private void writeString(String value) throws IOException {
+		if (this.isPlain(value)) {
+			this.writer.write(value);
+			return;
+		}
+
+		for (int i = 0; i < value.length(); i++) {
+			if (Character.isISOControl(value.charAt(i))) {
+				this.writeDoubleQuoted(value);
+				return;
+			}
+		}
+
+		this.writer.write('\'');
+		this.writer.write(value.replace("'", "''"));
+		this.writer.write('\'');
+	}
+
+	private void writeDoubleQuoted(String value) throws IOException {
+		this.writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			switch (character) {
+				case '"':
+					this.writer.write("\\\"");
+					break;
+				case '\\':
+					this.writer.write("\\\\");
+					break;
+				case '\n':
+					this.writer.write("\\n");
+					break;
+				case '\r':
+					this.writer.write("\\r");
+					break;
+				case '\t':
+					this.writer.write("\\t");
+					break;
+				default:
+					if (Character.isISOControl(character)) {
+						this.writer.write(String.format("\\u%04x", (int) character));
+					}
+					else {
+						this.writer.write(character);
+					}
+			}
+		}
+
+		this.writer.write('"');
+	}
+
+	/**
+	 * Check can String be written without quotes and loaded back as the same String
+	 * @param value String to check
+	 * @return true if String is safe plain scalar, else false
+	 */
+	private boolean isPlain(String value) {
+		if (value.isEmpty() || !Character.isLetter(value.charAt(0)) || value.charAt(value.length() - 1) == ' ') {
+			return false;
+		}
+
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			if (!Character.isLetterOrDigit(character) && character != '_' && character != '-' && character != '.' && character != ' ') {
+				return false;
+			}
+		}
+
+		return !RESERVED.contains(value.toLowerCase(Locale.ROOT));
+	}
+
+	private void writeComment(int indent, String comment) throws IOException {
+		for (String line : comment.split("\n")) {
+			this.writeIndent(indent);
+			this.writer.write("# ");
+			this.writer.write(line);
+			this.writer.write('\n');
+		}
+	}
+
+	private void writeInlineComment(String comment) throws IOException {
+		if (comment == null || this.commentStyle != CommentStyle.INLINE) {
+			return;
+		}
+
+		this.writer.write(" # ");
+		this.writer.write(comment.replace('\n', ' '));
+	}
+
+	private void writeIndent(int indent) throws IOException {
+		for (int i = 0; i < indent; i++) {
+			this.writer.write(' ');
+		}
+	}
+}
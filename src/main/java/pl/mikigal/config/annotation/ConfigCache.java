@@ -0,0 +1,18 @@
+package pl.mikigal.config.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables binary cache of parsed config, written next to .yml file.
+ * When file and config's interface didn't change since cache was written, config is loaded from cache without parsing YAML
+ * @see pl.mikigal.config.ConfigBinaryCache
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+@Target({ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface ConfigCache {
+}
@@ -0,0 +1,21 @@
+package pl.mikigal.config.annotation;
+
+import pl.mikigal.config.style.CollectionStyle;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows to select how Collections and arrays of simple types are written to file.
+ * Without this annotation SECTION style is used
+ * @see CollectionStyle
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+@Target({ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface ConfigCollections {
+	CollectionStyle value();
+}
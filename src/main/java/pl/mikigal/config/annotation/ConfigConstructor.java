@@ -0,0 +1,20 @@
+package pl.mikigal.config.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allow to mark constructor used by UniversalObjectSerializer to create objects of class without default constructor.
+ * Constructor must have parameter for every non-static and non-transient field. Parameters are matched with fields
+ * by name if class is compiled with <code>-parameters</code>, else by order of fields' declaration.
+ * Records don't need it, their canonical constructor is used
+ * @see pl.mikigal.config.serializer.universal.UniversalObjectSerializer
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+@Target(ElementType.CONSTRUCTOR)
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface ConfigConstructor {
+}
@@ -0,0 +1,21 @@
+package pl.mikigal.config.annotation;
+
+import pl.mikigal.config.style.ImplementationStyle;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows to select how instance of config will be created.
+ * Without this annotation config is implemented by dynamic proxy
+ * @see ImplementationStyle
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+@Target({ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface ConfigImplementation {
+	ImplementationStyle value();
+}
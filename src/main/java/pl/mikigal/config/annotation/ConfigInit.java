@@ -0,0 +1,26 @@
+package pl.mikigal.config.annotation;
+
+import pl.mikigal.config.style.InitStrategy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows to select how values of config are validated at init.
+ * Without this annotation every getter is executed at init, one by one
+ * @see InitStrategy
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+@Target({ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface ConfigInit {
+	InitStrategy value();
+
+	/**
+	 * Deserialize values on background thread after init, used by LAZY strategy
+	 */
+	boolean warmUp() default false;
+}
@@ -0,0 +1,23 @@
+package pl.mikigal.config.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows to select how many instances of keyed config are kept loaded.
+ * Without this annotation keyed config keeps at most 1000 instances
+ * @see pl.mikigal.config.ConfigPool
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+@Target({ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface ConfigKeyed {
+
+	/**
+	 * Maximum count of loaded instances, least recently used ones are evicted above it
+	 */
+	int maximumSize() default 1000;
+}
@@ -0,0 +1,37 @@
+package pl.mikigal.config.annotation;
+
+import pl.mikigal.config.style.SavePolicy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Allows to select when changes made by config's setters are saved.
+ * Without this annotation file is saved by every setter
+ * @see SavePolicy
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+@Target({ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface ConfigSave {
+	SavePolicy value();
+
+	/**
+	 * Minimal time between writes of file in milliseconds, used by DEBOUNCED policy
+	 */
+	long delay() default 1000;
+
+	/**
+	 * Size of journal in bytes after which it's compacted into file, used by JOURNAL policy
+	 */
+	long journalSize() default 65536;
+
+	/**
+	 * Should records of journal be forced to disk after they're written, used by JOURNAL policy.
+	 * Without it records written shortly before crash of system may be lost
+	 */
+	boolean journalSync() default true;
+}
@@ -0,0 +1,23 @@
+package pl.mikigal.config.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables automatic reload of config when its file is modified, e.g. by server's operator.
+ * File is reloaded on background thread, only if its content changed
+ * @see pl.mikigal.config.ConfigWatcher
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+@Target({ElementType.TYPE})
+@Retention(value = RetentionPolicy.RUNTIME)
+public @interface ConfigWatch {
+
+	/**
+	 * Time in milliseconds without further modifications of file, after which it's reloaded
+	 */
+	long delay() default 500;
+}
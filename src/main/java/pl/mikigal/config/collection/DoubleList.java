@@ -0,0 +1,81 @@
+package pl.mikigal.config.collection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of <code>double</code> values backed by primitive array.
+ * Use it in config instead of <code>List&lt;Double&gt;</code> for large numeric tables,
+ * elements are stored and read without boxing by <code>getDouble()</code>
+ * @see pl.mikigal.config.serializer.java.DoubleListSerializer
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class DoubleList extends AbstractList<Double> implements RandomAccess {
+
+	private final double[] values;
+
+	private DoubleList(double[] values) {
+		this.values = values;
+	}
+
+	/**
+	 * Creates list with copy of given values
+	 * @param values values of list
+	 * @return instance of list
+	 */
+	public static DoubleList of(double... values) {
+		return new DoubleList(values.clone());
+	}
+
+	/**
+	 * Creates list backed by given array, without copying it. Array must not be modified later
+	 * @param values values of list
+	 * @return instance of list
+	 */
+	public static DoubleList wrap(double[] values) {
+		return new DoubleList(values);
+	}
+
+	/**
+	 * Allows to get element of list without boxing
+	 * @param index index of element
+	 * @return element at {@param index}
+	 */
+	public double getDouble(int index) {
+		return this.values[index];
+	}
+
+	@Override
+	public Double get(int index) {
+		return this.values[index];
+	}
+
+	@Override
+	public int size() {
+		return this.values.length;
+	}
+
+	/**
+	 * Returns copy of values as primitive array
+	 * @return array with elements of list
+	 */
+	public double[] toDoubleArray() {
+		return this.values.clone();
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (object instanceof DoubleList) {
+			return Arrays.equals(this.values, ((DoubleList) object).values);
+		}
+
+		return super.equals(object);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+}
@@ -0,0 +1,81 @@
+package pl.mikigal.config.collection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of <code>int</code> values backed by primitive array.
+ * Use it in config instead of <code>List&lt;Integer&gt;</code> for large numeric tables,
+ * elements are stored and read without boxing by <code>getInt()</code>
+ * @see pl.mikigal.config.serializer.java.IntListSerializer
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class IntList extends AbstractList<Integer> implements RandomAccess {
+
+	private final int[] values;
+
+	private IntList(int[] values) {
+		this.values = values;
+	}
+
+	/**
+	 * Creates list with copy of given values
+	 * @param values values of list
+	 * @return instance of list
+	 */
+	public static IntList of(int... values) {
+		return new IntList(values.clone());
+	}
+
+	/**
+	 * Creates list backed by given array, without copying it. Array must not be modified later
+	 * @param values values of list
+	 * @return instance of list
+	 */
+	public static IntList wrap(int[] values) {
+		return new IntList(values);
+	}
+
+	/**
+	 * Allows to get element of list without boxing
+	 * @param index index of element
+	 * @return element at {@param index}
+	 */
+	public int getInt(int index) {
+		return this.values[index];
+	}
+
+	@Override
+	public Integer get(int index) {
+		return this.values[index];
+	}
+
+	@Override
+	public int size() {
+		return this.values.length;
+	}
+
+	/**
+	 * Returns copy of values as primitive array
+	 * @return array with elements of list
+	 */
+	public int[] toIntArray() {
+		return this.values.clone();
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (object instanceof IntList) {
+			return Arrays.equals(this.values, ((IntList) object).values);
+		}
+
+		return super.equals(object);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+}
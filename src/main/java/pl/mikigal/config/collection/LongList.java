@@ -0,0 +1,81 @@
+package pl.mikigal.config.collection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of <code>long</code> values backed by primitive array.
+ * Use it in config instead of <code>List&lt;Long&gt;</code> for large numeric tables,
+ * elements are stored and read without boxing by <code>getLong()</code>
+ * @see pl.mikigal.config.serializer.java.LongListSerializer
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class LongList extends AbstractList<Long> implements RandomAccess {
+
+	private final long[] values;
+
+	private LongList(long[] values) {
+		this.values = values;
+	}
+
+	/**
+	 * Creates list with copy of given values
+	 * @param values values of list
+	 * @return instance of list
+	 */
+	public static LongList of(long... values) {
+		return new LongList(values.clone());
+	}
+
+	/**
+	 * Creates list backed by given array, without copying it. Array must not be modified later
+	 * @param values values of list
+	 * @return instance of list
+	 */
+	public static LongList wrap(long[] values) {
+		return new LongList(values);
+	}
+
+	/**
+	 * Allows to get element of list without boxing
+	 * @param index index of element
+	 * @return element at {@param index}
+	 */
+	public long getLong(int index) {
+		return this.values[index];
+	}
+
+	@Override
+	public Long get(int index) {
+		return this.values[index];
+	}
+
+	@Override
+	public int size() {
+		return this.values.length;
+	}
+
+	/**
+	 * Returns copy of values as primitive array
+	 * @return array with elements of list
+	 */
+	public long[] toLongArray() {
+		return this.values.clone();
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (object instanceof LongList) {
+			return Arrays.equals(this.values, ((LongList) object).values);
+		}
+
+		return super.equals(object);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+}
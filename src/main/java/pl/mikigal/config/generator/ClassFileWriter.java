@@ -0,0 +1,405 @@
+package pl.mikigal.config.generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of Java class files (version 52, Java 8).
+ * It supports only what generated configs need: fields, methods and forward jumps with full stack map frames at their targets
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public class ClassFileWriter {
+
+	public static final int ACC_PUBLIC = 0x0001;
+	public static final int ACC_PRIVATE = 0x0002;
+	public static final int ACC_FINAL = 0x0010;
+	public static final int ACC_SUPER = 0x0020;
+
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+	private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+	private final DataOutputStream constantPool = new DataOutputStream(this.constantPoolBytes);
+	private final Map<String, Integer> constants = new HashMap<>();
+	private int constantCount = 1;
+
+	private final int thisClass;
+	private final int superClass;
+	private final int[] interfaces;
+	private final List<byte[]> fields = new ArrayList<>();
+	private final List<byte[]> methods = new ArrayList<>();
+
+	/**
+	 * @param name internal name of generated class, e.g. <code>pl/mikigal/config/generated/Foo</code>
+	 * @param superName internal name of super class
+	 * @param interfaceNames internal names of implemented interfaces
+	 */
+	public ClassFileWriter(String name, String superName, String... interfaceNames) {
+		this.thisClass = this.classConstant(name);
+		this.superClass = this.classConstant(superName);
+		this.interfaces = new int[interfaceNames.length];
+		for (int i = 0; i < interfaceNames.length; i++) {
+			this.interfaces[i] = this.classConstant(interfaceNames[i]);
+		}
+	}
+
+	/**
+	 * Adds field to class
+	 * @param access access flags
+	 * @param name name of field
+	 * @param descriptor descriptor of field's type
+	 */
+	public void addField(int access, String name, String descriptor) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		try {
+			output.writeShort(access);
+			output.writeShort(this.utf8Constant(name));
+			output.writeShort(this.utf8Constant(descriptor));
+			output.writeShort(0);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		this.fields.add(bytes.toByteArray());
+	}
+
+	/**
+	 * Adds method to class
+	 * @param access access flags
+	 * @param name name of method
+	 * @param descriptor descriptor of method
+	 * @param code bytecode of method, created by {@link Code}
+	 */
+	public void addMethod(int access, String name, String descriptor, Code code) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		try {
+			byte[] instructions = code.toByteArray();
+			byte[] frames = code.frames.toByteArray();
+			int attributes = code.frameCount == 0 ? 0 : 1;
+
+			output.writeShort(access);
+			output.writeShort(this.utf8Constant(name));
+			output.writeShort(this.utf8Constant(descriptor));
+			output.writeShort(1);
+			output.writeShort(this.utf8Constant("Code"));
+			output.writeInt(12 + instructions.length + (attributes == 0 ? 0 : 8 + frames.length));
+			output.writeShort(code.maxStack);
+			output.writeShort(code.maxLocals);
+			output.writeInt(instructions.length);
+			output.write(instructions);
+			output.writeShort(0); // Exception table
+			output.writeShort(attributes);
+			if (attributes != 0) {
+				output.writeShort(this.utf8Constant("StackMapTable"));
+				output.writeInt(2 + frames.length);
+				output.writeShort(code.frameCount);
+				output.write(frames);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		this.methods.add(bytes.toByteArray());
+	}
+
+	/**
+	 * Creates new bytecode builder for method
+	 * @param maxStack max size of operand stack
+	 * @param maxLocals count of local variables slots, including <code>this</code> and parameters
+	 * @return instance of builder
+	 */
+	public Code code(int maxStack, int maxLocals) {
+		return new Code(maxStack, maxLocals);
+	}
+
+	/**
+	 * Writes class file
+	 * @return bytes of class file
+	 */
+	public byte[] toByteArray() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		try {
+			output.writeInt(0xCAFEBABE);
+			output.writeShort(0);
+			output.writeShort(52);
+			output.writeShort(this.constantCount);
+			output.write(this.constantPoolBytes.toByteArray());
+			output.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+			output.writeShort(this.thisClass);
+			output.writeShort(this.superClass);
+			output.writeShort(this.interfaces.length);
+			for (int index : this.interfaces) {
+				output.writeShort(index);
+			}
+
+			output.writeShort(this.fields.size());
+			for (byte[] field : this.fields) {
+				output.write(field);
+			}
+
+			output.writeShort(this.methods.size());
+			for (byte[] method : this.methods) {
+				output.write(method);
+			}
+
+			output.writeShort(0);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	private int utf8Constant(String value) {
+		return this.constant("U" + value, output -> {
+			output.writeByte(CONSTANT_UTF8);
+			output.writeUTF(value);
+		});
+	}
+
+	private int classConstant(String name) {
+		int nameIndex = this.utf8Constant(name);
+		return this.constant("C" + name, output -> {
+			output.writeByte(CONSTANT_CLASS);
+			output.writeShort(nameIndex);
+		});
+	}
+
+	private int stringConstant(String value) {
+		int valueIndex = this.utf8Constant(value);
+		return this.constant("S" + value, output -> {
+			output.writeByte(CONSTANT_STRING);
+			output.writeShort(valueIndex);
+		});
+	}
+
+	private int memberConstant(int tag, String owner, String name, String descriptor) {
+		int ownerIndex = this.classConstant(owner);
+		int nameIndex = this.utf8Constant(name);
+		int descriptorIndex = this.utf8Constant(descriptor);
+		int nameAndTypeIndex = this.constant("N" + name + " " + descriptor, output -> {
+			output.writeByte(CONSTANT_NAME_AND_TYPE);
+			output.writeShort(nameIndex);
+			output.writeShort(descriptorIndex);
+		});
+
+		return this.constant(tag + owner + "." + name + " " + descriptor, output -> {
+			output.writeByte(tag);
+			output.writeShort(ownerIndex);
+			output.writeShort(nameAndTypeIndex);
+		});
+	}
+
+	private int constant(String key, ConstantWriter writer) {
+		Integer index = this.constants.get(key);
+		if (index != null) {
+			return index;
+		}
+
+		try {
+			writer.write(this.constantPool);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		index = this.constantCount++;
+		this.constants.put(key, index);
+		return index;
+	}
+
+	private interface ConstantWriter {
+		void write(DataOutputStream output) throws IOException;
+	}
+
+	/**
+	 * Builder of method's bytecode
+	 */
+	public class Code {
+
+		private static final int FULL_FRAME = 255;
+		private static final int ITEM_OBJECT = 7;
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final int maxStack;
+		private final int maxLocals;
+
+		/**
+		 * Entries of StackMapTable, one per target of jump
+		 */
+		private final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+		private int frameCount;
+		private int lastFrame = -1;
+
+		private Code(int maxStack, int maxLocals) {
+			this.maxStack = maxStack;
+			this.maxLocals = maxLocals;
+		}
+
+		/**
+		 * Writes instruction without operands
+		 * @param opcode opcode of instruction
+		 * @return this builder
+		 */
+		public Code op(int opcode) {
+			this.bytes.write(opcode);
+			return this;
+		}
+
+		/**
+		 * Writes instruction with local variable index
+		 * @param opcode opcode of instruction, e.g. <code>ALOAD</code>
+		 * @param index index of local variable
+		 * @return this builder
+		 */
+		public Code local(int opcode, int index) {
+			this.bytes.write(opcode);
+			this.bytes.write(index);
+			return this;
+		}
+
+		/**
+		 * Pushes int constant to the stack
+		 * @param value value to push
+		 * @return this builder
+		 */
+		public Code push(int value) {
+			if (value >= -1 && value <= 5) {
+				return this.op(Opcodes.ICONST_0 + value);
+			}
+
+			if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+				this.bytes.write(Opcodes.BIPUSH);
+				this.bytes.write(value);
+				return this;
+			}
+
+			this.bytes.write(Opcodes.SIPUSH);
+			this.writeShort(value);
+			return this;
+		}
+
+		/**
+		 * Pushes String constant to the stack
+		 * @param value value to push
+		 * @return this builder
+		 */
+		public Code ldc(String value) {
+			this.bytes.write(Opcodes.LDC_W);
+			this.writeShort(stringConstant(value));
+			return this;
+		}
+
+		/**
+		 * Writes type instruction, e.g. <code>CHECKCAST</code>
+		 * @param opcode opcode of instruction
+		 * @param type internal name of type
+		 * @return this builder
+		 */
+		public Code type(int opcode, String type) {
+			this.bytes.write(opcode);
+			this.writeShort(classConstant(type));
+			return this;
+		}
+
+		/**
+		 * Writes field instruction, e.g. <code>GETFIELD</code>
+		 * @param opcode opcode of instruction
+		 * @param owner internal name of field's owner
+		 * @param name name of field
+		 * @param descriptor descriptor of field's type
+		 * @return this builder
+		 */
+		public Code field(int opcode, String owner, String name, String descriptor) {
+			this.bytes.write(opcode);
+			this.writeShort(memberConstant(CONSTANT_FIELDREF, owner, name, descriptor));
+			return this;
+		}
+
+		/**
+		 * Writes invoke instruction of class' method, e.g. <code>INVOKEVIRTUAL</code>
+		 * @param opcode opcode of instruction
+		 * @param owner internal name of method's owner
+		 * @param name name of method
+		 * @param descriptor descriptor of method
+		 * @return this builder
+		 */
+		public Code method(int opcode, String owner, String name, String descriptor) {
+			this.bytes.write(opcode);
+			this.writeShort(memberConstant(CONSTANT_METHODREF, owner, name, descriptor));
+			return this;
+		}
+
+		/**
+		 * Writes jump instruction, its target has to be set by <code>target()</code>
+		 * @param opcode opcode of instruction, e.g. <code>IFEQ</code>
+		 * @return position of instruction, passed to <code>target()</code>
+		 */
+		public int jump(int opcode) {
+			int position = this.bytes.size();
+			this.bytes.write(opcode);
+			this.writeShort(0);
+			return position;
+		}
+
+		/**
+		 * Sets target of jump to current position and writes stack map frame of it, with empty operand stack
+		 * @param jump position returned by <code>jump()</code>
+		 * @param locals internal names of classes of local variables, including <code>this</code>
+		 * @return this builder
+		 */
+		public Code target(int jump, String... locals) {
+			int position = this.bytes.size();
+			if (position <= this.lastFrame) {
+				throw new IllegalStateException("Frames must be written in order of their positions");
+			}
+
+			byte[] instructions = this.bytes.toByteArray();
+			int offset = position - jump;
+			instructions[jump + 1] = (byte) (offset >>> 8);
+			instructions[jump + 2] = (byte) offset;
+			this.bytes.reset();
+			this.bytes.write(instructions, 0, instructions.length);
+
+			DataOutputStream output = new DataOutputStream(this.frames);
+			try {
+				output.writeByte(FULL_FRAME);
+				output.writeShort(this.lastFrame == -1 ? position : position - this.lastFrame - 1);
+				output.writeShort(locals.length);
+				for (String local : locals) {
+					output.writeByte(ITEM_OBJECT);
+					output.writeShort(classConstant(local));
+				}
+
+				output.writeShort(0);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+
+			this.frameCount++;
+			this.lastFrame = position;
+			return this;
+		}
+
+		private void writeShort(int value) {
+			this.bytes.write((value >>> 8) & 0xFF);
+			this.bytes.write(value & 0xFF);
+		}
+
+		private byte[] toByteArray() {
+			return this.bytes.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,386 @@
+package pl.mikigal.config.generator;
+
+import pl.mikigal.config.CachedValue;
+import pl.mikigal.config.Config;
+import pl.mikigal.config.ConfigAccessor;
+import pl.mikigal.config.ConfigInvocationHandler;
+import pl.mikigal.config.exception.InvalidConfigException;
+import pl.mikigal.config.util.TypeUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static pl.mikigal.config.generator.Opcodes.*;
+
+/**
+ * Generates classes implementing config's interfaces, alternative for java.lang.reflect.Proxy.
+ * Generated class keeps precompiled accessor of each getter and setter in it's own field
+ * and calls ConfigInvocationHandler directly, without InvocationHandler's dispatch and arguments' arrays.
+ * Getters also cache their values in fields, until another snapshot of config is published
+ * @see pl.mikigal.config.style.ImplementationStyle#GENERATED
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public class ConfigClassGenerator {
+
+	private static final String HANDLER = internalName(ConfigInvocationHandler.class);
+	private static final String HANDLER_DESCRIPTOR = descriptor(ConfigInvocationHandler.class);
+	private static final String ACCESSOR_DESCRIPTOR = descriptor(ConfigAccessor.class);
+	private static final String CACHED_VALUE = internalName(CachedValue.class);
+	private static final String CACHED_VALUE_DESCRIPTOR = descriptor(CachedValue.class);
+	private static final String SNAPSHOT_DESCRIPTOR = "Lpl/mikigal/config/ConfigSnapshot;";
+
+	/**
+	 * Constructors of generated classes, null value if interface can't be generated
+	 */
+	private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> type) {
+			return defineClass(type);
+		}
+	};
+
+	/**
+	 * Creates instance of generated class for config's interface
+	 * @param clazz class of config's interface
+	 * @param handler initialized handler of config
+	 * @return instance of generated class, null if interface can't be implemented by generated class
+	 */
+	public static <T extends Config> T generate(Class<T> clazz, ConfigInvocationHandler handler) {
+		Constructor<?> constructor = CONSTRUCTORS.get(clazz);
+		if (constructor == null) {
+			return null;
+		}
+
+		List<Method> methods = getMethods(clazz);
+		ConfigAccessor[] accessors = new ConfigAccessor[methods.size()];
+		for (int i = 0; i < accessors.length; i++) {
+			accessors[i] = handler.getAccessor(methods.get(i));
+		}
+
+		try {
+			return clazz.cast(constructor.newInstance(handler, accessors));
+		} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+			throw new InvalidConfigException("Could not create instance of generated class for " + clazz.getName(), e);
+		}
+	}
+
+	/**
+	 * Generates and defines class implementing given interface
+	 * @param clazz class of config's interface
+	 * @return constructor of generated class, null if interface can't be implemented by generated class
+	 */
+	private static Constructor<?> defineClass(Class<?> clazz) {
+		List<Method> methods = getMethods(clazz);
+		if (!isSupported(clazz, methods)) {
+			return null;
+		}
+
+		String name = "pl.mikigal.config.generated." + clazz.getName().replace('.', '_').replace('$', '_') + "$Generated";
+		String internalName = name.replace('.', '/');
+
+		ClassFileWriter writer = new ClassFileWriter(internalName, "java/lang/Object", internalName(clazz));
+		writer.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "handler", HANDLER_DESCRIPTOR);
+		for (int i = 0; i < methods.size(); i++) {
+			writer.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_FINAL, "accessor" + i, ACCESSOR_DESCRIPTOR);
+			if (isGetter(methods.get(i))) {
+				writer.addField(ClassFileWriter.ACC_PRIVATE, "cache" + i, CACHED_VALUE_DESCRIPTOR);
+			}
+		}
+
+		writeConstructor(writer, internalName, methods);
+		for (int i = 0; i < methods.size(); i++) {
+			Method method = methods.get(i);
+			if (isGetter(method)) {
+				writeGetter(writer, internalName, i, method);
+			}
+			else {
+				writeSetter(writer, internalName, i, method);
+			}
+		}
+
+		writer.addMethod(ClassFileWriter.ACC_PUBLIC, "getBukkitConfiguration", "()Lpl/mikigal/config/BukkitConfiguration;",
+				writer.code(1, 1)
+						.op(ALOAD_0)
+						.field(GETFIELD, internalName, "handler", HANDLER_DESCRIPTOR)
+						.method(INVOKEVIRTUAL, HANDLER, "getConfiguration", "()Lpl/mikigal/config/BukkitConfiguration;")
+						.op(ARETURN));
+
+		writer.addMethod(ClassFileWriter.ACC_PUBLIC, "toString", "()Ljava/lang/String;",
+				writer.code(1, 1)
+						.ldc(clazz.toString())
+						.op(ARETURN));
+
+		try {
+			Class<?> generated = new GeneratedClassLoader(clazz.getClassLoader()).define(name, writer.toByteArray());
+			return generated.getConstructor(ConfigInvocationHandler.class, ConfigAccessor[].class);
+		} catch (LinkageError | NoSuchMethodException e) {
+			throw new InvalidConfigException("Could not generate implementation of " + clazz.getName(), e);
+		}
+	}
+
+	private static void writeConstructor(ClassFileWriter writer, String internalName, List<Method> methods) {
+		ClassFileWriter.Code code = writer.code(3, 3)
+				.op(ALOAD_0)
+				.method(INVOKESPECIAL, "java/lang/Object", "<init>", "()V")
+				.op(ALOAD_0)
+				.op(ALOAD_1)
+				.field(PUTFIELD, internalName, "handler", HANDLER_DESCRIPTOR);
+
+		for (int i = 0; i < methods.size(); i++) {
+			code.op(ALOAD_0)
+					.op(ALOAD_2)
+					.push(i)
+					.op(AALOAD)
+					.field(PUTFIELD, internalName, "accessor" + i, ACCESSOR_DESCRIPTOR);
+
+			if (isGetter(methods.get(i))) {
+				code.op(ALOAD_0)
+						.field(GETSTATIC, CACHED_VALUE, "NONE", CACHED_VALUE_DESCRIPTOR)
+						.field(PUTFIELD, internalName, "cache" + i, CACHED_VALUE_DESCRIPTOR);
+			}
+		}
+
+		writer.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "(" + HANDLER_DESCRIPTOR + "[" + ACCESSOR_DESCRIPTOR + ")V",
+				code.op(RETURN));
+	}
+
+	/**
+	 * Writes getter which returns value cached in its field while it's valid,
+	 * otherwise gets value from handler and caches it
+	 */
+	private static void writeGetter(ClassFileWriter writer, String internalName, int index, Method method) {
+		Class<?> type = method.getReturnType();
+		ClassFileWriter.Code code = writer.code(3, 2)
+				.op(ALOAD_0)
+				.field(GETFIELD, internalName, "cache" + index, CACHED_VALUE_DESCRIPTOR)
+				.op(ASTORE_1)
+				.op(ALOAD_1)
+				.op(ALOAD_0)
+				.field(GETFIELD, internalName, "handler", HANDLER_DESCRIPTOR)
+				.method(INVOKEVIRTUAL, HANDLER, "getPublishedSnapshot", "()" + SNAPSHOT_DESCRIPTOR)
+				.method(INVOKEVIRTUAL, CACHED_VALUE, "isValid", "(" + SNAPSHOT_DESCRIPTOR + ")Z");
+
+		int invalid = code.jump(IFEQ);
+		code.op(ALOAD_1)
+				.method(INVOKEVIRTUAL, CACHED_VALUE, "getValue", "()Ljava/lang/Object;");
+		writeReturn(code, type);
+
+		code.target(invalid, internalName, CACHED_VALUE)
+				.op(ALOAD_0)
+				.op(ALOAD_0)
+				.field(GETFIELD, internalName, "handler", HANDLER_DESCRIPTOR)
+				.op(ALOAD_0)
+				.field(GETFIELD, internalName, "accessor" + index, ACCESSOR_DESCRIPTOR)
+				.method(INVOKEVIRTUAL, HANDLER, "getCachedValue", "(" + ACCESSOR_DESCRIPTOR + ")" + CACHED_VALUE_DESCRIPTOR)
+				.op(DUP_X1)
+				.field(PUTFIELD, internalName, "cache" + index, CACHED_VALUE_DESCRIPTOR)
+				.method(INVOKEVIRTUAL, CACHED_VALUE, "getValue", "()Ljava/lang/Object;");
+		writeReturn(code, type);
+
+		writer.addMethod(ClassFileWriter.ACC_PUBLIC, method.getName(), "()" + descriptor(type), code);
+	}
+
+	/**
+	 * Writes conversion of Object on top of the stack to given type and its return
+	 */
+	private static void writeReturn(ClassFileWriter.Code code, Class<?> type) {
+		if (!type.isPrimitive()) {
+			if (!type.equals(Object.class)) {
+				code.type(CHECKCAST, internalName(type));
+			}
+
+			code.op(ARETURN);
+		}
+		else if (type.equals(boolean.class)) {
+			code.type(CHECKCAST, "java/lang/Boolean")
+					.method(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z")
+					.op(IRETURN);
+		}
+		else if (type.equals(char.class)) {
+			code.type(CHECKCAST, "java/lang/Character")
+					.method(INVOKEVIRTUAL, "java/lang/Character", "charValue", "()C")
+					.op(IRETURN);
+		}
+		else {
+			code.type(CHECKCAST, "java/lang/Number")
+					.method(INVOKEVIRTUAL, "java/lang/Number", type.getName() + "Value", "()" + descriptor(type))
+					.op(returnOpcode(type));
+		}
+	}
+
+	private static void writeSetter(ClassFileWriter writer, String internalName, int index, Method method) {
+		Class<?> type = method.getParameterTypes()[0];
+		boolean wide = type.equals(long.class) || type.equals(double.class);
+		ClassFileWriter.Code code = writer.code(wide ? 4 : 3, wide ? 3 : 2)
+				.op(ALOAD_0)
+				.field(GETFIELD, internalName, "handler", HANDLER_DESCRIPTOR)
+				.op(ALOAD_0)
+				.field(GETFIELD, internalName, "accessor" + index, ACCESSOR_DESCRIPTOR)
+				.local(loadOpcode(type), 1);
+
+		if (type.isPrimitive()) {
+			String wrapper = internalName(TypeUtils.getWrapper(type));
+			code.method(INVOKESTATIC, wrapper, "valueOf", "(" + descriptor(type) + ")L" + wrapper + ";");
+		}
+
+		code.method(INVOKEVIRTUAL, HANDLER, "setValue", "(" + ACCESSOR_DESCRIPTOR + "Ljava/lang/Object;)V")
+				.op(RETURN);
+
+		writer.addMethod(ClassFileWriter.ACC_PUBLIC, method.getName(), "(" + descriptor(type) + ")V", code);
+	}
+
+	private static boolean isGetter(Method method) {
+		return method.getName().startsWith("get");
+	}
+
+	/**
+	 * Returns getters and setters of config's interface in stable order
+	 * @param clazz class of config's interface
+	 * @return list of methods
+	 */
+	private static List<Method> getMethods(Class<?> clazz) {
+		List<Method> methods = new ArrayList<>();
+		for (Method method : clazz.getDeclaredMethods()) {
+			if (Modifier.isStatic(method.getModifiers()) || method.isSynthetic()) {
+				continue;
+			}
+
+			methods.add(method);
+		}
+
+		methods.sort(Comparator.comparing(Method::getName));
+		return methods;
+	}
+
+	/**
+	 * Check can interface be implemented by generated class, which lives in another package and class loader
+	 * @param clazz class of config's interface
+	 * @param methods getters and setters of interface
+	 * @return true if class can be generated, else false
+	 */
+	private static boolean isSupported(Class<?> clazz, List<Method> methods) {
+		if (clazz.getInterfaces().length != 1 || !clazz.getInterfaces()[0].equals(Config.class) || !isPublic(clazz)) {
+			return false;
+		}
+
+		try {
+			if (Class.forName(ConfigInvocationHandler.class.getName(), false, clazz.getClassLoader()) != ConfigInvocationHandler.class) {
+				return false;
+			}
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+
+		for (Method method : methods) {
+			if (!isPublic(method.getReturnType())) {
+				return false;
+			}
+
+			for (Class<?> parameter : method.getParameterTypes()) {
+				if (!isPublic(parameter)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean isPublic(Class<?> clazz) {
+		while (clazz.isArray()) {
+			clazz = clazz.getComponentType();
+		}
+
+		for (Class<?> current = clazz; current != null; current = current.getEnclosingClass()) {
+			if (!current.isPrimitive() && !Modifier.isPublic(current.getModifiers())) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static int returnOpcode(Class<?> type) {
+		if (type.equals(long.class)) {
+			return LRETURN;
+		}
+
+		if (type.equals(float.class)) {
+			return FRETURN;
+		}
+
+		if (type.equals(double.class)) {
+			return DRETURN;
+		}
+
+		return IRETURN;
+	}
+
+	private static int loadOpcode(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return ALOAD;
+		}
+
+		if (type.equals(long.class)) {
+			return LLOAD;
+		}
+
+		if (type.equals(float.class)) {
+			return FLOAD;
+		}
+
+		if (type.equals(double.class)) {
+			return DLOAD;
+		}
+
+		return ILOAD;
+	}
+
+	private static String internalName(Class<?> clazz) {
+		return clazz.isArray() ? descriptor(clazz) : clazz.getName().replace('.', '/');
+	}
+
+	private static String descriptor(Class<?> clazz) {
+		if (clazz.isArray()) {
+			return "[" + descriptor(clazz.getComponentType());
+		}
+
+		if (!clazz.isPrimitive()) {
+			return "L" + internalName(clazz) + ";";
+		}
+
+		if (clazz.equals(boolean.class)) {
+			return "Z";
+		}
+
+		if (clazz.equals(long.class)) {
+			return "J";
+		}
+
+		if (clazz.equals(void.class)) {
+			return "V";
+		}
+
+		return String.valueOf(Character.toUpperCase(clazz.getName().charAt(0)));
+	}
+
+	/**
+	 * Class loader of generated class, child of config's interface class loader
+	 */
+	private static class GeneratedClassLoader extends ClassLoader {
+
+		GeneratedClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return this.defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
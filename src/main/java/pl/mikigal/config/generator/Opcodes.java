@@ -0,0 +1,43 @@
+package pl.mikigal.config.generator;
+
+/**
+ * JVM opcodes used by generated configs
+ * @see ClassFileWriter
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class Opcodes {
+
+	public static final int ICONST_0 = 0x03;
+	public static final int BIPUSH = 0x10;
+	public static final int SIPUSH = 0x11;
+	public static final int LDC_W = 0x13;
+	public static final int ILOAD = 0x15;
+	public static final int LLOAD = 0x16;
+	public static final int FLOAD = 0x17;
+	public static final int DLOAD = 0x18;
+	public static final int ALOAD = 0x19;
+	public static final int ALOAD_0 = 0x2A;
+	public static final int ALOAD_1 = 0x2B;
+	public static final int ALOAD_2 = 0x2C;
+	public static final int AALOAD = 0x32;
+	public static final int ASTORE_1 = 0x4C;
+	public static final int DUP_X1 = 0x5A;
+	public static final int IFEQ = 0x99;
+	public static final int IRETURN = 0xAC;
+	public static final int LRETURN = 0xAD;
+	public static final int FRETURN = 0xAE;
+	public static final int DRETURN = 0xAF;
+	public static final int ARETURN = 0xB0;
+	public static final int RETURN = 0xB1;
+	public static final int GETSTATIC = 0xB2;
+	public static final int GETFIELD = 0xB4;
+	public static final int PUTFIELD = 0xB5;
+	public static final int INVOKEVIRTUAL = 0xB6;
+	public static final int INVOKESPECIAL = 0xB7;
+	public static final int INVOKESTATIC = 0xB8;
+	public static final int CHECKCAST = 0xC0;
+
+	private Opcodes() {
+	}
+}
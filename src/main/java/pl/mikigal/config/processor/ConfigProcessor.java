@@ -0,0 +1,526 @@
+package pl.mikigal.config.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Annotation processor for interfaces with ConfigName annotation.
+ * It validates config's interface at compile time and generates it's implementation with precomputed paths,
+ * comments, kinds of values and default values, which is used by <code>ConfigAPI.init()</code> instead of reflections.
+ * It must not use classes of Bukkit or Guava, they are not available for compiler
+ * @see pl.mikigal.config.CompiledConfig
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public class ConfigProcessor extends AbstractProcessor {
+
+	private static final String CONFIG_NAME = "pl.mikigal.config.annotation.ConfigName";
+	private static final String CONFIG = "pl.mikigal.config.Config";
+	private static final String CONFIG_PATH = "pl.mikigal.config.annotation.ConfigPath";
+	private static final String CONFIG_OPTIONAL = "pl.mikigal.config.annotation.ConfigOptional";
+	private static final String COMMENT = "pl.mikigal.config.annotation.Comment";
+	private static final String NAME_STYLE = "pl.mikigal.config.style.NameStyle";
+	private static final String VALUE_KIND = "pl.mikigal.config.ConfigAccessor.ValueKind";
+	private static final Set<String> WRAPPERS = new HashSet<>(Arrays.asList("java.lang.Boolean", "java.lang.Character",
+			"java.lang.Byte", "java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float", "java.lang.Double"));
+	private static final String SUFFIX = "_ConfigImpl";
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return Collections.singleton(CONFIG_NAME);
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+		TypeElement configName = this.processingEnv.getElementUtils().getTypeElement(CONFIG_NAME);
+		if (configName == null) {
+			return false;
+		}
+
+		for (Element element : roundEnvironment.getElementsAnnotatedWith(configName)) {
+			if (element.getKind() != ElementKind.INTERFACE) {
+				this.error(element, "ConfigName can be used only on interface extending Config");
+				continue;
+			}
+
+			TypeElement config = (TypeElement) element;
+			List<ExecutableElement> methods = this.validate(config);
+			if (methods != null) {
+				this.generate(config, methods);
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Validates config's interface, rules are the same as in ConfigInvocationHandler
+	 * @param config config's interface
+	 * @return getters and setters of interface sorted by name, null if interface is invalid
+	 */
+	private List<ExecutableElement> validate(TypeElement config) {
+		boolean valid = config.getInterfaces().stream().anyMatch(type -> this.isType(type, CONFIG));
+		if (!valid) {
+			this.error(config, "Config must extend " + CONFIG);
+		}
+
+		Map<String, ExecutableElement> getters = new HashMap<>();
+		List<ExecutableElement> methods = new ArrayList<>();
+		for (ExecutableElement method : ElementFilter.methodsIn(config.getEnclosedElements())) {
+			if (method.getModifiers().contains(Modifier.STATIC) || method.getModifiers().contains(Modifier.PRIVATE)) {
+				continue;
+			}
+
+			methods.add(method);
+			String name = method.getSimpleName().toString();
+			if (!name.startsWith("get") && !name.startsWith("set")) {
+				valid = this.error(method, "Found non getter/setter method (name: " + name + ") in " + config.getQualifiedName());
+				continue;
+			}
+
+			if (name.startsWith("get")) {
+				getters.put(name, method);
+			}
+		}
+
+		for (ExecutableElement method : methods) {
+			String name = method.getSimpleName().toString();
+			if (name.startsWith("get")) {
+				valid &= this.validateGetter(method);
+			}
+			else if (name.startsWith("set")) {
+				valid &= this.validateSetter(method, getters.get(name.replaceFirst("set", "get")));
+			}
+		}
+
+		if (config.getNestingKind().isNested() && !this.isAccessible(config)) {
+			this.warning(config, "Config is not accessible from it's package, implementation will not be generated");
+			return null;
+		}
+
+		methods.sort(Comparator.comparing(method -> method.getSimpleName().toString()));
+		return valid ? methods : null;
+	}
+
+	private boolean validateGetter(ExecutableElement method) {
+		String name = method.getSimpleName().toString();
+		if (!method.getParameters().isEmpty()) {
+			return this.error(method, "Found method with parameters (name: " + name + ")");
+		}
+
+		if (!method.getModifiers().contains(Modifier.DEFAULT)) {
+			return this.error(method, "Getter method " + name + " has not default value");
+		}
+
+		TypeMirror type = method.getReturnType();
+		if (type.getKind() == TypeKind.DECLARED && this.isAssignable(type, "java.util.Map")) {
+			List<? extends TypeMirror> generics = ((DeclaredType) type).getTypeArguments();
+			if (generics.isEmpty() || !this.isType(generics.get(0), "java.lang.String")) {
+				return this.error(method, "You can serialize Map only with String key");
+			}
+		}
+
+		if (type.getKind() == TypeKind.DECLARED && this.isAssignableFrom(type, "java.util.Collection")) {
+			List<? extends TypeMirror> generics = ((DeclaredType) type).getTypeArguments();
+			if (generics.isEmpty()) {
+				return this.error(method, "Could not get generic type of " + name);
+			}
+
+			TypeMirror generic = generics.get(0);
+			if (generic.getKind() == TypeKind.WILDCARD || generic.getKind() == TypeKind.TYPEVAR
+					|| generic.getKind() == TypeKind.DECLARED && !((DeclaredType) generic).getTypeArguments().isEmpty()) {
+				return this.error(method, "Could not get generic type of " + name + ". Config's method generic type can't be wildcard");
+			}
+		}
+
+		return true;
+	}
+
+	private boolean validateSetter(ExecutableElement method, ExecutableElement getter) {
+		String name = method.getSimpleName().toString();
+		if (method.getModifiers().contains(Modifier.DEFAULT)) {
+			return this.error(method, "Setter method " + name + " has default value");
+		}
+
+		if (method.getReturnType().getKind() != TypeKind.VOID) {
+			return this.error(method, "Setter method " + name + " is not void type");
+		}
+
+		if (method.getParameters().size() != 1) {
+			return this.error(method, "Setter method " + name + " has not 1 parameter");
+		}
+
+		if (this.getAnnotation(method, CONFIG_OPTIONAL) != null) {
+			return this.error(method, "Setter method " + name + " has ConfigOptional annotation");
+		}
+
+		if (getter == null) {
+			return this.error(method, "Setter method " + name + " has not getter");
+		}
+
+		if (!this.processingEnv.getTypeUtils().isSameType(getter.getReturnType(), method.getParameters().get(0).asType())) {
+			return this.error(method, "Setter method " + name + " has another parameter type than getter");
+		}
+
+		return true;
+	}
+
+	/**
+	 * Writes source of config's implementation
+	 * @param config config's interface
+	 * @param methods getters and setters of interface
+	 */
+	private void generate(TypeElement config, List<ExecutableElement> methods) {
+		String packageName = this.processingEnv.getElementUtils().getPackageOf(config).getQualifiedName().toString();
+		String binaryName = this.processingEnv.getElementUtils().getBinaryName(config).toString();
+		String flatName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+		String className = flatName.replace('$', '_') + SUFFIX;
+		String configType = config.getQualifiedName().toString();
+
+		StringBuilder source = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+
+		source.append("/**\n")
+				.append(" * Implementation of {@link ").append(configType).append("} generated by ConfigAPI's annotation processor, do not edit\n")
+				.append(" */\n")
+				.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+				.append("public final class ").append(className).append(" implements ").append(configType)
+				.append(", pl.mikigal.config.CompiledConfig<").append(configType).append("> {\n\n");
+
+		source.append("\tprivate static final String[] METHOD_NAMES = {");
+		for (int i = 0; i < methods.size(); i++) {
+			source.append(i == 0 ? "" : ", ").append(this.literal(methods.get(i).getSimpleName().toString()));
+		}
+
+		source.append("};\n\n")
+				.append("\tprivate final pl.mikigal.config.ConfigInvocationHandler handler;\n");
+		for (int i = 0; i < methods.size(); i++) {
+			source.append("\tprivate final pl.mikigal.config.ConfigAccessor accessor").append(i).append(";\n");
+		}
+
+		source.append("\n\tpublic ").append(className).append("() {\n")
+				.append("\t\tthis.handler = null;\n");
+		for (int i = 0; i < methods.size(); i++) {
+			source.append("\t\tthis.accessor").append(i).append(" = null;\n");
+		}
+
+		source.append("\t}\n\n\tprivate ").append(className).append("(pl.mikigal.config.ConfigInvocationHandler handler) {\n")
+				.append("\t\tthis.handler = handler;\n");
+		for (int i = 0; i < methods.size(); i++) {
+			source.append("\t\tthis.accessor").append(i).append(" = handler.getAccessor(")
+					.append(this.literal(methods.get(i).getSimpleName().toString())).append(");\n");
+		}
+
+		source.append("\t}\n");
+		for (int i = 0; i < methods.size(); i++) {
+			this.generateMethod(source, methods.get(i), i);
+		}
+
+		source.append("\n\t@Override\n\tpublic pl.mikigal.config.BukkitConfiguration getBukkitConfiguration() {\n")
+				.append("\t\treturn this.handler.getConfiguration();\n\t}\n")
+				.append("\n\t@Override\n\tpublic String toString() {\n")
+				.append("\t\treturn ").append(this.literal("interface " + binaryName)).append(";\n\t}\n")
+				.append("\n\t@Override\n\tpublic String[] getMethodNames() {\n")
+				.append("\t\treturn METHOD_NAMES.clone();\n\t}\n");
+
+		source.append("\n\t@Override\n\tpublic java.lang.reflect.Method getMethod(String method) {\n")
+				.append("\t\ttry {\n\t\t\tswitch (method) {\n");
+		for (ExecutableElement method : methods) {
+			String name = method.getSimpleName().toString();
+			source.append("\t\t\t\tcase ").append(this.literal(name)).append(":\n")
+					.append("\t\t\t\t\treturn ").append(configType).append(".class.getDeclaredMethod(").append(this.literal(name));
+			for (VariableElement parameter : method.getParameters()) {
+				source.append(", ").append(this.processingEnv.getTypeUtils().erasure(parameter.asType())).append(".class");
+			}
+
+			source.append(");\n");
+		}
+
+		source.append("\t\t\t\tdefault:\n\t\t\t\t\treturn null;\n\t\t\t}\n")
+				.append("\t\t} catch (NoSuchMethodException e) {\n")
+				.append("\t\t\tthrow new IllegalStateException(\"Interface was changed after implementation was generated\", e);\n")
+				.append("\t\t}\n\t}\n");
+
+		source.append("\n\t@Override\n\tpublic ").append(VALUE_KIND).append(" getValueKind(String method) {\n")
+				.append("\t\tswitch (method) {\n");
+		for (ExecutableElement method : methods) {
+			String name = method.getSimpleName().toString();
+			if (name.startsWith("get")) {
+				source.append("\t\t\tcase ").append(this.literal(name)).append(":\n")
+						.append("\t\t\t\treturn ").append(VALUE_KIND).append(".").append(this.getValueKind(method.getReturnType())).append(";\n");
+			}
+		}
+
+		source.append("\t\t\tdefault:\n\t\t\t\treturn null;\n\t\t}\n\t}\n");
+
+		source.append("\n\t@Override\n\tpublic String getPath(String method, ").append(NAME_STYLE).append(" nameStyle) {\n")
+				.append("\t\tswitch (method) {\n");
+		for (ExecutableElement method : methods) {
+			String name = method.getSimpleName().toString();
+			source.append("\t\t\tcase ").append(this.literal(name)).append(":\n");
+
+			String configPath = this.getAnnotationValue(method, CONFIG_PATH);
+			if (configPath != null) {
+				source.append("\t\t\t\treturn ").append(this.literal(configPath)).append(";\n");
+				continue;
+			}
+
+			source.append("\t\t\t\treturn nameStyle == ").append(NAME_STYLE).append(".UNDERSCORE ? ").append(this.literal(this.formatName(name, '_')))
+					.append(" : nameStyle == ").append(NAME_STYLE).append(".HYPHEN ? ").append(this.literal(this.formatName(name, '-')))
+					.append(" : ").append(this.literal(this.formatName(name, (char) 0))).append(";\n");
+		}
+
+		source.append("\t\t\tdefault:\n\t\t\t\treturn null;\n\t\t}\n\t}\n");
+
+		source.append("\n\t@Override\n\tpublic String getComment(String method) {\n")
+				.append("\t\tswitch (method) {\n");
+		for (ExecutableElement method : methods) {
+			String comment = this.getAnnotationValue(method, COMMENT);
+			if (comment != null) {
+				source.append("\t\t\tcase ").append(this.literal(method.getSimpleName().toString())).append(":\n")
+						.append("\t\t\t\treturn ").append(this.literal(comment)).append(";\n");
+			}
+		}
+
+		source.append("\t\t\tdefault:\n\t\t\t\treturn null;\n\t\t}\n\t}\n");
+
+		source.append("\n\t@Override\n\tpublic boolean isOptional(String method) {\n")
+				.append("\t\tswitch (method) {\n");
+		for (ExecutableElement method : methods) {
+			if (this.getAnnotation(method, CONFIG_OPTIONAL) != null) {
+				source.append("\t\t\tcase ").append(this.literal(method.getSimpleName().toString())).append(":\n")
+						.append("\t\t\t\treturn true;\n");
+			}
+		}
+
+		source.append("\t\t\tdefault:\n\t\t\t\treturn false;\n\t\t}\n\t}\n");
+
+		source.append("\n\t@Override\n\tpublic Object getDefaultValue(String method) {\n")
+				.append("\t\tswitch (method) {\n");
+		for (ExecutableElement method : methods) {
+			String name = method.getSimpleName().toString();
+			if (name.startsWith("get")) {
+				source.append("\t\t\tcase ").append(this.literal(name)).append(":\n")
+						.append("\t\t\t\treturn ").append(configType).append(".super.").append(name).append("();\n");
+			}
+		}
+
+		source.append("\t\t\tdefault:\n\t\t\t\tthrow new IllegalArgumentException(\"Unknown getter: \" + method);\n\t\t}\n\t}\n");
+
+		source.append("\n\t@Override\n\tpublic ").append(configType).append(" create(pl.mikigal.config.ConfigInvocationHandler handler) {\n")
+				.append("\t\treturn new ").append(className).append("(handler);\n\t}\n")
+				.append("}\n");
+
+		String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+		try (Writer writer = this.processingEnv.getFiler().createSourceFile(qualifiedName, config).openWriter()) {
+			writer.write(source.toString());
+		} catch (IOException e) {
+			this.error(config, "Could not generate implementation of config: " + e.getMessage());
+		}
+	}
+
+	private void generateMethod(StringBuilder source, ExecutableElement method, int index) {
+		String name = method.getSimpleName().toString();
+		source.append("\n\t@Override\n");
+		if (name.startsWith("set")) {
+			source.append("\tpublic void ").append(name).append("(").append(method.getParameters().get(0).asType()).append(" value) {\n")
+					.append("\t\tthis.handler.setValue(this.accessor").append(index).append(", value);\n\t}\n");
+			return;
+		}
+
+		TypeMirror type = method.getReturnType();
+		String value = "this.handler.getValue(this.accessor" + index + ")";
+		source.append("\tpublic ").append(type).append(" ").append(name).append("() {\n\t\treturn ");
+		switch (type.getKind()) {
+			case BOOLEAN:
+				source.append("((java.lang.Boolean) ").append(value).append(").booleanValue()");
+				break;
+			case CHAR:
+				source.append("((java.lang.Character) ").append(value).append(").charValue()");
+				break;
+			case BYTE:
+			case SHORT:
+			case INT:
+			case LONG:
+			case FLOAT:
+			case DOUBLE:
+				source.append("((java.lang.Number) ").append(value).append(").").append(type).append("Value()");
+				break;
+			default:
+				source.append("(").append(type).append(") ").append(value);
+		}
+
+		source.append(";\n\t}\n");
+	}
+
+	/**
+	 * Resolves kind of getter's value, the same way as ConfigInvocationHandler does with TypeUtils.isSimpleType(Method)
+	 * @param type return type of getter
+	 * @return name of ValueKind's constant
+	 */
+	private String getValueKind(TypeMirror type) {
+		if (this.isType(type, "java.lang.String")) {
+			return "COLOR_STRING";
+		}
+
+		if (this.isSimpleType(type)) {
+			return "SIMPLE";
+		}
+
+		if (type.getKind() == TypeKind.DECLARED && this.isAssignableFrom(type, "java.util.Collection")
+				&& this.isSimpleType(((DeclaredType) type).getTypeArguments().get(0))) {
+			return "SIMPLE";
+		}
+
+		return "SERIALIZED";
+	}
+
+	private boolean isSimpleType(TypeMirror type) {
+		if (type.getKind().isPrimitive()) {
+			return true;
+		}
+
+		return type.getKind() == TypeKind.DECLARED && (this.isType(type, "java.lang.String")
+				|| WRAPPERS.contains(((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString()));
+	}
+
+	/**
+	 * Formats name of method to field's name, the same way as NameStyle does
+	 * @param methodName name of getter or setter
+	 * @param separator separator of words, 0 for camel case
+	 * @return name of field in config
+	 */
+	private String formatName(String methodName, char separator) {
+		String name = methodName.replace("get", "").replace("set", "");
+		StringBuilder output = new StringBuilder();
+		int start = 0;
+		for (int i = 1; i <= name.length(); i++) {
+			if (i != name.length() && (name.charAt(i) < 'A' || name.charAt(i) > 'Z')) {
+				continue;
+			}
+
+			String word = name.substring(start, i).toLowerCase(Locale.ROOT);
+			if (start == 0) {
+				output.append(word);
+			}
+			else if (separator == 0) {
+				output.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+			}
+			else {
+				output.append(separator).append(word);
+			}
+
+			start = i;
+		}
+
+		return output.toString();
+	}
+
+	private String literal(String value) {
+		StringBuilder literal = new StringBuilder("\"");
+		for (char character : value.toCharArray()) {
+			switch (character) {
+				case '"':
+					literal.append("\\\"");
+					break;
+				case '\\':
+					literal.append("\\\\");
+					break;
+				case '\n':
+					literal.append("\\n");
+					break;
+				case '\r':
+					literal.append("\\r");
+					break;
+				case '\t':
+					literal.append("\\t");
+					break;
+				default:
+					literal.append(character);
+			}
+		}
+
+		return literal.append('"').toString();
+	}
+
+	private AnnotationMirror getAnnotation(Element element, String type) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (this.isType(annotation.getAnnotationType(), type)) {
+				return annotation;
+			}
+		}
+
+		return null;
+	}
+
+	private String getAnnotationValue(Element element, String type) {
+		AnnotationMirror annotation = this.getAnnotation(element, type);
+		if (annotation == null) {
+			return null;
+		}
+
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals("value")) {
+				return entry.getValue().getValue().toString();
+			}
+		}
+
+		return null;
+	}
+
+	private boolean isType(TypeMirror type, String name) {
+		return type.getKind() == TypeKind.DECLARED &&
+				((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(name);
+	}
+
+	private boolean isAssignable(TypeMirror type, String name) {
+		TypeElement element = this.processingEnv.getElementUtils().getTypeElement(name);
+		return element != null && this.processingEnv.getTypeUtils().isAssignable(
+				this.processingEnv.getTypeUtils().erasure(type), this.processingEnv.getTypeUtils().erasure(element.asType()));
+	}
+
+	/**
+	 * Check can value of given type be assigned to declared type, e.g. Collection to Iterable
+	 */
+	private boolean isAssignableFrom(TypeMirror declared, String type) {
+		TypeElement element = this.processingEnv.getElementUtils().getTypeElement(type);
+		return element != null && this.processingEnv.getTypeUtils().isAssignable(
+				this.processingEnv.getTypeUtils().erasure(element.asType()), this.processingEnv.getTypeUtils().erasure(declared));
+	}
+
+	private boolean isAccessible(TypeElement config) {
+		for (Element element = config; element instanceof TypeElement; element = element.getEnclosingElement()) {
+			if (element.getModifiers().contains(Modifier.PRIVATE)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private boolean error(Element element, String message) {
+		this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+		return false;
+	}
+
+	private void warning(Element element, String message) {
+		this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+	}
+}
@@ -0,0 +1,178 @@
+package pl.mikigal.config.serializer;
+
+import org.bukkit.configuration.ConfigurationSection;
+import pl.mikigal.config.BukkitConfiguration;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Handle of value positioned in config, passed to serializers instead of path.
+ * Values of children are read directly from section of node, without building their full paths and resolving them from root.
+ * Full path is built only when it's needed, e.g. for message of exception or by serializer which uses path based API
+ * @see Serializer#deserialize(ConfigNode, TypeDescriptor)
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigNode {
+
+	private final BukkitConfiguration configuration;
+	private final ConfigNode parent;
+	private final String key;
+	private final Object value;
+	private String path;
+
+	private ConfigNode(BukkitConfiguration configuration, ConfigNode parent, String key, String path, Object value) {
+		this.configuration = configuration;
+		this.parent = parent;
+		this.key = key;
+		this.path = path;
+		this.value = value;
+	}
+
+	/**
+	 * Creates node of value at given path
+	 * @param configuration instance of BukkitConfiguration
+	 * @param path path in config
+	 * @return node of path, its value is null if path does not exist
+	 */
+	public static ConfigNode of(BukkitConfiguration configuration, String path) {
+		return new ConfigNode(configuration, null, null, path, configuration.get(path, null));
+	}
+
+	/**
+	 * Creates node of given value of path, e.g. read from snapshot of config
+	 * @param configuration instance of BukkitConfiguration
+	 * @param path path in config
+	 * @param value raw value of path, sections are read through it
+	 * @return node of path
+	 * @see pl.mikigal.config.ConfigSnapshot#getRaw(String)
+	 */
+	public static ConfigNode of(BukkitConfiguration configuration, String path, Object value) {
+		return new ConfigNode(configuration, null, null, path, value);
+	}
+
+	/**
+	 * Creates node of child of this node's section
+	 * @param key key of child in section
+	 * @return node of child, its value is null if this node is not section or child does not exist
+	 */
+	public ConfigNode child(String key) {
+		return new ConfigNode(this.configuration, this, key, null, this.get(key));
+	}
+
+	/**
+	 * Returns full path of node, it's built on first call
+	 * @return path in config
+	 */
+	public String getPath() {
+		if (this.path == null) {
+			this.path = this.parent.getPath() + this.configuration.options().pathSeparator() + this.key;
+		}
+
+		return this.path;
+	}
+
+	public BukkitConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * Returns raw value of node, as it's stored in config
+	 * @return section, list or simple value, null if node does not exist
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * Returns value of node as String
+	 * @return String representation of value, null if node does not exist
+	 */
+	public String asString() {
+		return this.value == null ? null : this.value.toString();
+	}
+
+	public boolean exists() {
+		return this.value != null;
+	}
+
+	public boolean isSection() {
+		return this.value instanceof ConfigurationSection;
+	}
+
+	public boolean isList() {
+		return this.value instanceof List;
+	}
+
+	/**
+	 * Returns section of node
+	 * @return section, null if node is not section
+	 */
+	public ConfigurationSection getSection() {
+		return this.isSection() ? (ConfigurationSection) this.value : null;
+	}
+
+	/**
+	 * Returns keys of node's children, in order of file
+	 * @return keys of children, empty if node is not section
+	 */
+	public Set<String> getKeys() {
+		return this.isSection() ? ((ConfigurationSection) this.value).getKeys(false) : Collections.emptySet();
+	}
+
+	/**
+	 * Allows to get raw value of child
+	 * @param key key of child in section
+	 * @return value of child, null if this node is not section or child does not exist
+	 */
+	public Object get(String key) {
+		return this.isSection() ? ((ConfigurationSection) this.value).get(key, null) : null;
+	}
+
+	public boolean contains(String key) {
+		return this.get(key) != null;
+	}
+
+	public String getString(String key) {
+		Object value = this.get(key);
+		return value == null ? null : value.toString();
+	}
+
+	public int getInt(String key, int def) {
+		Object value = this.get(key);
+		return value instanceof Number ? ((Number) value).intValue() : def;
+	}
+
+	public long getLong(String key, long def) {
+		Object value = this.get(key);
+		return value instanceof Number ? ((Number) value).longValue() : def;
+	}
+
+	public double getDouble(String key, double def) {
+		Object value = this.get(key);
+		return value instanceof Number ? ((Number) value).doubleValue() : def;
+	}
+
+	public boolean getBoolean(String key, boolean def) {
+		Object value = this.get(key);
+		return value instanceof Boolean ? (Boolean) value : def;
+	}
+
+	/**
+	 * Reads child by given serializer
+	 * @param key key of child in section
+	 * @param serializer serializer of child
+	 * @param type declared type of child, null if it's unknown
+	 * @return deserialized value of child
+	 */
+	public <R> R read(String key, Serializer<R> serializer, TypeDescriptor type) {
+		return serializer.deserialize(this.child(key), type);
+	}
+
+	@Override
+	public String toString() {
+		return this.getPath();
+	}
+}
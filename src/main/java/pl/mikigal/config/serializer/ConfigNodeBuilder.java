@@ -0,0 +1,236 @@
+package pl.mikigal.config.serializer;
+
+import org.bukkit.configuration.ConfigurationSection;
+import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.exception.MissingSerializerException;
+import pl.mikigal.config.util.TypeUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builder of subtree written by serializer, passed to serializers instead of path.
+ * Values are collected in memory and whole subtree is attached to config in one write, when serializer finishes.
+ * Objects of serializers which use only path based API are written after subtree is attached
+ * @see Serializer#saveObject(ConfigNodeBuilder, Object, TypeDescriptor)
+ * @see BukkitConfiguration#attach(String, ConfigNodeBuilder)
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class ConfigNodeBuilder {
+
+	private final BukkitConfiguration configuration;
+	private final ConfigNodeBuilder parent;
+
+	/**
+	 * Raw value of node if it's not section, or values and builders of children
+	 */
+	private Object value;
+	private Map<String, Object> children;
+
+	/**
+	 * Objects written by path based API, at this node or below it
+	 */
+	private List<Deferred> deferred;
+	private boolean deferredBelow;
+
+	public ConfigNodeBuilder(BukkitConfiguration configuration) {
+		this(configuration, null);
+	}
+
+	private ConfigNodeBuilder(BukkitConfiguration configuration, ConfigNodeBuilder parent) {
+		this.configuration = configuration;
+		this.parent = parent;
+	}
+
+	public BukkitConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * Returns builder of child section, node becomes section
+	 * @param key key of child
+	 * @return builder of child, existing one if it was already created
+	 */
+	public ConfigNodeBuilder child(String key) {
+		Object child = this.getChildren().get(key);
+		if (child instanceof ConfigNodeBuilder) {
+			return (ConfigNodeBuilder) child;
+		}
+
+		ConfigNodeBuilder builder = new ConfigNodeBuilder(this.configuration, this);
+		this.children.put(key, builder);
+		return builder;
+	}
+
+	/**
+	 * Sets value of child, node becomes section. Simple values are written as they are,
+	 * Collections, Maps and other objects are written by their serializers
+	 * @param key key of child
+	 * @param value value of child, null removes child
+	 * @return this builder
+	 * @throws MissingSerializerException if there's no serializer for {@param value}
+	 */
+	public ConfigNodeBuilder set(String key, Object value) {
+		if (value == null) {
+			this.getChildren().remove(key);
+			return this;
+		}
+
+		if (!(value instanceof Collection) && !(value instanceof Map) && TypeUtils.isSimpleType(value)) {
+			this.getChildren().put(key, value);
+			return this;
+		}
+
+		this.getChildren().remove(key);
+		this.child(key).write(value, null);
+		return this;
+	}
+
+	/**
+	 * Sets value of child as it is, without serializers. Collections are written as YAML lists
+	 * @param key key of child
+	 * @param value value of child
+	 * @return this builder
+	 */
+	public ConfigNodeBuilder setRaw(String key, Object value) {
+		this.getChildren().put(key, value);
+		return this;
+	}
+
+	/**
+	 * Sets raw value of node itself, e.g. String of serializer which writes object as single value
+	 * @param value value of node
+	 */
+	public void setValue(Object value) {
+		this.value = value;
+		this.children = null;
+	}
+
+	/**
+	 * Writes object to this node by its serializer
+	 * @param object object which you want to write
+	 * @param type declared type of object, null if it's unknown
+	 * @throws MissingSerializerException if there's no serializer for {@param object}
+	 */
+	public void write(Object object, TypeDescriptor type) {
+		Serializer<?> serializer = Serializers.of(object);
+		if (serializer == null) {
+			throw new MissingSerializerException(object);
+		}
+
+		this.write(object, serializer, type);
+	}
+
+	/**
+	 * Writes object to this node by given serializer
+	 * @param object object which you want to write
+	 * @param serializer serializer of object
+	 * @param type declared type of object, null if it's unknown
+	 */
+	public void write(Object object, Serializer<?> serializer, TypeDescriptor type) {
+		serializer.build(this, object, type);
+	}
+
+	/**
+	 * Check will node be written as section
+	 * @return true if node has children, else false
+	 */
+	public boolean isSection() {
+		return this.children != null;
+	}
+
+	/**
+	 * Returns raw value of node
+	 * @return value of node, null if it's section or it was not set
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * Copies children of node to section, used by BukkitConfiguration when subtree is attached
+	 * @param section empty section of node
+	 */
+	public void fill(ConfigurationSection section) {
+		for (Map.Entry<String, Object> entry : this.children.entrySet()) {
+			if (!(entry.getValue() instanceof ConfigNodeBuilder)) {
+				section.set(entry.getKey(), entry.getValue());
+				continue;
+			}
+
+			ConfigNodeBuilder child = (ConfigNodeBuilder) entry.getValue();
+			if (child.isSection()) {
+				child.fill(section.createSection(entry.getKey()));
+			}
+			else if (child.value != null) {
+				section.set(entry.getKey(), child.value);
+			}
+		}
+	}
+
+	/**
+	 * Writes objects of serializers which use path based API, used by BukkitConfiguration after subtree is attached
+	 * @param path path of node
+	 */
+	public void writeDeferred(String path) {
+		if (this.deferred != null) {
+			for (Deferred deferred : this.deferred) {
+				deferred.serializer.saveDeferred(path, deferred.object, deferred.type, this.configuration);
+			}
+		}
+
+		if (!this.deferredBelow || this.children == null) {
+			return;
+		}
+
+		char separator = this.configuration.options().pathSeparator();
+		for (Map.Entry<String, Object> entry : this.children.entrySet()) {
+			if (entry.getValue() instanceof ConfigNodeBuilder) {
+				((ConfigNodeBuilder) entry.getValue()).writeDeferred(path + separator + entry.getKey());
+			}
+		}
+	}
+
+	/**
+	 * Marks object to be written by path based API of its serializer
+	 */
+	void defer(Serializer<?> serializer, Object object, TypeDescriptor type) {
+		if (this.deferred == null) {
+			this.deferred = new ArrayList<>(1);
+		}
+
+		this.deferred.add(new Deferred(serializer, object, type));
+		for (ConfigNodeBuilder node = this.parent; node != null && !node.deferredBelow; node = node.parent) {
+			node.deferredBelow = true;
+		}
+	}
+
+	private Map<String, Object> getChildren() {
+		if (this.children == null) {
+			this.children = new LinkedHashMap<>();
+			this.value = null;
+		}
+
+		return this.children;
+	}
+
+	/**
+	 * Object which is written after subtree is attached
+	 */
+	private static final class Deferred {
+
+		private final Serializer<?> serializer;
+		private final Object object;
+		private final TypeDescriptor type;
+
+		private Deferred(Serializer<?> serializer, Object object, TypeDescriptor type) {
+			this.serializer = serializer;
+			this.object = object;
+			this.type = type;
+		}
+	}
+}
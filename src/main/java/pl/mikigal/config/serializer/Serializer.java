@@ -38,13 +38,27 @@ public abstract class Serializer<T> {
 	 * @see BukkitConfiguration
 	 */
 	public final void serialize(String path, Object object, BukkitConfiguration configuration) {
-		configuration.set(path, null);
+		this.serialize(path, object, null, configuration);
+	}
+
+	/**
+	 * Writes object to config, this method should be used by end user
+	 * @param path path in config
+	 * @param object object which you want to write
+	 * @param type declared type of object, null if it's unknown
+	 * @param configuration instance of BukkitConfiguration
+	 * @see BukkitConfiguration
+	 */
+	public final void serialize(String path, Object object, TypeDescriptor type, BukkitConfiguration configuration) {
 		if (object == null) {
+			configuration.set(path, null);
 			return;
 		}
 
-		this.saveObject(path, (T) object, configuration);
-		configuration.addToCache(path, object);
+		ConfigNodeBuilder node = new ConfigNodeBuilder(configuration);
+		this.saveObject(node, (T) object, type);
+		configuration.attach(path, node);
+		configuration.addToCache(path, object, this);
 	}
 
 	/**
@@ -57,6 +71,46 @@ public abstract class Serializer<T> {
 	 */
 	protected abstract void saveObject(String path, T object, BukkitConfiguration configuration);
 
+	/**
+	 * Internal method for writing object of known declared type to config.
+	 * Override it if serializer can use generic arguments of type, by default declared type is ignored
+	 * @param path path in config
+	 * @param object object which you want to write
+	 * @param type declared type of object, null if it's unknown
+	 * @param configuration instance of BukkitConfiguration
+	 * @see TypeDescriptor
+	 */
+	protected void saveObject(String path, T object, TypeDescriptor type, BukkitConfiguration configuration) {
+		this.saveObject(path, object, configuration);
+	}
+
+	/**
+	 * Internal method for writing object to builder of its subtree, which is attached to config when serializer finishes.
+	 * Override it to write values of object without building their paths and writing them one by one,
+	 * by default object is written by path based <code>saveObject</code> after subtree is attached
+	 * @param node builder of object's node
+	 * @param object object which you want to write
+	 * @param type declared type of object, null if it's unknown
+	 * @see ConfigNodeBuilder
+	 */
+	protected void saveObject(ConfigNodeBuilder node, T object, TypeDescriptor type) {
+		node.defer(this, object, type);
+	}
+
+	/**
+	 * Writes object to builder, used by ConfigNodeBuilder for nested objects
+	 */
+	void build(ConfigNodeBuilder node, Object object, TypeDescriptor type) {
+		this.saveObject(node, (T) object, type);
+	}
+
+	/**
+	 * Writes object deferred by builder, after its subtree was attached to config
+	 */
+	void saveDeferred(String path, Object object, TypeDescriptor type, BukkitConfiguration configuration) {
+		this.saveObject(path, (T) object, type, configuration);
+	}
+
 	/**
 	 * Reads data from config and returns instance of object created by readen data.
 	 * It's implementation in your serializer must read data using <code>get*</code> methods from {@param configuration}
@@ -67,6 +121,43 @@ public abstract class Serializer<T> {
 	 */
 	public abstract T deserialize(String path, BukkitConfiguration configuration);
 
+	/**
+	 * Reads data of object with known declared type from config.
+	 * Override it if serializer can use generic arguments of type, by default declared type is ignored
+	 * @param path path of object in config
+	 * @param type declared type of object, null if it's unknown
+	 * @param configuration instance of BukkitConfiguration
+	 * @return instance of readen object
+	 * @see TypeDescriptor
+	 */
+	public T deserialize(String path, TypeDescriptor type, BukkitConfiguration configuration) {
+		return this.deserialize(path, configuration);
+	}
+
+	/**
+	 * Reads data of object from node positioned at its value.
+	 * Override it to read values of children from {@param node} without building their paths,
+	 * by default it calls path based <code>deserialize</code>
+	 * @param node node of object in config
+	 * @param type declared type of object, null if it's unknown
+	 * @return instance of readen object
+	 * @see ConfigNode
+	 */
+	public T deserialize(ConfigNode node, TypeDescriptor type) {
+		return this.deserialize(node.getPath(), type, node.getConfiguration());
+	}
+
+	/**
+	 * Check can serializer deserialize values of given type on other thread than Bukkit's main thread,
+	 * e.g. by parallel validation or warm up. Override it if serializer does not use Bukkit's API, by default it's not thread-safe
+	 * @param type declared type of value, null if it's unknown
+	 * @return true if values can be deserialized on any thread, else false
+	 * @see pl.mikigal.config.style.InitStrategy
+	 */
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return false;
+	}
+
 	/**
 	 * Returns type which serializer can process
 	 * @return type which serializer can process
@@ -6,36 +6,70 @@ import org.bukkit.block.Biome;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ShapedRecipe;
 import org.bukkit.potion.PotionEffect;
+import pl.mikigal.config.collection.DoubleList;
+import pl.mikigal.config.collection.IntList;
+import pl.mikigal.config.collection.LongList;
 import pl.mikigal.config.exception.InvalidConfigException;
 import pl.mikigal.config.exception.MissingSerializerException;
 import pl.mikigal.config.serializer.bukkit.*;
-import pl.mikigal.config.serializer.java.EnumSerializer;
-import pl.mikigal.config.serializer.java.UUIDSerializer;
+import pl.mikigal.config.serializer.java.*;
 import pl.mikigal.config.serializer.universal.UniversalArraySerializer;
 import pl.mikigal.config.serializer.universal.UniversalCollectionSerializer;
 import pl.mikigal.config.serializer.universal.UniversalMapSerializer;
 import pl.mikigal.config.serializer.universal.UniversalObjectSerializer;
+import pl.mikigal.config.serializer.universal.UniversalPrimitiveArraySerializer;
+import pl.mikigal.config.util.TypeUtils;
 
 import java.io.Serializable;
 import java.util.*;
 
 /**
- * Utilities for serializers management
+ * Utilities for serializers management.
+ * Serializer for class is resolved with following precedence:
+ * <ol>
+ *     <li>serializer registered for exactly this class</li>
+ *     <li>serializer registered for nearest superclass or interface (breadth-first, superclass before interfaces)</li>
+ *     <li>universal serializer for arrays of primitives</li>
+ *     <li>universal serializer for arrays</li>
+ *     <li>universal serializer for classes implementing Serializable</li>
+ * </ol>
+ * Results are cached per class and invalidated by <code>register()</code> and <code>unregister()</code>
  * @since 1.0
  * @author Mikołaj Gałązka
  */
 public class Serializers {
 
 	/**
-	 * Map of registered serializers
+	 * Map of registered serializers, use <code>register()</code> and <code>unregister()</code> to modify it
 	 */
-	public static final Map<Class<?>, Serializer<?>> SERIALIZERS = new LinkedHashMap<>();
+	private static final Map<Class<?>, Serializer<?>> REGISTERED = new LinkedHashMap<>();
+	public static final Map<Class<?>, Serializer<?>> SERIALIZERS = Collections.unmodifiableMap(REGISTERED);
 	private static final Serializer UNIVERSAL_ARRAY_SERIALIZER = new UniversalArraySerializer();
+	private static final Serializer UNIVERSAL_PRIMITIVE_ARRAY_SERIALIZER = new UniversalPrimitiveArraySerializer();
 	private static final Serializer UNIVERSAL_OBJECT_SERIALIZER = new UniversalObjectSerializer();
 
+	/**
+	 * Cache of resolved serializers per class
+	 */
+	private static final ClassValue<Resolution> RESOLVED = new ClassValue<Resolution>() {
+		@Override
+		protected Resolution computeValue(Class<?> type) {
+			int currentGeneration = generation;
+			return new Resolution(currentGeneration, resolve(type));
+		}
+	};
+
+	/**
+	 * Incremented on every change of registered serializers, resolutions from older generations are recomputed
+	 */
+	private static volatile int generation;
+
 	static {
 		register(UUID.class, new UUIDSerializer());
 		register(Enum.class, new EnumSerializer());
+		register(IntList.class, new IntListSerializer());
+		register(LongList.class, new LongListSerializer());
+		register(DoubleList.class, new DoubleListSerializer());
 
 		register(ItemStack.class, new ItemStackSerializer());
 		register(Location.class, new LocationSerializer());
@@ -54,51 +88,22 @@ public class Serializers {
 	 * @return serializer for {@param clazz}, null if it does not exist
 	 */
 	public static <T> Serializer<T> of(Class<T> clazz) {
-		if (SERIALIZERS.containsKey(clazz)) {
-			return (Serializer<T>) SERIALIZERS.get(clazz);
-		}
-
-		for (Map.Entry<Class<?>, Serializer<?>> entry : SERIALIZERS.entrySet()) {
-			if (entry.getKey().isAssignableFrom(clazz)) {
-				return (Serializer<T>) entry.getValue();
-			}
+		Resolution resolution = RESOLVED.get(clazz);
+		if (resolution.generation != generation) {
+			RESOLVED.remove(clazz);
+			resolution = RESOLVED.get(clazz);
 		}
 
-		if (clazz.isArray()) {
-			return UNIVERSAL_ARRAY_SERIALIZER;
-		}
-
-		if (Serializable.class.isAssignableFrom(clazz)) {
-			return UNIVERSAL_OBJECT_SERIALIZER;
-		}
-
-		return null;
+		return (Serializer<T>) resolution.serializer;
 	}
+
 	/**
 	 * Allows to get Serializer for selected class
 	 * @param type class for which you want to get serializer
 	 * @return serializer for {@param type}, null if it does not exist
 	 */
 	public static <T> Serializer<T> of(T type) {
-		if (SERIALIZERS.containsKey(type.getClass())) {
-			return (Serializer<T>) SERIALIZERS.get(type.getClass());
-		}
-
-		for (Map.Entry<Class<?>, Serializer<?>> entry : SERIALIZERS.entrySet()) {
-			if (entry.getKey().isAssignableFrom(type.getClass())) {
-				return (Serializer<T>) entry.getValue();
-			}
-		}
-
-		if (type.getClass().isArray()) {
-			return UNIVERSAL_ARRAY_SERIALIZER;
-		}
-
-		if (type instanceof Serializable) {
-			return UNIVERSAL_OBJECT_SERIALIZER;
-		}
-
-		return null;
+		return (Serializer<T>) of(type.getClass());
 	}
 
 	/**
@@ -115,6 +120,25 @@ public class Serializers {
 		}
 	}
 
+	/**
+	 * Check can values of declared type be deserialized on other thread than Bukkit's main thread
+	 * @param type declared type of value, null if it's unknown
+	 * @return true if type is simple or its serializer is thread-safe for it, else false
+	 * @see Serializer#isThreadSafe(TypeDescriptor)
+	 */
+	public static boolean isThreadSafe(TypeDescriptor type) {
+		if (type == null) {
+			return false;
+		}
+
+		if (TypeUtils.isSimpleType(type.getType())) {
+			return true;
+		}
+
+		Serializer<?> serializer = of(type.getType());
+		return serializer != null && serializer.isThreadSafe(type);
+	}
+
 	/**
 	 * Allows to register serializer
 	 * @param clazz class which serializer can process
@@ -125,7 +149,10 @@ public class Serializers {
 			throw new InvalidConfigException("Can't register serializer " + serializer.getClass().getName());
 		}
 
-		SERIALIZERS.put(clazz, serializer);
+		synchronized (REGISTERED) {
+			REGISTERED.put(clazz, serializer);
+			generation++;
+		}
 	}
 
 	/**
@@ -133,6 +160,77 @@ public class Serializers {
 	 * @param clazz type which you want to unregister
 	 */
 	public static void unregister(Class<?> clazz) {
-		SERIALIZERS.remove(clazz);
+		synchronized (REGISTERED) {
+			REGISTERED.remove(clazz);
+			generation++;
+		}
+	}
+
+	/**
+	 * Returns generation of registered serializers, it changes with every <code>register()</code> and <code>unregister()</code>.
+	 * Allows serializers to invalidate their own caches of resolved serializers
+	 * @return current generation
+	 */
+	public static int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Resolves serializer for class, without cache
+	 * @param clazz class for which you want to get serializer
+	 * @return serializer for {@param clazz}, null if it does not exist
+	 */
+	private static Serializer<?> resolve(Class<?> clazz) {
+		synchronized (REGISTERED) {
+			Set<Class<?>> visited = new HashSet<>();
+			Deque<Class<?>> queue = new ArrayDeque<>();
+			queue.add(clazz);
+
+			while (!queue.isEmpty()) {
+				Class<?> current = queue.poll();
+				if (!visited.add(current)) {
+					continue;
+				}
+
+				Serializer<?> serializer = REGISTERED.get(current);
+				if (serializer != null) {
+					return serializer;
+				}
+
+				if (current.getSuperclass() != null) {
+					queue.add(current.getSuperclass());
+				}
+
+				Collections.addAll(queue, current.getInterfaces());
+			}
+		}
+
+		if (TypeUtils.isPrimitiveArray(clazz)) {
+			return UNIVERSAL_PRIMITIVE_ARRAY_SERIALIZER;
+		}
+
+		if (clazz.isArray()) {
+			return UNIVERSAL_ARRAY_SERIALIZER;
+		}
+
+		if (Serializable.class.isAssignableFrom(clazz)) {
+			return UNIVERSAL_OBJECT_SERIALIZER;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Serializer resolved for class in given generation of registered serializers
+	 */
+	private static final class Resolution {
+
+		private final int generation;
+		private final Serializer<?> serializer;
+
+		private Resolution(int generation, Serializer<?> serializer) {
+			this.generation = generation;
+			this.serializer = serializer;
+		}
 	}
 }
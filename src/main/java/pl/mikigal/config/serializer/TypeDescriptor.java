@@ -0,0 +1,122 @@
+package pl.mikigal.config.serializer;
+
+import java.lang.reflect.*;
+import java.util.Arrays;
+
+/**
+ * Declared type of value, with its generic arguments and component of array resolved recursively.
+ * It's created once from generic signature of config's getter or object's field and passed to serializers,
+ * so they don't have to infer types from elements or store names of classes in config
+ * @see Serializer#deserialize(String, TypeDescriptor, pl.mikigal.config.BukkitConfiguration)
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public final class TypeDescriptor {
+
+	private static final TypeDescriptor[] NO_ARGUMENTS = new TypeDescriptor[0];
+
+	private final Class<?> type;
+	private final TypeDescriptor[] arguments;
+	private final TypeDescriptor component;
+
+	private TypeDescriptor(Class<?> type, TypeDescriptor[] arguments, TypeDescriptor component) {
+		this.type = type;
+		this.arguments = arguments;
+		this.component = component;
+	}
+
+	/**
+	 * Creates descriptor of type. Wildcards and type variables are resolved to their upper bound
+	 * @param type type from generic signature, e.g. <code>Method.getGenericReturnType()</code>
+	 * @return descriptor of {@param type}
+	 */
+	public static TypeDescriptor of(Type type) {
+		if (type instanceof Class) {
+			Class<?> clazz = (Class<?>) type;
+			return new TypeDescriptor(clazz, NO_ARGUMENTS, clazz.isArray() ? of(clazz.getComponentType()) : null);
+		}
+
+		if (type instanceof ParameterizedType) {
+			Type[] actual = ((ParameterizedType) type).getActualTypeArguments();
+			TypeDescriptor[] arguments = new TypeDescriptor[actual.length];
+			for (int i = 0; i < actual.length; i++) {
+				arguments[i] = of(actual[i]);
+			}
+
+			return new TypeDescriptor((Class<?>) ((ParameterizedType) type).getRawType(), arguments, null);
+		}
+
+		if (type instanceof GenericArrayType) {
+			TypeDescriptor component = of(((GenericArrayType) type).getGenericComponentType());
+			return new TypeDescriptor(Array.newInstance(component.type, 0).getClass(), NO_ARGUMENTS, component);
+		}
+
+		if (type instanceof WildcardType) {
+			return of(((WildcardType) type).getUpperBounds()[0]);
+		}
+
+		if (type instanceof TypeVariable) {
+			return of(((TypeVariable<?>) type).getBounds()[0]);
+		}
+
+		throw new IllegalArgumentException("Unsupported type: " + type);
+	}
+
+	/**
+	 * Returns raw class of type
+	 * @return raw class of type
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * Allows to get generic argument of type, e.g. 0 for element of Collection or 1 for value of Map
+	 * @param index index of argument
+	 * @return descriptor of argument, null if type was declared without it
+	 */
+	public TypeDescriptor getArgument(int index) {
+		return index < this.arguments.length ? this.arguments[index] : null;
+	}
+
+	/**
+	 * Returns component of array type
+	 * @return descriptor of array's component, null if type is not array
+	 */
+	public TypeDescriptor getComponent() {
+		return component;
+	}
+
+	@Override
+	public String toString() {
+		if (this.component != null) {
+			return this.component + "[]";
+		}
+
+		if (this.arguments.length == 0) {
+			return this.type.getName();
+		}
+
+		StringBuilder builder = new StringBuilder(this.type.getName()).append('<');
+		for (int i = 0; i < this.arguments.length; i++) {
+			builder.append(i == 0 ? "" : ", ").append(this.arguments[i]);
+		}
+
+		return builder.append('>').toString();
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (!(object instanceof TypeDescriptor)) {
+			return false;
+		}
+
+		TypeDescriptor other = (TypeDescriptor) object;
+		return this.type.equals(other.type) && Arrays.equals(this.arguments, other.arguments);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * this.type.hashCode() + Arrays.hashCode(this.arguments);
+	}
+}
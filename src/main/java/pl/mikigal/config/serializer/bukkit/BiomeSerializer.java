@@ -2,7 +2,10 @@ package pl.mikigal.config.serializer.bukkit;
 
 import org.bukkit.block.Biome;
 import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.TypeDescriptor;
 
 /**
  * Built-in serializer for Biome
@@ -15,11 +18,21 @@ public class BiomeSerializer extends Serializer<Biome> {
 
 	@Override
 	protected void saveObject(String path, Biome object, BukkitConfiguration configuration) {
-		configuration.set(path, object.toString());
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, Biome object, TypeDescriptor type) {
+		node.setValue(object.toString());
 	}
 
 	@Override
 	public Biome deserialize(String path, BukkitConfiguration configuration) {
-		return Biome.valueOf(configuration.getString(path));
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public Biome deserialize(ConfigNode node, TypeDescriptor type) {
+		return Biome.valueOf(node.asString());
 	}
 }
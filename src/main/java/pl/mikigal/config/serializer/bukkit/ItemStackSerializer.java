@@ -1,14 +1,16 @@
 package pl.mikigal.config.serializer.bukkit;
 
 import org.bukkit.Material;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import pl.mikigal.config.BukkitConfiguration;
 import pl.mikigal.config.exception.InvalidConfigFileException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
 import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
 import pl.mikigal.config.util.ConversionUtils;
 
 import java.util.ArrayList;
@@ -26,14 +28,19 @@ public class ItemStackSerializer extends Serializer<ItemStack> {
 
 	@Override
 	protected void saveObject(String path, ItemStack object, BukkitConfiguration configuration) {
-		configuration.set(path + ".material", object.getType().toString());
-		configuration.set(path + ".amount", object.getAmount());
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, ItemStack object, TypeDescriptor type) {
+		node.set("material", object.getType().toString());
+		node.set("amount", object.getAmount());
 		if (object.getDurability() != 0) {
-			configuration.set(path + ".durability", object.getDurability());
+			node.set("durability", object.getDurability());
 		}
 
 		for (Map.Entry<Enchantment, Integer> entry : object.getEnchantments().entrySet()) {
-			configuration.set(path + ".enchantments." + entry.getKey().getName(), entry.getValue());
+			node.child("enchantments").set(entry.getKey().getName(), entry.getValue());
 		}
 
 		ItemMeta itemMeta = object.getItemMeta();
@@ -42,7 +49,7 @@ public class ItemStackSerializer extends Serializer<ItemStack> {
 		}
 
 		if (itemMeta.getDisplayName() != null) {
-			configuration.set(path + ".name", itemMeta.getDisplayName().replace("§", "&"));
+			node.set("name", itemMeta.getDisplayName().replace("§", "&"));
 		}
 
 		if (itemMeta.getLore() != null && itemMeta.getLore().size() != 0) {
@@ -51,7 +58,7 @@ public class ItemStackSerializer extends Serializer<ItemStack> {
 				raw.add(line.replace("§", "&"));
 			}
 
-			configuration.set(path + ".lore", raw);
+			node.set("lore", raw);
 		}
 
 		object.setItemMeta(itemMeta);
@@ -59,26 +66,29 @@ public class ItemStackSerializer extends Serializer<ItemStack> {
 
 	@Override
 	public ItemStack deserialize(String path, BukkitConfiguration configuration) {
-		ConfigurationSection section = configuration.getConfigurationSection(path);
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
 
-		String rawMaterial = section.getString("material");
+	@Override
+	public ItemStack deserialize(ConfigNode node, TypeDescriptor type) {
+		String rawMaterial = node.getString("material");
 		if (rawMaterial == null) {
-			throw new InvalidConfigFileException("Invalid material (" + rawMaterial + ") in ItemStack (path: " + section.getName() + ")");
+			throw new InvalidConfigFileException("Invalid material (" + rawMaterial + ") in ItemStack (path: " + node.getPath() + ")");
 		}
 
 		Material material = Material.getMaterial(rawMaterial);
 		if (material == null) {
-			throw new InvalidConfigFileException("Invalid material (" + rawMaterial + ") in ItemStack (path: " + section.getName() + ")");
+			throw new InvalidConfigFileException("Invalid material (" + rawMaterial + ") in ItemStack (path: " + node.getPath() + ")");
 		}
 
-		int amount = section.contains("amount") ? section.getInt("amount") : 1;
-		short durability = section.contains("durability") ? (short) section.getInt("durability") : 0;
-		String name = section.getString("name");
+		int amount = node.getInt("amount", 1);
+		short durability = (short) node.getInt("durability", 0);
+		String name = node.getString("name");
 
-		boolean hasLore = section.getConfigurationSection("lore") != null &&
-				section.getConfigurationSection("lore").getString("structure") != null;
+		ConfigNode loreNode = node.child("lore");
+		boolean hasLore = loreNode.isSection() && loreNode.getString("structure") != null;
 		List<String> lore = hasLore ?
-				Serializers.of(List.class).deserialize(path + ".lore", configuration) :
+				Serializers.of(List.class).deserialize(loreNode, null) :
 				new ArrayList<>();
 
 		ItemStack itemStack = new ItemStack(material, amount, durability);
@@ -93,11 +103,9 @@ public class ItemStackSerializer extends Serializer<ItemStack> {
 
 		itemStack.setItemMeta(itemMeta);
 
-		if (section.contains("enchantments")) {
-			ConfigurationSection enchantments = section.getConfigurationSection("enchantments");
-			for (String key : enchantments.getKeys(false)) {
-				itemStack.addUnsafeEnchantment(Enchantment.getByName(key), enchantments.getInt(key));
-			}
+		ConfigNode enchantments = node.child("enchantments");
+		for (String key : enchantments.getKeys()) {
+			itemStack.addUnsafeEnchantment(Enchantment.getByName(key), enchantments.getInt(key, 0));
 		}
 
 		return itemStack;
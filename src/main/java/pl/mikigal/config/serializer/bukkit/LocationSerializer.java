@@ -3,10 +3,12 @@ package pl.mikigal.config.serializer.bukkit;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
-import org.bukkit.configuration.ConfigurationSection;
 import pl.mikigal.config.BukkitConfiguration;
 import pl.mikigal.config.exception.InvalidConfigFileException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.TypeDescriptor;
 import pl.mikigal.config.util.ConversionUtils;
 
 /**
@@ -20,28 +22,37 @@ public class LocationSerializer extends Serializer<Location> {
 
 	@Override
 	protected void saveObject(String path, Location object, BukkitConfiguration configuration) {
-		configuration.set(path + ".world", object.getWorld().getName());
-		configuration.set(path + ".x", ConversionUtils.round(object.getX()));
-		configuration.set(path + ".y", ConversionUtils.round(object.getY()));
-		configuration.set(path + ".z", ConversionUtils.round(object.getZ()));
-		configuration.set(path + ".yaw", ConversionUtils.round(object.getYaw()));
-		configuration.set(path + ".pitch", ConversionUtils.round(object.getPitch()));
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, Location object, TypeDescriptor type) {
+		node.set("world", object.getWorld().getName())
+				.set("x", ConversionUtils.round(object.getX()))
+				.set("y", ConversionUtils.round(object.getY()))
+				.set("z", ConversionUtils.round(object.getZ()))
+				.set("yaw", ConversionUtils.round(object.getYaw()))
+				.set("pitch", ConversionUtils.round(object.getPitch()));
 	}
 
 	@Override
 	public Location deserialize(String path, BukkitConfiguration configuration) {
-		ConfigurationSection section = configuration.getConfigurationSection(path);
-		World world = Bukkit.getWorld(section.getString("world"));
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public Location deserialize(ConfigNode node, TypeDescriptor type) {
+		World world = Bukkit.getWorld(node.getString("world"));
 		if (world == null) {
-			throw new InvalidConfigFileException("Invalid Location (path: " + section.getName() + "), world " + section.getString("world") + " does not exist");
+			throw new InvalidConfigFileException("Invalid Location (path: " + node.getPath() + "), world " + node.getString("world") + " does not exist");
 		}
 
 		return new Location(
 				world,
-				section.getDouble("x"),
-				section.getDouble("y"),
-				section.getDouble("z"),
-				section.contains("yaw") ? (float) section.getDouble("yaw") : 0,
-				section.contains("pitch") ? (float) section.getDouble("pitch") : 0);
+				node.getDouble("x", 0),
+				node.getDouble("y", 0),
+				node.getDouble("z", 0),
+				(float) node.getDouble("yaw", 0),
+				(float) node.getDouble("pitch", 0));
 	}
 }
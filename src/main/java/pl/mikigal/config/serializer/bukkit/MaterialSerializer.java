@@ -3,7 +3,10 @@ package pl.mikigal.config.serializer.bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.TypeDescriptor;
 
 /**
  * Built-in serializer for Material
@@ -16,11 +19,21 @@ public class MaterialSerializer extends Serializer<Material> {
 
 	@Override
 	protected void saveObject(String path, Material object, BukkitConfiguration configuration) {
-		configuration.set(path, object.toString());
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, Material object, TypeDescriptor type) {
+		node.setValue(object.toString());
 	}
 
 	@Override
 	public Material deserialize(String path, BukkitConfiguration configuration) {
-		return Material.valueOf(configuration.getString(path));
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public Material deserialize(ConfigNode node, TypeDescriptor type) {
+		return Material.valueOf(node.asString());
 	}
 }
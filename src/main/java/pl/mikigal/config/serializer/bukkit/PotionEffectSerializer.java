@@ -4,7 +4,10 @@ import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import pl.mikigal.config.BukkitConfiguration;
 import pl.mikigal.config.exception.InvalidConfigFileException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.TypeDescriptor;
 
 /**
  * Built-in serializer for PotionEffect
@@ -17,19 +20,29 @@ public class PotionEffectSerializer extends Serializer<PotionEffect> {
 
 	@Override
 	protected void saveObject(String path, PotionEffect object, BukkitConfiguration configuration) {
-		configuration.set(path + ".type", object.getType().getName());
-		configuration.set(path + ".duration", object.getDuration());
-		configuration.set(path + ".amplifier", object.getAmplifier());
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, PotionEffect object, TypeDescriptor descriptor) {
+		node.set("type", object.getType().getName())
+				.set("duration", object.getDuration())
+				.set("amplifier", object.getAmplifier());
 	}
 
 	@Override
 	public PotionEffect deserialize(String path, BukkitConfiguration configuration) {
-		PotionEffectType type = PotionEffectType.getByName(configuration.getString(path + ".type"));
-		int duration = configuration.getInt(path + ".duration");
-		int amplifier = configuration.getInt(path + ".amplifier");
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public PotionEffect deserialize(ConfigNode node, TypeDescriptor descriptor) {
+		PotionEffectType type = PotionEffectType.getByName(node.getString("type"));
+		int duration = node.getInt("duration", 0);
+		int amplifier = node.getInt("amplifier", 0);
 
 		if (type == null) {
-			throw new InvalidConfigFileException("Invalid PotionEffect type (path: " + path + ")");
+			throw new InvalidConfigFileException("Invalid PotionEffect type (path: " + node.getPath() + ")");
 		}
 
 		return new PotionEffect(type, duration, amplifier);
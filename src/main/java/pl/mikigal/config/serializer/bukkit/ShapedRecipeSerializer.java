@@ -1,15 +1,17 @@
 package pl.mikigal.config.serializer.bukkit;
 
 import org.bukkit.Material;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ShapedRecipe;
 import org.bukkit.plugin.Plugin;
 import pl.mikigal.config.BukkitConfiguration;
 import pl.mikigal.config.ConfigAPI;
 import pl.mikigal.config.exception.InvalidConfigException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
 import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
 import pl.mikigal.config.util.ReflectionUtils;
 
 import java.lang.reflect.Constructor;
@@ -43,7 +45,12 @@ public class ShapedRecipeSerializer extends Serializer<ShapedRecipe> {
 
 	@Override
 	protected void saveObject(String path, ShapedRecipe object, BukkitConfiguration configuration) {
-		Serializers.of(ItemStack.class).serialize(path + ".result", object.getResult(), configuration);
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, ShapedRecipe object, TypeDescriptor type) {
+		node.child("result").write(object.getResult(), Serializers.of(ItemStack.class), null);
 		List<Character> shape = new ArrayList<>();
 		for (String line : object.getShape()) {
 			for (char ingredient : line.toCharArray()) {
@@ -61,23 +68,28 @@ public class ShapedRecipeSerializer extends Serializer<ShapedRecipe> {
 				throw new InvalidConfigException("Invalid ShapedRecipe, there's no defined ingredient for char '" + ingredient + "'");
 			}
 
-			configuration.set(path + "." + i, object.getIngredientMap().get(ingredient).getType().toString());
+			node.set(String.valueOf(i), object.getIngredientMap().get(ingredient).getType().toString());
 		}
 	}
 
 	@Override
 	public ShapedRecipe deserialize(String path, BukkitConfiguration configuration) {
-		ConfigurationSection section = configuration.getConfigurationSection(path);
-		ItemStack result = Serializers.of(ItemStack.class).deserialize(path + ".result", configuration);
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public ShapedRecipe deserialize(ConfigNode node, TypeDescriptor type) {
+		ItemStack result = node.read("result", Serializers.of(ItemStack.class), null);
 		ShapedRecipe recipe = ReflectionUtils.isNewVersion() ? this.createForNewVersion(result) : new ShapedRecipe(result);
 
 		Map<Integer, Material> ingredients = new HashMap<>();
 		for (int i = 0; i < 9; i++) {
-			if (!section.contains(String.valueOf(i))) {
+			String ingredient = node.getString(String.valueOf(i));
+			if (ingredient == null) {
 				continue;
 			}
 
-			ingredients.put(i, Material.valueOf(section.getString(String.valueOf(i))));
+			ingredients.put(i, Material.valueOf(ingredient));
 		}
 
 		String shape = "";
@@ -0,0 +1,46 @@
+package pl.mikigal.config.serializer.java;
+
+import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.collection.DoubleList;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
+import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+
+/**
+ * Built-in serializer for DoubleList, it's written as YAML list and read directly to <code>double[]</code>
+ * @see DoubleList
+ * @see Serializer
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public class DoubleListSerializer extends Serializer<DoubleList> {
+
+	private static final TypeDescriptor ARRAY_TYPE = TypeDescriptor.of(double[].class);
+
+	@Override
+	protected void saveObject(String path, DoubleList object, BukkitConfiguration configuration) {
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, DoubleList object, TypeDescriptor type) {
+		node.write(object.toDoubleArray(), Serializers.of(double[].class), ARRAY_TYPE);
+	}
+
+	@Override
+	public DoubleList deserialize(String path, BukkitConfiguration configuration) {
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public DoubleList deserialize(ConfigNode node, TypeDescriptor type) {
+		return DoubleList.wrap(Serializers.of(double[].class).deserialize(node, ARRAY_TYPE));
+	}
+
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return true;
+	}
+}
@@ -2,7 +2,10 @@ package pl.mikigal.config.serializer.java;
 
 import pl.mikigal.config.BukkitConfiguration;
 import pl.mikigal.config.exception.InvalidConfigException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.TypeDescriptor;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -18,14 +21,24 @@ public class EnumSerializer extends Serializer<Enum> {
 
     @Override
     protected void saveObject(String path, Enum object, BukkitConfiguration configuration) {
-        configuration.set(path + ".value", object.toString());
-        configuration.set(path + ".type", object.getClass().getName());
+        this.serialize(path, object, configuration);
+    }
+
+    @Override
+    protected void saveObject(ConfigNodeBuilder node, Enum object, TypeDescriptor type) {
+        node.set("value", object.toString())
+                .set("type", object.getClass().getName());
     }
 
     @Override
     public Enum deserialize(String path, BukkitConfiguration configuration) {
-        String value = configuration.getString(path + ".value");
-        String classPath = configuration.getString(path + ".type");
+        return this.deserialize(ConfigNode.of(configuration, path), null);
+    }
+
+    @Override
+    public Enum deserialize(ConfigNode node, TypeDescriptor type) {
+        String value = node.getString("value");
+        String classPath = node.getString("type");
         Class<?> clazz;
         Method valueOfMethod;
 
@@ -42,4 +55,9 @@ public class EnumSerializer extends Serializer<Enum> {
             throw new InvalidConfigException("Value " + value + " is not valid for type " + classPath, e);
         }
     }
+
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return true;
+	}
 }
@@ -0,0 +1,46 @@
+package pl.mikigal.config.serializer.java;
+
+import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.collection.IntList;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
+import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+
+/**
+ * Built-in serializer for IntList, it's written as YAML list and read directly to <code>int[]</code>
+ * @see IntList
+ * @see Serializer
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public class IntListSerializer extends Serializer<IntList> {
+
+	private static final TypeDescriptor ARRAY_TYPE = TypeDescriptor.of(int[].class);
+
+	@Override
+	protected void saveObject(String path, IntList object, BukkitConfiguration configuration) {
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, IntList object, TypeDescriptor type) {
+		node.write(object.toIntArray(), Serializers.of(int[].class), ARRAY_TYPE);
+	}
+
+	@Override
+	public IntList deserialize(String path, BukkitConfiguration configuration) {
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public IntList deserialize(ConfigNode node, TypeDescriptor type) {
+		return IntList.wrap(Serializers.of(int[].class).deserialize(node, ARRAY_TYPE));
+	}
+
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return true;
+	}
+}
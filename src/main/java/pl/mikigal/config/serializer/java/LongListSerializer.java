@@ -0,0 +1,46 @@
+package pl.mikigal.config.serializer.java;
+
+import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.collection.LongList;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
+import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+
+/**
+ * Built-in serializer for LongList, it's written as YAML list and read directly to <code>long[]</code>
+ * @see LongList
+ * @see Serializer
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public class LongListSerializer extends Serializer<LongList> {
+
+	private static final TypeDescriptor ARRAY_TYPE = TypeDescriptor.of(long[].class);
+
+	@Override
+	protected void saveObject(String path, LongList object, BukkitConfiguration configuration) {
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, LongList object, TypeDescriptor type) {
+		node.write(object.toLongArray(), Serializers.of(long[].class), ARRAY_TYPE);
+	}
+
+	@Override
+	public LongList deserialize(String path, BukkitConfiguration configuration) {
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public LongList deserialize(ConfigNode node, TypeDescriptor type) {
+		return LongList.wrap(Serializers.of(long[].class).deserialize(node, ARRAY_TYPE));
+	}
+
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return true;
+	}
+}
@@ -1,7 +1,10 @@
 package pl.mikigal.config.serializer.java;
 
 import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.TypeDescriptor;
 
 import java.util.UUID;
 
@@ -16,11 +19,26 @@ public class UUIDSerializer extends Serializer<UUID> {
 
 	@Override
 	protected void saveObject(String path, UUID object, BukkitConfiguration configuration) {
-		configuration.set(path, object.toString());
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, UUID object, TypeDescriptor type) {
+		node.setValue(object.toString());
 	}
 
 	@Override
 	public UUID deserialize(String path, BukkitConfiguration configuration) {
-		return UUID.fromString(configuration.getString(path));
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public UUID deserialize(ConfigNode node, TypeDescriptor type) {
+		return UUID.fromString(node.asString());
+	}
+
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return true;
 	}
 }
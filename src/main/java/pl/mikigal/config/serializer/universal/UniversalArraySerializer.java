@@ -1,24 +1,57 @@
 package pl.mikigal.config.serializer.universal;
 
-import org.bukkit.configuration.ConfigurationSection;
 import pl.mikigal.config.BukkitConfiguration;
 import pl.mikigal.config.exception.InvalidConfigFileException;
 import pl.mikigal.config.exception.MissingSerializerException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
 import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+import pl.mikigal.config.style.CollectionStyle;
 import pl.mikigal.config.util.ConversionUtils;
 import pl.mikigal.config.util.TypeUtils;
 
 import java.lang.reflect.Array;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 public class UniversalArraySerializer extends Serializer<Object[]> {
 
 	@Override
 	protected void saveObject(String path, Object[] object, BukkitConfiguration configuration) {
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(String path, Object[] object, TypeDescriptor type, BukkitConfiguration configuration) {
+		this.serialize(path, object, type, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, Object[] object, TypeDescriptor type) {
+		TypeDescriptor component = type == null ? null : type.getComponent();
+		if (component == null || !UniversalCollectionSerializer.isSupported(component.getType())) {
+			this.saveInferred(node, object);
+			return;
+		}
+
+		boolean simple = TypeUtils.isSimpleType(component.getType());
+		if (object.length == 0 || (simple && node.getConfiguration().getCollectionStyle() == CollectionStyle.SEQUENCE)) {
+			node.setValue(Arrays.asList(object));
+			return;
+		}
+
+		Serializer<?> serializer = simple ? null : Serializers.of(component.getType());
+		this.saveElements(node, object, simple, serializer, component);
+	}
+
+	/**
+	 * Writes array with name of class of elements, inferred from first element
+	 */
+	private void saveInferred(ConfigNodeBuilder node, Object[] object) {
 		if (object.length == 0) {
 			throw new IllegalStateException("Can't set empty array to config");
 		}
@@ -31,69 +64,136 @@ public class UniversalArraySerializer extends Serializer<Object[]> {
 			throw new MissingSerializerException(generic);
 		}
 
-		configuration.set(path + ".type", generic.getName());
+		node.set("type", generic.getName());
+
+		if (simple && node.getConfiguration().getCollectionStyle() == CollectionStyle.SEQUENCE) {
+			node.setRaw("values", Arrays.asList(object));
+			return;
+		}
+
+		this.saveElements(node, object, simple, serializer, null);
+	}
 
-		int index = 0;
-		for (Object element : object) {
-			if (simple) {
-				configuration.set(path + "." + index, element);
+	private void saveElements(ConfigNodeBuilder node, Object[] object, boolean simple, Serializer<?> serializer, TypeDescriptor component) {
+		for (int index = 0; index < object.length; index++) {
+			String key = String.valueOf(index);
+			if (simple || object[index] == null) {
+				node.set(key, object[index]);
 			}
 			else {
-				serializer.serialize(path + "." + index, element, configuration);
+				node.child(key).write(object[index], serializer, component);
 			}
-
-			index++;
 		}
 	}
 
 	@Override
 	public Object[] deserialize(String path, BukkitConfiguration configuration) {
-		ConfigurationSection section = configuration.getConfigurationSection(path);
-		Set<String> keys = section.getKeys(false);
-		keys.stream()
-				.filter(key -> !key.equals("type"))
-				.forEach(key -> {
-					if (ConversionUtils.asInt(key) == Integer.MIN_VALUE) {
-						throw new InvalidConfigFileException("Invalid index: " + key + " in " + path + " (should be integer)");
-					}
-				});
-
-		String type = section.getString("type");
-		Objects.requireNonNull(type, "Serializer type is not defined for " + path);
-
-		try {
-			Class<?> typeClass = Class.forName(type);
-			boolean simple = TypeUtils.isSimpleType(typeClass);
-
-			Serializer<?> serializer = simple ? null : Serializers.of(typeClass);
-			if (!simple && serializer == null) {
-				throw new MissingSerializerException(type);
+		return this.deserialize(path, null, configuration);
+	}
+
+	@Override
+	public Object[] deserialize(String path, TypeDescriptor type, BukkitConfiguration configuration) {
+		return this.deserialize(ConfigNode.of(configuration, path), type);
+	}
+
+	@Override
+	public Object[] deserialize(ConfigNode node, TypeDescriptor type) {
+		BukkitConfiguration configuration = node.getConfiguration();
+		TypeDescriptor component = type == null ? null : type.getComponent();
+		boolean declared = component != null && UniversalCollectionSerializer.isSupported(component.getType());
+
+		Object raw = node.getValue();
+		if (raw instanceof List) {
+			List<?> values = (List<?>) raw;
+			if (!values.isEmpty() && declared && !TypeUtils.isSimpleType(component.getType())) {
+				throw new InvalidConfigFileException("Elements of " + node.getPath() + " can't be written as list, they are not simple type");
+			}
+
+			if (!values.isEmpty() && configuration.getCollectionStyle() != CollectionStyle.SEQUENCE) {
+				configuration.migrate(node.getPath(), this, type);
+			}
+
+			return values.toArray((Object[]) Array.newInstance(component == null ? Object.class : component.getType(), 0));
+		}
+
+		if (!node.isSection()) {
+			throw new InvalidConfigFileException("Value of " + node.getPath() + " is not a section");
+		}
+
+		String typeRaw = node.getString("type");
+
+		Class<?> typeClass;
+		if (!declared || typeRaw != null) {
+			Objects.requireNonNull(typeRaw, "Serializer type is not defined for " + node.getPath());
+
+			try {
+				typeClass = Class.forName(typeRaw);
+			} catch (ClassNotFoundException e) {
+				throw new RuntimeException(e);
+			}
+
+			if (declared) {
+				// Name of class is not needed anymore
+				configuration.migrate(node.getPath(), this, type);
+			}
+		}
+		else {
+			typeClass = component.getType();
+		}
+
+		boolean simple = TypeUtils.isSimpleType(typeClass);
+		Serializer<?> serializer = simple ? null : Serializers.of(typeClass);
+		if (!simple && serializer == null) {
+			throw new MissingSerializerException(typeClass);
+		}
+
+		Object values = node.get("values");
+		if (values instanceof List) {
+			if (!simple) {
+				throw new InvalidConfigFileException("Elements of " + node.getPath() + " can't be written as list, they are not simple type");
 			}
 
-			int length = Collections.max(keys
-					.stream()
-					.filter(key -> !key.equals("type"))
-					.map(Integer::parseInt)
-					.collect(Collectors.toList())) + 1;
-
-			Object[] array = (Object[]) Array.newInstance(typeClass, length);
-			for (String key : keys) {
-				if (key.equals("type")) {
-					continue;
-				}
-
-				int index = Integer.parseInt(key);
-				if (simple) {
-					array[index] = configuration.get(path + "." + index);
-					continue;
-				}
-
-				array[index] = serializer.deserialize(path + "." + index, configuration);
+			if (configuration.getCollectionStyle() != CollectionStyle.SEQUENCE) {
+				configuration.migrate(node.getPath(), this, type);
 			}
 
-			return array;
-		} catch (ClassNotFoundException e) {
-			throw new RuntimeException(e);
+			return ((List<?>) values).toArray((Object[]) Array.newInstance(typeClass, 0));
 		}
+
+		if (simple && configuration.getCollectionStyle() == CollectionStyle.SEQUENCE) {
+			configuration.migrate(node.getPath(), this, type);
+		}
+
+		Set<String> keys = node.getKeys();
+		String[] elements = new String[keys.size()];
+		int[] indexes = new int[keys.size()];
+		int count = 0;
+		int length = 0;
+		for (String key : keys) {
+			if (key.equals("type")) {
+				continue;
+			}
+
+			int index = ConversionUtils.asInt(key);
+			if (index < 0) {
+				throw new InvalidConfigFileException("Invalid index: " + key + " in " + node.getPath() + " (should be integer)");
+			}
+
+			elements[count] = key;
+			indexes[count++] = index;
+			length = Math.max(length, index + 1);
+		}
+
+		Object[] array = (Object[]) Array.newInstance(typeClass, length);
+		for (int i = 0; i < count; i++) {
+			array[indexes[i]] = simple ? node.get(elements[i]) : serializer.deserialize(node.child(elements[i]), declared ? component : null);
+		}
+
+		return array;
+	}
+
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return type != null && Serializers.isThreadSafe(type.getComponent());
 	}
 }
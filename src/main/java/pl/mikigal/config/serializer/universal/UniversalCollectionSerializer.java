@@ -1,19 +1,26 @@
 package pl.mikigal.config.serializer.universal;
 
-import org.bukkit.configuration.ConfigurationSection;
 import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.exception.InvalidConfigException;
 import pl.mikigal.config.exception.InvalidConfigFileException;
 import pl.mikigal.config.exception.MissingSerializerException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
 import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+import pl.mikigal.config.style.CollectionStyle;
 import pl.mikigal.config.util.ConversionUtils;
 import pl.mikigal.config.util.TypeUtils;
 
-import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
 
 /**
- * Helper built-in serializer for processing Collections
+ * Helper built-in serializer for processing Collections.
+ * Collections of simple types are written as YAML list if SEQUENCE CollectionStyle is selected, else as section with key per element.
+ * If declared type of Collection is known, names of its classes are not written, else they're inferred from elements
+ * and written to <code>structure</code> and <code>type</code> keys
  * @see Collection
  * @see Serializer
  * @since 1.0
@@ -21,8 +28,53 @@ import java.util.*;
  */
 public class UniversalCollectionSerializer extends Serializer<Collection> {
 
+	/**
+	 * Implementations created for declared interfaces, first one assignable to declared type is used
+	 */
+	private static final List<Class<?>> IMPLEMENTATIONS = Arrays.asList(
+			ArrayList.class, LinkedHashSet.class, TreeSet.class, ArrayDeque.class);
+
 	@Override
 	protected void saveObject(String path, Collection object, BukkitConfiguration configuration) {
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(String path, Collection object, TypeDescriptor type, BukkitConfiguration configuration) {
+		this.serialize(path, object, type, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, Collection object, TypeDescriptor type) {
+		TypeDescriptor element = type == null ? null : type.getArgument(0);
+		if (element == null || !isSupported(element.getType())) {
+			this.saveInferred(node, object);
+			return;
+		}
+
+		boolean simple = TypeUtils.isSimpleType(element.getType());
+		if (object.isEmpty() || (simple && node.getConfiguration().getCollectionStyle() == CollectionStyle.SEQUENCE)) {
+			node.setValue(new ArrayList<>(object));
+			return;
+		}
+
+		Serializer<?> serializer = simple ? null : Serializers.of(element.getType());
+		int index = 0;
+		for (Object value : object) {
+			String key = String.valueOf(index++);
+			if (simple || value == null) {
+				node.set(key, value);
+			}
+			else {
+				node.child(key).write(value, serializer, element);
+			}
+		}
+	}
+
+	/**
+	 * Writes Collection with names of its class and class of elements, inferred from first element
+	 */
+	private void saveInferred(ConfigNodeBuilder node, Collection object) {
 		if (object.size() == 0) {
 			// Java's generics suck so I can't check generic type of empty Collection
 			throw new IllegalStateException("Can't set empty Collection to config");
@@ -41,59 +93,183 @@ public class UniversalCollectionSerializer extends Serializer<Collection> {
 			throw new MissingSerializerException(generic);
 		}
 
-		configuration.set(path + ".structure", object.getClass().getName());
-		configuration.set(path + ".type", generic.getName());
+		node.set("structure", object.getClass().getName());
+		node.set("type", generic.getName());
+
+		if (simple && node.getConfiguration().getCollectionStyle() == CollectionStyle.SEQUENCE) {
+			node.setRaw("values", new ArrayList<>(object));
+			return;
+		}
 
 		int index = 0;
 		for (Object element : object) {
-			if (simple) {
-				configuration.set(path + "." + index, element);
+			String key = String.valueOf(index++);
+			if (simple || element == null) {
+				node.set(key, element);
 			}
 			else {
-				serializer.serialize(path + "." + index, element, configuration);
+				node.child(key).write(element, serializer, null);
 			}
-
-			index++;
 		}
 	}
 
 	@Override
 	public Collection<?> deserialize(String path, BukkitConfiguration configuration) {
-		ConfigurationSection section = configuration.getConfigurationSection(path);
+		return this.deserialize(path, null, configuration);
+	}
 
-		String collectionRaw = section.getString("structure");
-		String type = section.getString("type");
+	@Override
+	public Collection<?> deserialize(String path, TypeDescriptor type, BukkitConfiguration configuration) {
+		return this.deserialize(ConfigNode.of(configuration, path), type);
+	}
 
-		Objects.requireNonNull(collectionRaw, "Collection type is not defined for " + path);
-		Objects.requireNonNull(type, "Serializer type is not defined for " + path);
+	@Override
+	public Collection<?> deserialize(ConfigNode node, TypeDescriptor type) {
+		BukkitConfiguration configuration = node.getConfiguration();
+		TypeDescriptor element = type == null ? null : type.getArgument(0);
+		boolean declared = element != null && isSupported(element.getType());
 
-		try {
-			Class<?> collectionClass = Class.forName(collectionRaw);
-			Class<?> typeClass = Class.forName(type);
-			boolean simple = TypeUtils.isSimpleType(typeClass);
+		Object raw = node.getValue();
+		if (raw instanceof List) {
+			List<?> values = (List<?>) raw;
+			if (!values.isEmpty() && declared && !TypeUtils.isSimpleType(element.getType())) {
+				throw new InvalidConfigFileException("Elements of " + node.getPath() + " can't be written as list, they are not simple type");
+			}
 
-			Serializer<?> serializer = simple ? null : Serializers.of(typeClass);
-			if (!simple && serializer == null) {
-				throw new MissingSerializerException(type);
+			if (!values.isEmpty() && configuration.getCollectionStyle() != CollectionStyle.SEQUENCE) {
+				configuration.migrate(node.getPath(), this, type);
 			}
 
-			Collection collection = (Collection) collectionClass.newInstance();
-			for (String index : section.getKeys(false)) {
-				if (index.equals("type") || index.equals("structure")) {
-					continue;
-				}
+			Collection collection = createCollection(type == null ? ArrayList.class : type.getType());
+			addAll(collection, values, declared ? element.getType() : null);
+			return collection;
+		}
+
+		if (!node.isSection()) {
+			throw new InvalidConfigFileException("Value of " + node.getPath() + " is not a section");
+		}
+
+		String collectionRaw = node.getString("structure");
+		String typeRaw = node.getString("type");
 
-				if (simple) {
-					collection.add(configuration.get(path + "." + index));
-					continue;
-				}
+		Class<?> collectionClass;
+		Class<?> typeClass;
+		if (!declared || (collectionRaw != null && typeRaw != null)) {
+			Objects.requireNonNull(collectionRaw, "Collection type is not defined for " + node.getPath());
+			Objects.requireNonNull(typeRaw, "Serializer type is not defined for " + node.getPath());
 
-				collection.add(serializer.deserialize(path + "." + index, configuration));
+			try {
+				collectionClass = Class.forName(collectionRaw);
+				typeClass = Class.forName(typeRaw);
+			} catch (ClassNotFoundException e) {
+				throw new RuntimeException(e);
 			}
 
+			if (declared) {
+				// Names of classes are not needed anymore
+				configuration.migrate(node.getPath(), this, type);
+			}
+		}
+		else {
+			collectionClass = type.getType();
+			typeClass = element.getType();
+		}
+
+		boolean simple = TypeUtils.isSimpleType(typeClass);
+		Serializer<?> serializer = simple ? null : Serializers.of(typeClass);
+		if (!simple && serializer == null) {
+			throw new MissingSerializerException(typeClass);
+		}
+
+		// Type written to file is inferred from first element, elements of e.g. List<Number> can be of other types
+		Class<?> elementClass = declared ? element.getType() : null;
+		Collection collection = createCollection(collectionClass);
+		Object values = node.get("values");
+		if (values instanceof List) {
+			if (!simple) {
+				throw new InvalidConfigFileException("Elements of " + node.getPath() + " can't be written as list, they are not simple type");
+			}
+
+			if (configuration.getCollectionStyle() != CollectionStyle.SEQUENCE) {
+				configuration.migrate(node.getPath(), this, type);
+			}
+
+			addAll(collection, (List<?>) values, elementClass);
 			return collection;
-		} catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
-			throw new RuntimeException(e);
 		}
+
+		if (simple && configuration.getCollectionStyle() == CollectionStyle.SEQUENCE) {
+			configuration.migrate(node.getPath(), this, type);
+		}
+
+		for (String index : node.getKeys()) {
+			if (index.equals("type") || index.equals("structure")) {
+				continue;
+			}
+
+			if (simple) {
+				collection.add(elementClass == null ? node.get(index) : ConversionUtils.convertNumber(node.get(index), elementClass));
+				continue;
+			}
+
+			collection.add(serializer.deserialize(node.child(index), declared ? element : null));
+		}
+
+		return collection;
+	}
+
+	/**
+	 * Adds simple elements loaded from file, numbers are converted to type of elements
+	 * @param collection destination collection
+	 * @param values elements loaded from file
+	 * @param type declared type of elements, null if it's not known
+	 */
+	private static void addAll(Collection collection, List<?> values, Class<?> type) {
+		if (type == null) {
+			collection.addAll(values);
+			return;
+		}
+
+		for (Object value : values) {
+			collection.add(ConversionUtils.convertNumber(value, type));
+		}
+	}
+
+	/**
+	 * Check can elements of given declared type be written without name of their class.
+	 * Elements of types like Number or Object can be of different simple types, so their types are inferred from elements
+	 * @param type declared type of elements
+	 * @return true if type is simple or has serializer, else false
+	 */
+	static boolean isSupported(Class<?> type) {
+		return TypeUtils.isSimpleType(type) || (!TypeUtils.isSimpleSupertype(type) && Serializers.of(type) != null);
+	}
+
+	/**
+	 * Creates empty Collection of given type, declared interfaces are replaced by their implementation
+	 * @param type declared or written type of Collection
+	 * @return new instance of Collection
+	 */
+	private static Collection createCollection(Class<?> type) {
+		if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+			try {
+				return (Collection) type.newInstance();
+			} catch (InstantiationException | IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		for (Class<?> implementation : IMPLEMENTATIONS) {
+			if (type.isAssignableFrom(implementation)) {
+				return createCollection(implementation);
+			}
+		}
+
+		throw new InvalidConfigException("Could not create instance of Collection " + type.getName());
+	}
+
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return type != null && Serializers.isThreadSafe(type.getArgument(0));
 	}
 }
@@ -1,17 +1,23 @@
 package pl.mikigal.config.serializer.universal;
 
-import org.bukkit.configuration.ConfigurationSection;
 import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.exception.InvalidConfigException;
 import pl.mikigal.config.exception.InvalidConfigFileException;
 import pl.mikigal.config.exception.MissingSerializerException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
 import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
 import pl.mikigal.config.util.TypeUtils;
 
+import java.lang.reflect.Modifier;
 import java.util.*;
 
 /**
- * Helper built-in serializer for processing Map
+ * Helper built-in serializer for processing Map.
+ * If declared type of Map is known, names of its classes are not written, else they're inferred from entries
+ * and written to <code>structure</code> and <code>type</code> keys
  * @see Map
  * @see Serializer
  * @since 1.0
@@ -21,6 +27,36 @@ public class UniversalMapSerializer extends Serializer<Map> {
 
 	@Override
 	protected void saveObject(String path, Map object, BukkitConfiguration configuration) {
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(String path, Map object, TypeDescriptor type, BukkitConfiguration configuration) {
+		this.serialize(path, object, type, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, Map object, TypeDescriptor type) {
+		TypeDescriptor value = type == null ? null : type.getArgument(1);
+		if (value == null || !UniversalCollectionSerializer.isSupported(value.getType())) {
+			this.saveInferred(node, object);
+			return;
+		}
+
+		if (object.isEmpty()) {
+			node.setValue(new LinkedHashMap<>());
+			return;
+		}
+
+		boolean simple = TypeUtils.isSimpleType(value.getType());
+		Serializer<?> serializer = simple ? null : Serializers.of(value.getType());
+		this.saveEntries(node, object, simple, serializer, value);
+	}
+
+	/**
+	 * Writes Map with names of its class and class of values, inferred from first entry
+	 */
+	private void saveInferred(ConfigNodeBuilder node, Map object) {
 		if (object.size() == 0) {
 			// Java's generics suck so I can't check generic type of empty Map
 			throw new IllegalStateException("Can't set empty Map to config");
@@ -39,56 +75,127 @@ public class UniversalMapSerializer extends Serializer<Map> {
 			throw new MissingSerializerException(generic);
 		}
 
-		configuration.set(path + ".structure", object.getClass().getName());
-		configuration.set(path + ".type", generic.getName());
+		node.set("structure", object.getClass().getName());
+		node.set("type", generic.getName());
+		this.saveEntries(node, object, simple, serializer, null);
+	}
 
-		for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
-			if (simple) {
-				configuration.set(path + "." + entry.getKey(), entry.getValue());
+	private void saveEntries(ConfigNodeBuilder node, Map<?, ?> object, boolean simple, Serializer<?> serializer, TypeDescriptor value) {
+		for (Map.Entry<?, ?> entry : object.entrySet()) {
+			String key = String.valueOf(entry.getKey());
+			if (simple || entry.getValue() == null) {
+				node.set(key, entry.getValue());
 				continue;
 			}
 
-			serializer.serialize(path + "." + entry.getKey(), entry.getValue(), configuration);
+			node.child(key).write(entry.getValue(), serializer, value);
 		}
 	}
 
 	@Override
 	public Map<?, ?> deserialize(String path, BukkitConfiguration configuration) {
-		ConfigurationSection section = configuration.getConfigurationSection(path);
+		return this.deserialize(path, null, configuration);
+	}
+
+	@Override
+	public Map<?, ?> deserialize(String path, TypeDescriptor type, BukkitConfiguration configuration) {
+		return this.deserialize(ConfigNode.of(configuration, path), type);
+	}
 
-		String mapRaw = section.getString("structure");
-		String type = section.getString("type");
+	@Override
+	public Map<?, ?> deserialize(ConfigNode node, TypeDescriptor type) {
+		TypeDescriptor value = type == null ? null : type.getArgument(1);
+		boolean declared = value != null && UniversalCollectionSerializer.isSupported(value.getType());
+
+		Object raw = node.getValue();
+		if (raw instanceof Map && declared) {
+			// Empty Map which was not saved yet
+			Map map = createMap(type.getType());
+			map.putAll((Map<?, ?>) raw);
+			return map;
+		}
 
-		Objects.requireNonNull(mapRaw, "Collection type is not defined for " + path);
-		Objects.requireNonNull(type, "Serializer type is not defined for " + path);
+		if (!node.isSection()) {
+			throw new InvalidConfigFileException("Value of " + node.getPath() + " is not a section");
+		}
+
+		String mapRaw = node.getString("structure");
+		String typeRaw = node.getString("type");
 
-		try {
-			Class<?> mapClass = Class.forName(mapRaw);
-			Class<?> typeClass = Class.forName(type);
-			boolean simple = TypeUtils.isSimpleType(typeClass);
+		Class<?> mapClass;
+		Class<?> typeClass;
+		if (!declared || (mapRaw != null && typeRaw != null)) {
+			Objects.requireNonNull(mapRaw, "Collection type is not defined for " + node.getPath());
+			Objects.requireNonNull(typeRaw, "Serializer type is not defined for " + node.getPath());
 
-			Serializer<?> serializer = simple ? null : Serializers.of(typeClass);
-			if (!simple && serializer == null) {
-				throw new MissingSerializerException(type);
+			try {
+				mapClass = Class.forName(mapRaw);
+				typeClass = Class.forName(typeRaw);
+			} catch (ClassNotFoundException e) {
+				throw new RuntimeException(e);
 			}
 
-			Map map = (Map) mapClass.newInstance();
-			for (String key : section.getKeys(false)) {
-				if (key.equals("type") || key.equals("structure")) {
-					continue;
-				}
+			if (declared) {
+				// Names of classes are not needed anymore
+				node.getConfiguration().migrate(node.getPath(), this, type);
+			}
+		}
+		else {
+			mapClass = type.getType();
+			typeClass = value.getType();
+		}
 
-				if (simple) {
-					map.put(key, configuration.get(path + "." + key));
-					continue;
-				}
+		boolean simple = TypeUtils.isSimpleType(typeClass);
+		Serializer<?> serializer = simple ? null : Serializers.of(typeClass);
+		if (!simple && serializer == null) {
+			throw new MissingSerializerException(typeClass);
+		}
 
-				map.put(key, serializer.deserialize(path + "." + key, configuration));
+		Map map = createMap(mapClass);
+		boolean metadata = mapRaw != null && typeRaw != null;
+		for (String key : node.getKeys()) {
+			if (metadata && (key.equals("type") || key.equals("structure"))) {
+				continue;
 			}
 
-			return map;
-		} catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
-			throw new RuntimeException(e);
+			if (simple) {
+				map.put(key, node.get(key));
+				continue;
+			}
+
+			map.put(key, serializer.deserialize(node.child(key), declared ? value : null));
 		}
+
+		return map;
+	}
+
+	/**
+	 * Creates empty Map of given type, declared interfaces are replaced by their implementation
+	 * @param type declared or written type of Map
+	 * @return new instance of Map
+	 */
+	private static Map createMap(Class<?> type) {
+		if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+			try {
+				return (Map) type.newInstance();
+			} catch (InstantiationException | IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		if (type.isAssignableFrom(LinkedHashMap.class)) {
+			return new LinkedHashMap();
+		}
+
+		if (type.isAssignableFrom(TreeMap.class)) {
+			return new TreeMap();
+		}
+
+		throw new InvalidConfigException("Could not create instance of Map " + type.getName());
+	}
+
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return type != null && Serializers.isThreadSafe(type.getArgument(1));
 	}
 }
@@ -1,21 +1,38 @@
 package pl.mikigal.config.serializer.universal;
 
 import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.annotation.ConfigConstructor;
 import pl.mikigal.config.annotation.ConfigOptional;
 import pl.mikigal.config.exception.InvalidConfigException;
 import pl.mikigal.config.exception.MissingSerializerException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
 import pl.mikigal.config.serializer.Serializer;
 import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+import pl.mikigal.config.style.NameStyle;
+import pl.mikigal.config.util.ReflectionUtils;
 import pl.mikigal.config.util.TypeUtils;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Helper built-in serializer for custom objects which implemenet Serializable interface.
  * It uses reflections to serialize all fields from given Object, which are not transient and static.
- * Class must have default constructor (no-args).
+ * Class must have default constructor (no-args), constructor with ConfigConstructor or be a record.
+ * Reflection is used only once per class, to create plan with handles of constructor and fields
  * @see Serializer
  * @see Serializable
  * @since 1.1.8
@@ -23,53 +40,68 @@ import java.lang.reflect.Modifier;
  */
 public class UniversalObjectSerializer extends Serializer<Serializable> {
 
+	/**
+	 * Plans of serialization per class
+	 */
+	private static final ClassValue<ObjectPlan> PLANS = new ClassValue<ObjectPlan>() {
+		@Override
+		protected ObjectPlan computeValue(Class<?> type) {
+			return new ObjectPlan(type);
+		}
+	};
+
+	/**
+	 * Classes checked by isThreadSafe() on current thread
+	 */
+	private static final ThreadLocal<Set<Class<?>>> CHECKING = ThreadLocal.withInitial(HashSet::new);
+
 	@Override
 	protected void saveObject(String path, Serializable object, BukkitConfiguration configuration) {
-		this.validateDefaultConstructor(object.getClass());
+		this.serialize(path, object, configuration);
+	}
 
-		try {
-			for (Field field : object.getClass().getDeclaredFields()) {
-				if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
-					continue;
-				}
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, Serializable object, TypeDescriptor type) {
+		ObjectPlan plan = getPlan(object.getClass());
+		int style = node.getConfiguration().getNameStyle().ordinal();
 
-				field.setAccessible(true);
-				Object value = field.get(object);
-				
-				// Check if field is optional
-				if (field.isAnnotationPresent(ConfigOptional.class)) {
-				    field.setAccessible(false);
-				    if (value == null) {
-						continue;
-					}
-				}
+		for (FieldPlan field : plan.fields) {
+			Object value;
+			try {
+				value = (Object) field.getter.invokeExact((Object) object);
+			} catch (Throwable throwable) {
+				throw new RuntimeException("An error occurred while serializing class '" + object.getClass().getName() + "'", throwable);
+			}
 
-				try {
-					if (TypeUtils.isSimpleType(field.getType())) {
-						configuration.set(path + "." + configuration.getNameStyle().format(field.getName()), value);
-					}
-					else {
-						Serializer<?> serializer = Serializers.of(field.getType());
-						if (serializer == null) {
-							throw new MissingSerializerException(field.getType());
-						}
+			// Check if field is optional
+			if (field.optional && value == null) {
+				continue;
+			}
 
-						serializer.serialize(path + "." + configuration.getNameStyle().format(field.getName()), value, configuration);
-					}
-				} catch (Exception e) {
-					throw new RuntimeException("An error occurred while serializing field '" + field.getName() + "' from class '" + object.getClass().getName() + "'", e);
+			try {
+				String key = field.keys[style];
+				if (field.simple || value == null) {
+					node.set(key, value);
 				}
+				else {
+					node.child(key).write(value, field.getSerializer(), field.descriptor);
+				}
+			} catch (Exception e) {
+				throw new RuntimeException("An error occurred while serializing field '" + field.name + "' from class '" + object.getClass().getName() + "'", e);
 			}
-
-			configuration.set(path + "." + configuration.getNameStyle().format("type"), object.getClass().getName());
-		} catch (IllegalAccessException e) {
-			throw new RuntimeException("An error occurred while serializing class '" + object.getClass().getName() + "'", e);
 		}
+
+		node.set(plan.typeKeys[style], object.getClass().getName());
 	}
 
 	@Override
 	public Serializable deserialize(String path, BukkitConfiguration configuration) {
-		String classPath = configuration.getString(path + ".type");
+		return this.deserialize(ConfigNode.of(configuration, path), null);
+	}
+
+	@Override
+	public Serializable deserialize(ConfigNode node, TypeDescriptor type) {
+		String classPath = node.getString("type");
 		Class<?> clazz;
 
 		try {
@@ -78,60 +110,378 @@ public class UniversalObjectSerializer extends Serializer<Serializable> {
 			throw new RuntimeException("An error occurred while deserializing class '" + classPath + "'", e);
 		}
 
-		this.validateDefaultConstructor(clazz);
 		if (!Serializable.class.isAssignableFrom(clazz)) {
 			throw new RuntimeException("Class " + classPath + " does not implements Serializable");
 		}
 
-		Serializable instance;
+		ObjectPlan plan = getPlan(clazz);
+		int style = node.getConfiguration().getNameStyle().ordinal();
+
+		Object[] values = new Object[plan.fields.length];
+		for (int i = 0; i < plan.fields.length; i++) {
+			FieldPlan field = plan.fields[i];
+			String key = field.keys[style];
+			Object raw = node.get(key);
+
+			// Check if field is optional, object created by default constructor keeps value of field's initializer
+			if (field.optional && raw == null) {
+				if (plan.allArgs) {
+					values[i] = TypeUtils.getDefaultValue(field.type);
+				}
+
+				continue;
+			}
+
+			values[i] = field.simple
+					? field.coerce(raw)
+					: field.getSerializer().deserialize(node.child(key), field.descriptor);
+		}
+
+		Object instance;
 		try {
-			 instance = (Serializable) clazz.newInstance();
-		} catch (InstantiationException | IllegalAccessException e) {
-			throw new RuntimeException("Could not create instance of class (" + classPath + ") with default constructor", e);
+			if (plan.allArgs) {
+				instance = (Object) plan.constructor.invokeExact(values);
+			}
+			else {
+				instance = (Object) plan.constructor.invokeExact();
+				for (int i = 0; i < plan.fields.length; i++) {
+					// Skipped optional fields keep value from constructor
+					if (!plan.fields[i].optional || values[i] != null) {
+						plan.fields[i].setter.invokeExact(instance, values[i]);
+					}
+				}
+			}
+		} catch (Throwable throwable) {
+			throw new RuntimeException("Could not create instance of class (" + classPath + ")", throwable);
+		}
+
+		return (Serializable) instance;
+	}
+
+	/**
+	 * Object is thread-safe if serializers of all its fields are thread-safe. Only declared class is checked,
+	 * so values of abstract types are not thread-safe
+	 */
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		if (type == null || type.getType().isInterface() || Modifier.isAbstract(type.getType().getModifiers())) {
+			return false;
+		}
+
+		Class<?> clazz = type.getType();
+		Set<Class<?>> checking = CHECKING.get();
+		// Class which is already checked by caller is recursive field, it does not change result
+		if (!checking.add(clazz)) {
+			return true;
 		}
 
 		try {
-			for (Field field : clazz.getDeclaredFields()) {
-				if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
-					continue;
+			for (FieldPlan field : getPlan(clazz).fields) {
+				if (!field.simple && !Serializers.isThreadSafe(field.descriptor)) {
+					return false;
 				}
+			}
 
-				field.setAccessible(true);
-				
-				String fullpath = path + "." + configuration.getNameStyle().format(field.getName());
+			return true;
+		} catch (RuntimeException e) {
+			// Invalid class is reported by deserialization
+			return false;
+		} finally {
+			checking.remove(clazz);
+		}
+	}
+
+	/**
+	 * Gets plan of class from cache, plans created before change of registered serializers are recreated
+	 * @param clazz class of object
+	 * @return plan of class
+	 */
+	private static ObjectPlan getPlan(Class<?> clazz) {
+		ObjectPlan plan = PLANS.get(clazz);
+		if (plan.generation != Serializers.getGeneration()) {
+			PLANS.remove(clazz);
+			plan = PLANS.get(clazz);
+		}
 
-				// Check if field is optional
-				if (field.isAnnotationPresent(ConfigOptional.class)) {
-				    if (configuration.get(fullpath) == null){
+		return plan;
+	}
+
+	/**
+	 * Handles of constructor and fields of class, with precomputed keys for every NameStyle.
+	 * Objects are created by default constructor and filled by fields' setters,
+	 * or created in one call of canonical constructor of record or constructor with ConfigConstructor
+	 */
+	private static final class ObjectPlan {
+
+		/**
+		 * Handle of Field.set(Object, Object)
+		 */
+		private static final MethodHandle FIELD_SET;
+
+		static {
+			try {
+				FIELD_SET = MethodHandles.lookup().findVirtual(Field.class, "set",
+						MethodType.methodType(void.class, Object.class, Object.class));
+			} catch (NoSuchMethodException | IllegalAccessException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		private final int generation;
+		private final MethodHandle constructor;
+		private final boolean allArgs;
+		private final FieldPlan[] fields;
+		private final String[] typeKeys;
+
+		private ObjectPlan(Class<?> clazz) {
+			this.generation = Serializers.getGeneration();
+			this.typeKeys = keys("type");
+
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			try {
+				if (ReflectionUtils.isRecord(clazz)) {
+					this.fields = recordFields(lookup, clazz);
+					this.constructor = allArgsConstructor(lookup, clazz.getDeclaredConstructor(types(this.fields)));
+					this.allArgs = true;
+					return;
+				}
+
+				List<FieldPlan> fields = new ArrayList<>();
+				for (Field field : clazz.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
 						continue;
 					}
+
+					field.setAccessible(true);
+					fields.add(new FieldPlan(field, lookup.unreflectGetter(field), null));
 				}
 
-				Class<?> type = field.getType();
-				if (TypeUtils.isSimpleType(type)) {
-					field.set(instance, configuration.get(path + "." + configuration.getNameStyle().format(field.getName())));
+				Constructor<?> configConstructor = findConfigConstructor(clazz);
+				if (configConstructor != null) {
+					this.fields = orderByParameters(fields, configConstructor);
+					this.constructor = allArgsConstructor(lookup, configConstructor);
+					this.allArgs = true;
+					return;
 				}
-				else {
-					Serializer<?> serializer = Serializers.of(field.getType());
-					if (serializer == null) {
-						throw new MissingSerializerException(field.getType());
+
+				for (int i = 0; i < fields.size(); i++) {
+					Field field = clazz.getDeclaredField(fields.get(i).name);
+					field.setAccessible(true);
+					fields.set(i, new FieldPlan(field, lookup.unreflectGetter(field), setter(lookup, field)));
+				}
+
+				Constructor<?> constructor = clazz.getConstructor();
+				constructor.setAccessible(true);
+				this.fields = fields.toArray(new FieldPlan[0]);
+				this.constructor = lookup.unreflectConstructor(constructor)
+						.asType(MethodType.methodType(Object.class));
+				this.allArgs = false;
+			} catch (NoSuchMethodException e) {
+				throw new InvalidConfigException("Class " + clazz.getName() + " does not have a default constructor");
+			} catch (IllegalAccessException | NoSuchFieldException e) {
+				throw new RuntimeException("Could not access constructor or fields of class (" + clazz.getName() + ")", e);
+			}
+		}
+
+		/**
+		 * Creates handle which writes field. Java 8 doesn't create handles writing final fields,
+		 * even if they are accessible, so they are written by Field.set() instead
+		 */
+		private static MethodHandle setter(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+			try {
+				return lookup.unreflectSetter(field);
+			} catch (IllegalAccessException e) {
+				if (!Modifier.isFinal(field.getModifiers())) {
+					throw e;
+				}
+
+				return FIELD_SET.bindTo(field);
+			}
+		}
+
+		/**
+		 * Creates plans of record's components, they are read by accessors
+		 */
+		private static FieldPlan[] recordFields(MethodHandles.Lookup lookup, Class<?> clazz) throws NoSuchFieldException, IllegalAccessException {
+			Method[] accessors = ReflectionUtils.getRecordAccessors(clazz);
+			FieldPlan[] fields = new FieldPlan[accessors.length];
+			for (int i = 0; i < accessors.length; i++) {
+				accessors[i].setAccessible(true);
+				fields[i] = new FieldPlan(clazz.getDeclaredField(accessors[i].getName()), lookup.unreflect(accessors[i]), null);
+			}
+
+			return fields;
+		}
+
+		/**
+		 * Finds constructor marked with ConfigConstructor
+		 * @return constructor, null if class does not have it
+		 */
+		private static Constructor<?> findConfigConstructor(Class<?> clazz) {
+			Constructor<?> found = null;
+			for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+				if (!constructor.isAnnotationPresent(ConfigConstructor.class)) {
+					continue;
+				}
+
+				if (found != null) {
+					throw new InvalidConfigException("Class " + clazz.getName() + " has more than one constructor with @ConfigConstructor");
+				}
+
+				found = constructor;
+			}
+
+			return found;
+		}
+
+		/**
+		 * Orders fields like parameters of constructor. Parameters are matched with fields by name if class was compiled
+		 * with <code>-parameters</code>, else by order of fields' declaration
+		 */
+		private static FieldPlan[] orderByParameters(List<FieldPlan> fields, Constructor<?> constructor) {
+			Parameter[] parameters = constructor.getParameters();
+			if (parameters.length != fields.size()) {
+				throw new InvalidConfigException("Constructor with @ConfigConstructor of class " + constructor.getDeclaringClass().getName()
+						+ " must have parameter for every non-static and non-transient field");
+			}
+
+			FieldPlan[] ordered = new FieldPlan[parameters.length];
+			for (int i = 0; i < parameters.length; i++) {
+				FieldPlan field = fields.get(i);
+				if (parameters[i].isNamePresent()) {
+					field = null;
+					for (FieldPlan candidate : fields) {
+						if (candidate.name.equals(parameters[i].getName())) {
+							field = candidate;
+						}
 					}
+				}
 
-					field.set(instance, serializer.deserialize(path + "." + configuration.getNameStyle().format(field.getName()), configuration));
+				if (field == null || !field.type.equals(parameters[i].getType())) {
+					throw new InvalidConfigException("Parameter " + parameters[i].getName() + " of constructor with @ConfigConstructor of class "
+							+ constructor.getDeclaringClass().getName() + " does not match any field");
 				}
+
+				ordered[i] = field;
+			}
+
+			return ordered;
+		}
+
+		/**
+		 * Creates handle of constructor which takes values of all fields as array
+		 */
+		private static MethodHandle allArgsConstructor(MethodHandles.Lookup lookup, Constructor<?> constructor) throws IllegalAccessException {
+			constructor.setAccessible(true);
+			int count = constructor.getParameterCount();
+			return lookup.unreflectConstructor(constructor)
+					.asType(MethodType.genericMethodType(count))
+					.asSpreader(Object[].class, count);
+		}
+
+		private static Class<?>[] types(FieldPlan[] fields) {
+			Class<?>[] types = new Class<?>[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				types[i] = fields[i].type;
+			}
+
+			return types;
+		}
+	}
+
+	/**
+	 * Handles of field, its serializer and keys for every NameStyle
+	 */
+	private static final class FieldPlan {
+
+		private final String name;
+		private final Class<?> type;
+		private final boolean optional;
+		private final boolean simple;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final Serializer<Object> serializer;
+		private final TypeDescriptor descriptor;
+		private final String[] keys;
+
+		/**
+		 * @param field field of class
+		 * @param getter handle of field's getter or record's accessor
+		 * @param setter handle of field's setter, null if object is created by all-args constructor
+		 */
+		private FieldPlan(Field field, MethodHandle getter, MethodHandle setter) {
+			this.name = field.getName();
+			this.type = field.getType();
+			this.optional = field.isAnnotationPresent(ConfigOptional.class);
+			this.keys = keys(field.getName());
+
+			this.simple = TypeUtils.isSimpleType(this.type);
+			this.serializer = this.simple ? null : (Serializer<Object>) Serializers.of(this.type);
+			this.descriptor = this.simple ? null : TypeDescriptor.of(field.getGenericType());
+
+			this.getter = getter.asType(MethodType.methodType(Object.class, Object.class));
+			this.setter = setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+		}
+
+		private Serializer<Object> getSerializer() {
+			if (this.serializer == null) {
+				throw new MissingSerializerException(this.type);
 			}
-		} catch (IllegalAccessException e) {
-			throw new RuntimeException("Could not deserialize " + classPath, e);
+
+			return this.serializer;
 		}
 
-		return instance;
+		/**
+		 * Converts number loaded from file to type of primitive field, e.g. Integer to long
+		 * @param value value loaded from file
+		 * @return value which can be set to field
+		 */
+		private Object coerce(Object value) {
+			if (!this.type.isPrimitive() || !(value instanceof Number)) {
+				return value;
+			}
+
+			Number number = (Number) value;
+			if (this.type.equals(int.class)) {
+				return number.intValue();
+			}
+
+			if (this.type.equals(long.class)) {
+				return number.longValue();
+			}
+
+			if (this.type.equals(double.class)) {
+				return number.doubleValue();
+			}
+
+			if (this.type.equals(float.class)) {
+				return number.floatValue();
+			}
+
+			if (this.type.equals(short.class)) {
+				return number.shortValue();
+			}
+
+			if (this.type.equals(byte.class)) {
+				return number.byteValue();
+			}
+
+			return value;
+		}
 	}
 
-	private void validateDefaultConstructor(Class<?> clazz) {
-		try {
-			clazz.getConstructor(); // Get no-args constructor for test
-		} catch (NoSuchMethodException e) {
-			throw new InvalidConfigException("Class " + clazz.getName() + " does not have a default constructor");
+	/**
+	 * Precomputes key of field's name in every NameStyle
+	 * @param name name of field
+	 * @return keys indexed by ordinal of NameStyle
+	 */
+	private static String[] keys(String name) {
+		NameStyle[] styles = NameStyle.values();
+		String[] keys = new String[styles.length];
+		for (NameStyle style : styles) {
+			keys[style.ordinal()] = style.format(name);
 		}
+
+		return keys;
 	}
 }
@@ -0,0 +1,152 @@
+package pl.mikigal.config.serializer.universal;
+
+import pl.mikigal.config.BukkitConfiguration;
+import pl.mikigal.config.exception.InvalidConfigFileException;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
+import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.TypeDescriptor;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper built-in serializer for arrays of primitives, e.g. <code>int[]</code> or <code>double[]</code>.
+ * Elements are always written as YAML list and read directly to primitive array, without boxed array in the middle.
+ * If declared type of array is unknown, list is written under <code>values</code> key with name of primitive in <code>type</code> key
+ * @see Serializer
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public class UniversalPrimitiveArraySerializer extends Serializer<Object> {
+
+	@Override
+	protected void saveObject(String path, Object object, BukkitConfiguration configuration) {
+		this.serialize(path, object, configuration);
+	}
+
+	@Override
+	protected void saveObject(String path, Object object, TypeDescriptor type, BukkitConfiguration configuration) {
+		this.serialize(path, object, type, configuration);
+	}
+
+	@Override
+	protected void saveObject(ConfigNodeBuilder node, Object object, TypeDescriptor type) {
+		int length = Array.getLength(object);
+		List<Object> values = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			values.add(Array.get(object, i));
+		}
+
+		if (type != null && type.getType().equals(object.getClass())) {
+			node.setValue(values);
+			return;
+		}
+
+		node.set("type", object.getClass().getComponentType().getName());
+		node.setRaw("values", values);
+	}
+
+	@Override
+	public Object deserialize(String path, BukkitConfiguration configuration) {
+		return this.deserialize(path, null, configuration);
+	}
+
+	@Override
+	public Object deserialize(String path, TypeDescriptor type, BukkitConfiguration configuration) {
+		return this.deserialize(ConfigNode.of(configuration, path), type);
+	}
+
+	@Override
+	public Object deserialize(ConfigNode node, TypeDescriptor type) {
+		Object raw = node.getValue();
+		Class<?> component = type == null || type.getComponent() == null ? null : type.getComponent().getType();
+		if (node.isSection()) {
+			component = forName(node.getString("type"));
+			raw = node.get("values");
+		}
+
+		if (component == null || !component.isPrimitive()) {
+			throw new InvalidConfigFileException("Type of primitive array is not defined for " + node.getPath());
+		}
+
+		if (!(raw instanceof List)) {
+			throw new InvalidConfigFileException("Value of " + node.getPath() + " is not a list");
+		}
+
+		List<?> values = (List<?>) raw;
+		Object array = Array.newInstance(component, values.size());
+		try {
+			for (int i = 0; i < values.size(); i++) {
+				set(array, component, i, values.get(i));
+			}
+		} catch (ClassCastException | NullPointerException e) {
+			throw new InvalidConfigFileException("Invalid element of " + node.getPath() + " (should be " + component.getName() + ")");
+		}
+
+		return array;
+	}
+
+	/**
+	 * Sets element of primitive array without boxing it again, numbers are converted to type of array
+	 */
+	private static void set(Object array, Class<?> component, int index, Object value) {
+		if (component == int.class) {
+			((int[]) array)[index] = ((Number) value).intValue();
+		}
+		else if (component == long.class) {
+			((long[]) array)[index] = ((Number) value).longValue();
+		}
+		else if (component == double.class) {
+			((double[]) array)[index] = ((Number) value).doubleValue();
+		}
+		else if (component == float.class) {
+			((float[]) array)[index] = ((Number) value).floatValue();
+		}
+		else if (component == boolean.class) {
+			((boolean[]) array)[index] = (Boolean) value;
+		}
+		else if (component == short.class) {
+			((short[]) array)[index] = ((Number) value).shortValue();
+		}
+		else if (component == byte.class) {
+			((byte[]) array)[index] = ((Number) value).byteValue();
+		}
+		else {
+			((char[]) array)[index] = value.toString().charAt(0);
+		}
+	}
+
+	private static Class<?> forName(String name) {
+		if (name == null) {
+			return null;
+		}
+
+		switch (name) {
+			case "int":
+				return int.class;
+			case "long":
+				return long.class;
+			case "double":
+				return double.class;
+			case "float":
+				return float.class;
+			case "boolean":
+				return boolean.class;
+			case "short":
+				return short.class;
+			case "byte":
+				return byte.class;
+			case "char":
+				return char.class;
+			default:
+				return null;
+		}
+	}
+
+	@Override
+	public boolean isThreadSafe(TypeDescriptor type) {
+		return true;
+	}
+}
@@ -0,0 +1,21 @@
+package pl.mikigal.config.style;
+
+/**
+ * Allows to select how Collections and arrays of simple types are written to file.
+ * Both formats can be read with any style, values written in other format are rewritten on next save
+ * @see pl.mikigal.config.annotation.ConfigCollections
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public enum CollectionStyle {
+
+	/**
+	 * With SECTION every element is written as key of section, with its index as name
+	 */
+	SECTION,
+
+	/**
+	 * With SEQUENCE elements are written as YAML list under <code>values</code> key of section
+	 */
+	SEQUENCE
+}
@@ -0,0 +1,23 @@
+package pl.mikigal.config.style;
+
+/**
+ * Allows to select how instance of config's interface will be created
+ * @see pl.mikigal.config.annotation.ConfigImplementation
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public enum ImplementationStyle {
+
+	/**
+	 * With PROXY config is implemented by java.lang.reflect.Proxy, every call goes through InvocationHandler
+	 */
+	PROXY,
+
+	/**
+	 * With GENERATED class implementing config's interface is generated at init.
+	 * Every getter and setter directly calls it's precompiled accessor, and getters keep their values in fields
+	 * until config is changed, so repeated reads don't go through serializers or snapshot's maps.
+	 * Config's interface and all types used by it must be public, otherwise PROXY is used
+	 */
+	GENERATED
+}
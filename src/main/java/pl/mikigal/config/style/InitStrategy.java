@@ -0,0 +1,28 @@
+package pl.mikigal.config.style;
+
+/**
+ * Allows to select how values of config are validated at init
+ * @see pl.mikigal.config.annotation.ConfigInit
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public enum InitStrategy {
+
+	/**
+	 * With EAGER_SERIAL every getter is executed at init, one by one, first invalid value stops init
+	 */
+	EAGER_SERIAL,
+
+	/**
+	 * With EAGER_PARALLEL every getter is executed at init in parallel, all invalid values are reported together.
+	 * Values whose serializers are not thread-safe, e.g. Bukkit's types, are validated by calling thread
+	 * @see pl.mikigal.config.serializer.Serializer#isThreadSafe(pl.mikigal.config.serializer.TypeDescriptor)
+	 */
+	EAGER_PARALLEL,
+
+	/**
+	 * With LAZY values are validated and deserialized on first access, optionally warmed up on background thread.
+	 * Useful when values depend on things which don't exist at init, e.g. worlds. Only values whose serializers are thread-safe are warmed up
+	 */
+	LAZY
+}
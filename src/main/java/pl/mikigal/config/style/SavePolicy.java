@@ -0,0 +1,34 @@
+package pl.mikigal.config.style;
+
+/**
+ * Allows to select when changes made by config's setters are written to file
+ * @see pl.mikigal.config.annotation.ConfigSave
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public enum SavePolicy {
+
+	/**
+	 * With IMMEDIATE file is written by every setter, on thread which called it
+	 */
+	IMMEDIATE,
+
+	/**
+	 * With DEBOUNCED setters only mark config as modified, file is written by background thread
+	 * at most once per delay given in ConfigSave
+	 */
+	DEBOUNCED,
+
+	/**
+	 * With MANUAL file is written only when BukkitConfiguration#flush() or ConfigAPI#shutdown() is called
+	 */
+	MANUAL,
+
+	/**
+	 * With JOURNAL setters append changed values to journal next to file, on thread which called them.
+	 * Journal is replayed when config is loaded, and compacted into file by background thread
+	 * when its size reaches limit given in ConfigSave, or by ConfigAPI#shutdown()
+	 * @see pl.mikigal.config.ConfigJournal
+	 */
+	JOURNAL
+}
@@ -37,6 +37,47 @@ public class ConversionUtils {
 		}
 	}
 
+	/**
+	 * Converts number loaded from file to declared numeric type, e.g. Integer to Long,
+	 * YAML parser produces Integer for every number which fits in it and Double for every decimal number
+	 * @param value value loaded from file
+	 * @param type declared primitive or wrapper type
+	 * @return number of declared type, {@param value} if it's not number or declared type is not numeric
+	 */
+	public static Object convertNumber(Object value, Class<?> type) {
+		Class<?> wrapper = type.isPrimitive() ? TypeUtils.getWrapper(type) : type;
+		if (!(value instanceof Number) || wrapper.isInstance(value)) {
+			return value;
+		}
+
+		Number number = (Number) value;
+		if (wrapper.equals(Integer.class)) {
+			return number.intValue();
+		}
+
+		if (wrapper.equals(Long.class)) {
+			return number.longValue();
+		}
+
+		if (wrapper.equals(Double.class)) {
+			return number.doubleValue();
+		}
+
+		if (wrapper.equals(Float.class)) {
+			return number.floatValue();
+		}
+
+		if (wrapper.equals(Short.class)) {
+			return number.shortValue();
+		}
+
+		if (wrapper.equals(Byte.class)) {
+			return number.byteValue();
+		}
+
+		return value;
+	}
+
 	/**
 	 * Translates text colored by '&' to ChatColor based
 	 * @param raw text colored by '&'
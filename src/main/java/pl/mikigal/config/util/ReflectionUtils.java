@@ -3,13 +3,14 @@ package pl.mikigal.config.util;
 import org.bukkit.Bukkit;
 import pl.mikigal.config.exception.InvalidConfigException;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utilities for reflections
@@ -18,7 +19,20 @@ import java.util.Map;
  */
 public class ReflectionUtils {
 
-	private static final Map<Class<?>, MethodHandles.Lookup> lookups = new HashMap<>();
+	/**
+	 * Class.isRecord(), null on Java older than 16
+	 */
+	private static final Method IS_RECORD = findMethod(Class.class, "isRecord");
+
+	/**
+	 * Plans of getting default values, one per interface
+	 */
+	private static final ClassValue<DefaultValues> defaultValues = new ClassValue<DefaultValues>() {
+		@Override
+		protected DefaultValues computeValue(Class<?> type) {
+			return new DefaultValues(type);
+		}
+	};
 
 	/**
 	 * Allows to get default value of method from interface
@@ -27,17 +41,50 @@ public class ReflectionUtils {
 	 */
 	public static Object getDefaultValue(Method method) {
 		try {
-			Class<?> clazz = method.getDeclaringClass();
-			return getLookup(clazz)
-					.in(clazz)
-					.unreflectSpecial(method, clazz)
-					.bindTo(createHelperProxy(method.getDeclaringClass()))
+			return defaultValues.get(method.getDeclaringClass())
+					.getHandle(method)
 					.invoke();
 		} catch (Throwable throwable) {
 			throw new InvalidConfigException(throwable);
 		}
 	}
 
+	/**
+	 * Check is class a record. Records are detected by reflection, so it works also on Java 8
+	 * @param clazz class to check
+	 * @return true if class is a record, false for other classes or Java older than 16
+	 */
+	public static boolean isRecord(Class<?> clazz) {
+		if (IS_RECORD == null) {
+			return false;
+		}
+
+		try {
+			return (boolean) IS_RECORD.invoke(clazz);
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new InvalidConfigException("Could not check is " + clazz.getName() + " a record", e);
+		}
+	}
+
+	/**
+	 * Allows to get accessors of record's components
+	 * @param clazz record class
+	 * @return accessors in order of components, the same as order of canonical constructor's parameters
+	 */
+	public static Method[] getRecordAccessors(Class<?> clazz) {
+		try {
+			Object[] components = (Object[]) Class.class.getMethod("getRecordComponents").invoke(clazz);
+			Method[] accessors = new Method[components.length];
+			for (int i = 0; i < components.length; i++) {
+				accessors[i] = (Method) components[i].getClass().getMethod("getAccessor").invoke(components[i]);
+			}
+
+			return accessors;
+		} catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException e) {
+			throw new InvalidConfigException("Could not get components of record " + clazz.getName(), e);
+		}
+	}
+
 	/**
 	 * Creates private lookup for given class
 	 * For Java 8 it gets value of MethodHandles.Lookup.IMPL_LOOKUP, for newer versions invokes MethodHandles.privateLookupIn()
@@ -65,19 +112,6 @@ public class ReflectionUtils {
 		}
 	}
 
-	/**
-	 * Gets lookup for given class from cache or create new one if it doesn't exist
-	 * @param clazz for which you want to get lookup
-	 * @return instance of lookup for given class
-	 */
-	private static MethodHandles.Lookup getLookup(Class<?> clazz) {
-		if (!lookups.containsKey(clazz)) {
-			lookups.put(clazz, createLookup(clazz));
-		}
-
-		return lookups.get(clazz);
-	}
-
 	/**
 	 * Creates instance of proxy
 	 * @param clazz class which you want to get instance of
@@ -88,6 +122,55 @@ public class ReflectionUtils {
 				(Object object, Method method, Object[] args) -> null);
 	}
 
+	/**
+	 * Plan of getting default values of interface's methods.
+	 * It keeps one lookup and helper proxy per interface and handle of each default method bound to that proxy
+	 */
+	private static class DefaultValues {
+
+		private final Class<?> clazz;
+		private final MethodHandles.Lookup lookup;
+		private final Object proxy;
+		private final Map<Method, MethodHandle> handles = new ConcurrentHashMap<>();
+
+		DefaultValues(Class<?> clazz) {
+			this.clazz = clazz;
+			this.lookup = createLookup(clazz).in(clazz);
+			this.proxy = createHelperProxy(clazz);
+		}
+
+		/**
+		 * Gets handle of default method bound to helper proxy from cache or creates new one if it doesn't exist
+		 * @param method default method of interface
+		 * @return handle which returns default value
+		 * @throws IllegalAccessException if lookup has no access to method
+		 */
+		MethodHandle getHandle(Method method) throws IllegalAccessException {
+			MethodHandle handle = this.handles.get(method);
+			if (handle != null) {
+				return handle;
+			}
+
+			handle = this.lookup.unreflectSpecial(method, this.clazz).bindTo(this.proxy);
+			MethodHandle previous = this.handles.putIfAbsent(method, handle);
+			return previous != null ? previous : handle;
+		}
+	}
+
+	/**
+	 * Finds public method which may not exist in running Java version
+	 * @param clazz owner of method
+	 * @param name name of method
+	 * @return method, null if it does not exist
+	 */
+	private static Method findMethod(Class<?> clazz, String name) {
+		try {
+			return clazz.getMethod(name);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
 	/**
 	 * Check Java version
 	 * @return true for Java 8, false for Java 9 or newer
@@ -2,6 +2,7 @@ package pl.mikigal.config.util;
 
 import pl.mikigal.config.exception.InvalidConfigException;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -80,6 +81,29 @@ public class TypeUtils {
 		return isPrimitiveOrWrapper(type) || type.equals(String.class);
 	}
 
+	/**
+	 * Allow to check can declared type hold values of different simple types, e.g. Number, Object or CharSequence
+	 * @param type declared type
+	 * @return true if type is not simple, but String or primitive's wrapper can be assigned to it, else false
+	 */
+	public static boolean isSimpleSupertype(Class<?> type) {
+		if (isSimpleType(type)) {
+			return false;
+		}
+
+		if (type.isAssignableFrom(String.class)) {
+			return true;
+		}
+
+		for (Class<?> wrapper : WRAPPERS.values()) {
+			if (type.isAssignableFrom(wrapper)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	/**
 	 * Return generic types of given non-empty Collection instance
 	 * @param collection instance of Collection
@@ -160,6 +184,19 @@ public class TypeUtils {
 		return WRAPPERS.get(primitive);
 	}
 
+	/**
+	 * Allows to get default value of type, as it's used for uninitialized fields
+	 * @param type class of type
+	 * @return zero or false for primitive types, else null
+	 */
+	public static Object getDefaultValue(Class<?> type) {
+		if (!type.isPrimitive() || type.equals(void.class)) {
+			return null;
+		}
+
+		return Array.get(Array.newInstance(type, 1), 0);
+	}
+
 	/**
 	 * Check is given object array of primitives
 	 * @param object to check
@@ -175,14 +212,6 @@ public class TypeUtils {
 	 * @return true if given clazz is array of primitives, else false
 	 */
 	public static boolean isPrimitiveArray(Class<?> clazz) {
-		return clazz.isArray() ||
-				clazz.equals(boolean[].class) ||
-				clazz.equals(int[].class) ||
-				clazz.equals(char[].class) ||
-				clazz.equals(byte[].class) ||
-				clazz.equals(short[].class) ||
-				clazz.equals(double[].class) ||
-				clazz.equals(long[].class) ||
-				clazz.equals(float[].class);
+		return clazz.isArray() && clazz.getComponentType().isPrimitive();
 	}
 }
@@ -0,0 +1,154 @@
+package pl.mikigal.config;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.mikigal.config.annotation.ConfigName;
+import pl.mikigal.config.annotation.ConfigSave;
+import pl.mikigal.config.exception.InvalidConfigException;
+import pl.mikigal.config.style.SavePolicy;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BukkitConfigurationTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TestPlugin plugin;
+
+	@Before
+	public void setUp() {
+		this.plugin = new TestPlugin(this.folder.getRoot());
+	}
+
+	@After
+	public void tearDown() {
+		ConfigAPI.shutdown();
+	}
+
+	@Test
+	public void invalidFileKeepsLoadedValues() throws Exception {
+		ReloadConfig config = ConfigAPI.init(ReloadConfig.class, this.plugin);
+		config.setA(5);
+		User user = config.getUser();
+
+		Path file = new File(this.folder.getRoot(), "reload.yml").toPath();
+		String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Files.write(file, "a: [unclosed\n  - : :".getBytes(StandardCharsets.UTF_8));
+		try {
+			config.getBukkitConfiguration().load();
+			fail("Invalid file was loaded");
+		} catch (InvalidConfigException ignored) {
+		}
+
+		assertEquals(5, config.getA());
+		assertSame(user, config.getUser());
+		assertEquals(5, config.getBukkitConfiguration().getInt("a"));
+		assertFalse(config.getBukkitConfiguration().isDirty());
+
+		Files.write(file, content.replace("a: 5", "a: 7").getBytes(StandardCharsets.UTF_8));
+		assertTrue(config.getBukkitConfiguration().reloadIfChanged());
+		assertEquals(7, config.getA());
+		assertSame(user, config.getUser());
+	}
+
+	@Test
+	public void unsavedChangesAreNotReloaded() throws Exception {
+		ManualConfig config = ConfigAPI.init(ManualConfig.class, this.plugin);
+		Path file = new File(this.folder.getRoot(), "manual.yml").toPath();
+		config.setA(9);
+
+		Files.write(file, "a: 3\n".getBytes(StandardCharsets.UTF_8));
+		assertFalse(config.getBukkitConfiguration().reloadIfChanged());
+		assertEquals(9, config.getA());
+		assertTrue(config.getBukkitConfiguration().isDirty());
+
+		assertTrue(config.getBukkitConfiguration().flush());
+		assertTrue(new String(Files.readAllBytes(file), StandardCharsets.UTF_8).contains("a: 9"));
+
+		Files.write(file, "a: 4\n".getBytes(StandardCharsets.UTF_8));
+		assertTrue(config.getBukkitConfiguration().reloadIfChanged());
+		assertEquals(4, config.getA());
+	}
+
+	@Test
+	public void editDoesNotBlockOtherThreads() throws Exception {
+		ManualConfig config = ConfigAPI.init(ManualConfig.class, this.plugin);
+		BukkitConfiguration configuration = config.getBukkitConfiguration();
+		configuration.edit(() -> {
+			config.setA(2);
+			Thread writer = new Thread(() -> configuration.set("b", 3));
+			writer.start();
+			try {
+				writer.join(TimeUnit.SECONDS.toMillis(10));
+				assertEquals(1, (int) CompletableFuture.supplyAsync(config::getA).get(10, TimeUnit.SECONDS));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+
+			assertFalse(writer.isAlive());
+			assertEquals(2, config.getA());
+		});
+
+		assertEquals(2, config.getA());
+		assertEquals(3, configuration.getInt("b"));
+	}
+
+	@Test
+	public void savedFileUsesIndentOfOptions() throws Exception {
+		BukkitConfiguration configuration = ConfigAPI.init(ManualConfig.class, this.plugin).getBukkitConfiguration();
+		configuration.options().indent(4);
+		configuration.setRaw("section.nested.value", 1);
+		configuration.setRaw("section.list", Arrays.asList(Collections.singletonMap("a", 1), "b"));
+
+		String content = configuration.saveToString();
+		assertTrue(content.contains("\n    nested:\n        value: 1\n"));
+
+		YamlConfiguration parsed = new YamlConfiguration();
+		parsed.loadFromString(content);
+		assertEquals(1, parsed.getInt("section.nested.value"));
+		assertEquals(configuration.getList("section.list").toString(), parsed.getList("section.list").toString());
+	}
+
+	public static class User implements Serializable {
+		public String name = "x";
+		public int kills = 3;
+	}
+
+	@ConfigName("reload.yml")
+	public interface ReloadConfig extends Config {
+		default int getA() {
+			return 1;
+		}
+
+		void setA(int a);
+
+		default User getUser() {
+			return new User();
+		}
+	}
+
+	@ConfigName("manual.yml")
+	@ConfigSave(SavePolicy.MANUAL)
+	public interface ManualConfig extends Config {
+		default int getA() {
+			return 1;
+		}
+
+		void setA(int a);
+	}
+}
@@ -0,0 +1,148 @@
+package pl.mikigal.config;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.mikigal.config.annotation.ConfigCache;
+import pl.mikigal.config.annotation.ConfigName;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ConfigBinaryCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TestPlugin plugin;
+	private File file;
+	private File cache;
+
+	@Before
+	public void setUp() {
+		this.plugin = new TestPlugin(this.folder.getRoot());
+		this.file = new File(this.folder.getRoot(), "cache.yml");
+		this.cache = new File(this.folder.getRoot(), "cache.yml.cache");
+	}
+
+	@After
+	public void tearDown() {
+		ConfigAPI.shutdown();
+	}
+
+	@Test
+	public void cacheIsWrittenAndRead() throws Exception {
+		ConfigAPI.init(CachedConfig.class, this.plugin);
+		ConfigAPI.shutdown();
+		assertTrue(this.cache.exists());
+
+		// Value changed only in cache proves that file was not parsed
+		byte[] content = Files.readAllBytes(this.cache.toPath());
+		int index = indexOf(content, "cached".getBytes(StandardCharsets.UTF_8));
+		assertTrue(index > 0);
+		System.arraycopy("edited".getBytes(StandardCharsets.UTF_8), 0, content, index, 6);
+		Files.write(this.cache.toPath(), content);
+
+		CachedConfig config = ConfigAPI.init(CachedConfig.class, this.plugin);
+		assertEquals("edited", config.getMessage());
+	}
+
+	@Test
+	public void cacheProducesSameValuesAsParser() throws Exception {
+		CachedConfig config = ConfigAPI.init(CachedConfig.class, this.plugin);
+		config.setCount(9);
+		ConfigAPI.shutdown();
+
+		config = ConfigAPI.init(CachedConfig.class, this.plugin);
+		YamlConfiguration parsed = new YamlConfiguration();
+		parsed.loadFromString(new String(Files.readAllBytes(this.file.toPath()), StandardCharsets.UTF_8));
+
+		Map<String, Object> expected = leaves(parsed);
+		Map<String, Object> actual = leaves(config.getBukkitConfiguration());
+		assertEquals(expected, actual);
+		for (String path : expected.keySet()) {
+			assertEquals(path, expected.get(path).getClass(), actual.get(path).getClass());
+		}
+
+		assertEquals(9, config.getCount());
+		assertEquals(1L << 40, config.getBig());
+		assertEquals(Arrays.asList("a", "b"), config.getLines());
+		assertEquals(Integer.valueOf(1), config.getValues().get("a"));
+	}
+
+	@Test
+	public void corruptedCacheFallsBackToFile() throws Exception {
+		CachedConfig config = ConfigAPI.init(CachedConfig.class, this.plugin);
+		config.setCount(9);
+		ConfigAPI.shutdown();
+
+		byte[] content = Files.readAllBytes(this.cache.toPath());
+		Files.write(this.cache.toPath(), Arrays.copyOf(content, content.length - 5));
+
+		config = ConfigAPI.init(CachedConfig.class, this.plugin);
+		assertEquals(9, config.getCount());
+		assertEquals("cached", config.getMessage());
+		assertEquals(Arrays.asList("a", "b"), config.getLines());
+	}
+
+	private static Map<String, Object> leaves(ConfigurationSection section) {
+		Map<String, Object> leaves = new TreeMap<>();
+		for (Map.Entry<String, Object> entry : section.getValues(true).entrySet()) {
+			if (!(entry.getValue() instanceof ConfigurationSection)) {
+				leaves.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		return leaves;
+	}
+
+	private static int indexOf(byte[] content, byte[] part) {
+		for (int i = 0; i <= content.length - part.length; i++) {
+			if (Arrays.equals(Arrays.copyOfRange(content, i, i + part.length), part)) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	@ConfigName("cache.yml")
+	@ConfigCache
+	public interface CachedConfig extends Config {
+		default String getMessage() {
+			return "cached";
+		}
+
+		default int getCount() {
+			return 5;
+		}
+
+		void setCount(int count);
+
+		default long getBig() {
+			return 1L << 40;
+		}
+
+		default double getRatio() {
+			return 0.5;
+		}
+
+		default List<String> getLines() {
+			return Arrays.asList("a", "b");
+		}
+
+		default Map<String, Integer> getValues() {
+			Map<String, Integer> values = new LinkedHashMap<>();
+			values.put("a", 1);
+			return values;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package pl.mikigal.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.mikigal.config.annotation.ConfigInit;
+import pl.mikigal.config.annotation.ConfigName;
+import pl.mikigal.config.serializer.ConfigNode;
+import pl.mikigal.config.serializer.ConfigNodeBuilder;
+import pl.mikigal.config.serializer.Serializer;
+import pl.mikigal.config.serializer.Serializers;
+import pl.mikigal.config.serializer.TypeDescriptor;
+import pl.mikigal.config.style.InitStrategy;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConfigInvocationHandlerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TestPlugin plugin;
+	private CountingSerializer serializer;
+
+	@Before
+	public void setUp() {
+		this.plugin = new TestPlugin(this.folder.getRoot());
+		this.serializer = new CountingSerializer();
+		ConfigAPI.registerSerializer(Point.class, this.serializer);
+	}
+
+	@After
+	public void tearDown() {
+		ConfigAPI.shutdown();
+		Serializers.unregister(Point.class);
+	}
+
+	@Test
+	public void getterDeserializesValueOnce() {
+		ConfigAPI.init(PointConfig.class, this.plugin);
+		PointConfig config = ConfigAPI.init(PointConfig.class, this.plugin);
+		assertEquals(0, this.serializer.deserialized.get());
+
+		Point point = config.getPoint();
+		assertSame(point, config.getPoint());
+		assertEquals(1, this.serializer.deserialized.get());
+	}
+
+	@Test
+	public void setterCachesWrittenValue() {
+		PointConfig config = ConfigAPI.init(PointConfig.class, this.plugin);
+		config.getPoint();
+		int deserialized = this.serializer.deserialized.get();
+
+		Point point = new Point(4, 5);
+		config.setPoint(point);
+		assertSame(point, config.getPoint());
+		assertSame(point, config.getPoint());
+		assertEquals(deserialized, this.serializer.deserialized.get());
+	}
+
+	@Test
+	public void reloadDeserializesChangedValueOnce() throws Exception {
+		PointConfig config = ConfigAPI.init(PointConfig.class, this.plugin);
+		config.getPoint();
+		int deserialized = this.serializer.deserialized.get();
+
+		Path file = new File(this.folder.getRoot(), "point.yml").toPath();
+		String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Files.write(file, content.replace("1;2", "7;8").getBytes(StandardCharsets.UTF_8));
+		config.getBukkitConfiguration().load();
+
+		Point point = config.getPoint();
+		assertEquals(7, point.x);
+		assertSame(point, config.getPoint());
+		assertEquals(deserialized + 1, this.serializer.deserialized.get());
+	}
+
+	public static class Point {
+		private final int x;
+		private final int y;
+
+		public Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	public static class CountingSerializer extends Serializer<Point> {
+
+		private final AtomicInteger deserialized = new AtomicInteger();
+
+		@Override
+		protected void saveObject(String path, Point object, BukkitConfiguration configuration) {
+			this.serialize(path, object, configuration);
+		}
+
+		@Override
+		protected void saveObject(ConfigNodeBuilder node, Point object, TypeDescriptor type) {
+			node.setValue(object.x + ";" + object.y);
+		}
+
+		@Override
+		public Point deserialize(String path, BukkitConfiguration configuration) {
+			return this.deserialize(ConfigNode.of(configuration, path), null);
+		}
+
+		@Override
+		public Point deserialize(ConfigNode node, TypeDescriptor type) {
+			this.deserialized.incrementAndGet();
+			String[] coordinates = node.asString().split(";");
+			return new Point(Integer.parseInt(coordinates[0]), Integer.parseInt(coordinates[1]));
+		}
+	}
+
+	@ConfigName("point.yml")
+	@ConfigInit(InitStrategy.LAZY)
+	public interface PointConfig extends Config {
+		default Point getPoint() {
+			return new Point(1, 2);
+		}
+
+		void setPoint(Point point);
+	}
+}
@@ -0,0 +1,132 @@
+package pl.mikigal.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.mikigal.config.annotation.ConfigName;
+import pl.mikigal.config.annotation.ConfigSave;
+import pl.mikigal.config.style.SavePolicy;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ConfigJournalTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TestPlugin plugin;
+	private File file;
+	private File journal;
+
+	@Before
+	public void setUp() {
+		this.plugin = new TestPlugin(this.folder.getRoot());
+		this.file = new File(this.folder.getRoot(), "journal.yml");
+		this.journal = new File(this.folder.getRoot(), "journal.yml.journal");
+	}
+
+	@After
+	public void tearDown() {
+		ConfigAPI.shutdown();
+	}
+
+	@Test
+	public void changesAreReplayedFromJournal() throws Exception {
+		JournalConfig config = ConfigAPI.init(JournalConfig.class, this.plugin);
+		byte[] content = Files.readAllBytes(this.file.toPath());
+
+		Map<String, Integer> values = new LinkedHashMap<>();
+		values.put("q", 3);
+		values.put("w", 4);
+		this.change(config, values);
+
+		assertTrue(this.journal.length() > 0);
+		assertArrayEquals(content, Files.readAllBytes(this.file.toPath()));
+		assertTrue(config.getBukkitConfiguration().isDirty());
+
+		JournalConfig replayed = ConfigAPI.init(JournalConfig.class, this.plugin);
+		this.assertChanged(replayed, values);
+	}
+
+	@Test
+	public void invalidTailOfJournalIsSkipped() throws Exception {
+		JournalConfig config = ConfigAPI.init(JournalConfig.class, this.plugin);
+		Map<String, Integer> values = new LinkedHashMap<>();
+		values.put("q", 3);
+		this.change(config, values);
+
+		// Incomplete record, like after crash during its write
+		long length = this.journal.length();
+		Files.write(this.journal.toPath(), new byte[]{0, 0, 0, 50, 1, 2}, StandardOpenOption.APPEND);
+
+		JournalConfig replayed = ConfigAPI.init(JournalConfig.class, this.plugin);
+		this.assertChanged(replayed, values);
+		assertEquals(length, this.journal.length());
+	}
+
+	@Test
+	public void journalIsCompactedIntoFile() throws Exception {
+		JournalConfig config = ConfigAPI.init(JournalConfig.class, this.plugin);
+		config.setA(99);
+		ConfigAPI.shutdown();
+
+		assertFalse(this.journal.exists());
+		assertTrue(new String(Files.readAllBytes(this.file.toPath()), StandardCharsets.UTF_8).contains("a: 99"));
+		assertFalse(config.getBukkitConfiguration().isDirty());
+	}
+
+	private void change(JournalConfig config, Map<String, Integer> values) {
+		config.setA(7);
+		config.setS("hello");
+		config.setL(Arrays.asList("z"));
+		config.setM(values);
+	}
+
+	private void assertChanged(JournalConfig config, Map<String, Integer> values) {
+		assertEquals(7, config.getA());
+		assertEquals("hello", config.getS());
+		assertEquals(Arrays.asList("z"), config.getL());
+		assertEquals(values, config.getM());
+	}
+
+	@ConfigName("journal.yml")
+	@ConfigSave(value = SavePolicy.JOURNAL, journalSize = 1 << 20)
+	public interface JournalConfig extends Config {
+		default int getA() {
+			return 1;
+		}
+
+		void setA(int a);
+
+		default String getS() {
+			return "x";
+		}
+
+		void setS(String s);
+
+		default List<String> getL() {
+			return Arrays.asList("a", "b");
+		}
+
+		void setL(List<String> l);
+
+		default Map<String, Integer> getM() {
+			Map<String, Integer> m = new LinkedHashMap<>();
+			m.put("k", 1);
+			return m;
+		}
+
+		void setM(Map<String, Integer> m);
+	}
+}
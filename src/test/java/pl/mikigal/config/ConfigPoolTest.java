@@ -0,0 +1,140 @@
+package pl.mikigal.config;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.mikigal.config.annotation.ConfigKeyed;
+import pl.mikigal.config.annotation.ConfigName;
+import pl.mikigal.config.annotation.ConfigSave;
+import pl.mikigal.config.exception.InvalidConfigException;
+import pl.mikigal.config.style.SavePolicy;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConfigPoolTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TestPlugin plugin;
+
+	@Before
+	public void setUp() {
+		this.plugin = new TestPlugin(this.folder.getRoot());
+	}
+
+	@After
+	public void tearDown() {
+		ConfigAPI.shutdown();
+	}
+
+	@Test
+	public void evictedInstanceIsWrittenBack() throws Exception {
+		ConfigPool<PlayerConfig> pool = ConfigAPI.initPool(PlayerConfig.class, this.plugin);
+		PlayerConfig first = pool.open("a");
+		first.setCoins(5);
+		assertSame(first, pool.open("a"));
+
+		// Both instances were used, so first one is evicted after its second chance
+		pool.open("b").getCoins();
+		pool.open("c");
+		assertNull(pool.getIfLoaded("a"));
+		assertEquals(2, pool.size());
+
+		PlayerConfig reopened = pool.open("a");
+		assertNotSame(first, reopened);
+		assertEquals(5, reopened.getCoins());
+		assertTrue(this.read("players/a.yml").contains("coins: 5"));
+	}
+
+	@Test
+	public void usedInstanceIsNotEvicted() {
+		ConfigPool<PlayerConfig> pool = ConfigAPI.initPool(PlayerConfig.class, this.plugin);
+		PlayerConfig first = pool.open("a");
+		pool.open("b");
+		first.setCoins(5);
+
+		pool.open("c");
+		assertSame(first, pool.getIfLoaded("a"));
+		assertNull(pool.getIfLoaded("b"));
+		first.setCoins(6);
+		assertEquals(6, first.getCoins());
+	}
+
+	@Test
+	public void evictedInstanceRejectsChanges() {
+		ConfigPool<PlayerConfig> pool = ConfigAPI.initPool(PlayerConfig.class, this.plugin);
+		PlayerConfig first = pool.open("a");
+		first.setCoins(5);
+		assertTrue(pool.close("a"));
+
+		try {
+			first.setCoins(6);
+			fail("Change of closed instance was accepted");
+		} catch (InvalidConfigException ignored) {
+		}
+
+		assertEquals(5, first.getCoins());
+		assertEquals(5, pool.open("a").getCoins());
+	}
+
+	@Test
+	public void reopenWaitsForWriteBack() throws Exception {
+		ConfigPool<PlayerConfig> pool = ConfigAPI.initPool(PlayerConfig.class, this.plugin);
+		PlayerConfig first = pool.open("a");
+		first.setCoins(5);
+		pool.open("b").getCoins();
+
+		CompletableFuture<PlayerConfig> reopened;
+		// Write-back of evicted instance waits for lock of its config, load which evicted it doesn't
+		synchronized (first.getBukkitConfiguration()) {
+			Thread evicting = new Thread(() -> pool.open("c"));
+			evicting.start();
+			evicting.join(TimeUnit.SECONDS.toMillis(10));
+			assertFalse(evicting.isAlive());
+			assertNull(pool.getIfLoaded("a"));
+
+			reopened = pool.openAsync("a");
+			Thread.sleep(100);
+			assertFalse(reopened.isDone());
+		}
+
+		assertEquals(5, reopened.get(10, TimeUnit.SECONDS).getCoins());
+	}
+
+	@Test
+	public void concurrentOpensShareInstance() throws Exception {
+		ConfigPool<PlayerConfig> pool = ConfigAPI.initPool(PlayerConfig.class, this.plugin);
+		CompletableFuture<PlayerConfig> first = pool.openAsync("a");
+		CompletableFuture<PlayerConfig> second = pool.openAsync("a");
+		assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test(expected = InvalidConfigException.class)
+	public void keyCannotLeaveDirectory() {
+		ConfigAPI.initPool(PlayerConfig.class, this.plugin).open("../a");
+	}
+
+	private String read(String name) throws Exception {
+		return new String(Files.readAllBytes(new File(this.folder.getRoot(), name).toPath()), StandardCharsets.UTF_8);
+	}
+
+	@ConfigName("players")
+	@ConfigKeyed(maximumSize = 2)
+	@ConfigSave(SavePolicy.MANUAL)
+	public interface PlayerConfig extends Config {
+		default int getCoins() {
+			return 0;
+		}
+
+		void setCoins(int coins);
+	}
+}
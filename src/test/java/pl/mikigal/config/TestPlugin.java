@@ -0,0 +1,51 @@
+package pl.mikigal.config;
+
+import org.bukkit.Server;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.logging.Logger;
+
+/**
+ * Plugin used by tests and benchmarks, created without running server by constructor of JavaPlugin intended for tests
+ * @since 1.2.7
+ * @author Mikołaj Gałązka
+ */
+public class TestPlugin extends JavaPlugin {
+
+	private static final String NAME = "ConfigAPITest";
+
+	@SuppressWarnings("deprecation")
+	public TestPlugin(File dataFolder) {
+		super(new JavaPluginLoader(createServer()), new PluginDescriptionFile(NAME, "1.0", TestPlugin.class.getName()),
+				dataFolder, new File(dataFolder, NAME + ".jar"));
+	}
+
+	/**
+	 * Creates server which provides only logger, other methods return null
+	 */
+	private static Server createServer() {
+		Logger logger = Logger.getLogger(NAME);
+		return (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class[]{Server.class}, (proxy, method, args) -> {
+			switch (method.getName()) {
+				case "getLogger":
+					return logger;
+				case "getName":
+				case "toString":
+					return NAME;
+				case "getVersion":
+				case "getBukkitVersion":
+					return "1.8.8-R0.1-SNAPSHOT";
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "equals":
+					return proxy == args[0];
+				default:
+					return null;
+			}
+		});
+	}
+}
@@ -0,0 +1,139 @@
+package pl.mikigal.config.serializer.universal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.mikigal.config.Config;
+import pl.mikigal.config.ConfigAPI;
+import pl.mikigal.config.TestPlugin;
+import pl.mikigal.config.annotation.ConfigCollections;
+import pl.mikigal.config.annotation.ConfigName;
+import pl.mikigal.config.style.CollectionStyle;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UniversalCollectionSerializerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TestPlugin plugin;
+	private File file;
+
+	@Before
+	public void setUp() {
+		this.plugin = new TestPlugin(this.folder.getRoot());
+		this.file = new File(this.folder.getRoot(), "collections.yml");
+	}
+
+	@After
+	public void tearDown() {
+		ConfigAPI.shutdown();
+	}
+
+	@Test
+	public void sectionIsMigratedToSequence() throws Exception {
+		ConfigAPI.init(SectionConfig.class, this.plugin);
+		assertTrue(this.read().contains("'0': a"));
+
+		SequenceConfig config = ConfigAPI.init(SequenceConfig.class, this.plugin);
+		assertEquals(Arrays.asList("a", "b", "c"), config.getNames());
+		assertEquals("y", config.getHolder().values[1]);
+
+		String content = this.read();
+		assertTrue(content.contains("- a"));
+		assertFalse(content.contains("'0'"));
+	}
+
+	@Test
+	public void sequenceIsReadBySection() throws Exception {
+		SequenceConfig config = ConfigAPI.init(SequenceConfig.class, this.plugin);
+		config.setNames(Arrays.asList("q"));
+
+		config = ConfigAPI.init(SequenceConfig.class, this.plugin);
+		assertEquals(Arrays.asList("q"), config.getNames());
+		assertEquals(2, config.getHolder().values.length);
+
+		SectionConfig section = ConfigAPI.init(SectionConfig.class, this.plugin);
+		assertEquals(Arrays.asList("q"), section.getNames());
+		assertEquals("x", section.getHolder().values[0]);
+	}
+
+	@Test
+	public void numbersAreConvertedToTypeOfElements() {
+		ConfigAPI.init(NumberSectionConfig.class, this.plugin);
+		NumberSectionConfig section = ConfigAPI.init(NumberSectionConfig.class, this.plugin);
+		assertEquals(Arrays.asList(1L, 2L), section.getLongs());
+		assertEquals(Arrays.asList(1.5F, 2F), section.getFloats());
+
+		NumberSequenceConfig sequence = ConfigAPI.init(NumberSequenceConfig.class, this.plugin);
+		sequence = ConfigAPI.init(NumberSequenceConfig.class, this.plugin);
+		assertEquals(Arrays.asList(1L, 2L), sequence.getLongs());
+		assertEquals(Arrays.asList(1.5F, 2F), sequence.getFloats());
+	}
+
+	private String read() throws Exception {
+		return new String(Files.readAllBytes(this.file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	public static class Holder implements Serializable {
+		public String[] values = {"x", "y"};
+	}
+
+	@ConfigName("collections.yml")
+	public interface SectionConfig extends Config {
+		default List<String> getNames() {
+			return Arrays.asList("a", "b", "c");
+		}
+
+		default Holder getHolder() {
+			return new Holder();
+		}
+	}
+
+	@ConfigName("collections.yml")
+	@ConfigCollections(CollectionStyle.SEQUENCE)
+	public interface SequenceConfig extends Config {
+		default List<String> getNames() {
+			return Arrays.asList("a", "b", "c");
+		}
+
+		void setNames(List<String> names);
+
+		default Holder getHolder() {
+			return new Holder();
+		}
+	}
+
+	@ConfigName("numbers.yml")
+	public interface NumberSectionConfig extends Config {
+		default List<Long> getLongs() {
+			return Arrays.asList(1L, 2L);
+		}
+
+		default List<Float> getFloats() {
+			return Arrays.asList(1.5F, 2F);
+		}
+	}
+
+	@ConfigName("numbers.yml")
+	@ConfigCollections(CollectionStyle.SEQUENCE)
+	public interface NumberSequenceConfig extends Config {
+		default List<Long> getLongs() {
+			return Arrays.asList(1L, 2L);
+		}
+
+		default List<Float> getFloats() {
+			return Arrays.asList(1.5F, 2F);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package pl.mikigal.config.serializer.universal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.mikigal.config.Config;
+import pl.mikigal.config.ConfigAPI;
+import pl.mikigal.config.TestPlugin;
+import pl.mikigal.config.annotation.ConfigConstructor;
+import pl.mikigal.config.annotation.ConfigName;
+import pl.mikigal.config.annotation.ConfigOptional;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class UniversalObjectSerializerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TestPlugin plugin;
+
+	@Before
+	public void setUp() {
+		this.plugin = new TestPlugin(this.folder.getRoot());
+	}
+
+	@After
+	public void tearDown() {
+		ConfigAPI.shutdown();
+	}
+
+	@Test
+	public void missingOptionalFieldKeepsInitializer() throws Exception {
+		ConfigAPI.init(ObjectConfig.class, this.plugin);
+
+		Path file = new File(this.folder.getRoot(), "object.yml").toPath();
+		String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Files.write(file, content.replaceAll("\n  level: \\d+", "").replaceAll("\n  tag: def", "").getBytes(StandardCharsets.UTF_8));
+
+		ObjectConfig config = ConfigAPI.init(ObjectConfig.class, this.plugin);
+		assertEquals(1, config.getOptional().x);
+		assertEquals(5, config.getOptional().level);
+		assertEquals("def", config.getOptional().tag);
+	}
+
+	@Test
+	public void objectIsCreatedByConstructor() {
+		ConfigAPI.init(ObjectConfig.class, this.plugin);
+
+		ObjectConfig config = ConfigAPI.init(ObjectConfig.class, this.plugin);
+		assertEquals(7, config.getImmutable().a);
+		assertEquals("i", config.getImmutable().b);
+	}
+
+	@Test
+	public void finalFieldIsLoaded() throws Exception {
+		ConfigAPI.init(ObjectConfig.class, this.plugin);
+
+		Path file = new File(this.folder.getRoot(), "object.yml").toPath();
+		String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Files.write(file, content.replace("count: 1", "count: 4").getBytes(StandardCharsets.UTF_8));
+
+		ObjectConfig config = ConfigAPI.init(ObjectConfig.class, this.plugin);
+		assertEquals(4, config.getFinal().count);
+	}
+
+	public static class OptionalFields implements Serializable {
+		public int x = 1;
+
+		@ConfigOptional
+		public int level = 5;
+
+		@ConfigOptional
+		public String tag = "def";
+	}
+
+	public static class Immutable implements Serializable {
+		private final int a;
+		private final String b;
+
+		@ConfigConstructor
+		public Immutable(int a, String b) {
+			this.a = a;
+			this.b = b;
+		}
+	}
+
+	public static class FinalFields implements Serializable {
+		private final int count;
+
+		public FinalFields() {
+			this.count = 1;
+		}
+	}
+
+	@ConfigName("object.yml")
+	public interface ObjectConfig extends Config {
+		default OptionalFields getOptional() {
+			return new OptionalFields();
+		}
+
+		default Immutable getImmutable() {
+			return new Immutable(7, "i");
+		}
+
+		default FinalFields getFinal() {
+			return new FinalFields();
+		}
+	}
+}
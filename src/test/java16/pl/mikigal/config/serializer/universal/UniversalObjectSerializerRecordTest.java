@@ -0,0 +1,65 @@
+package pl.mikigal.config.serializer.universal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.mikigal.config.Config;
+import pl.mikigal.config.ConfigAPI;
+import pl.mikigal.config.TestPlugin;
+import pl.mikigal.config.annotation.ConfigName;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class UniversalObjectSerializerRecordTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private TestPlugin plugin;
+
+	@Before
+	public void setUp() {
+		this.plugin = new TestPlugin(this.folder.getRoot());
+	}
+
+	@After
+	public void tearDown() {
+		ConfigAPI.shutdown();
+	}
+
+	@Test
+	public void recordIsCreatedByCanonicalConstructor() throws Exception {
+		ConfigAPI.init(RecordConfig.class, this.plugin);
+
+		Path file = new File(this.folder.getRoot(), "record.yml").toPath();
+		String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		assertTrue(content.contains("name: spawn"));
+		Files.write(file, content.replace("x: 1", "x: 9").getBytes(StandardCharsets.UTF_8));
+
+		RecordConfig config = ConfigAPI.init(RecordConfig.class, this.plugin);
+		assertEquals(new Point("spawn", 9, 2), config.getPoint());
+
+		config.setPoint(new Point("home", 3, 4));
+		assertEquals(new Point("home", 3, 4), ConfigAPI.init(RecordConfig.class, this.plugin).getPoint());
+	}
+
+	public record Point(String name, int x, int y) implements Serializable {
+	}
+
+	@ConfigName("record.yml")
+	public interface RecordConfig extends Config {
+		default Point getPoint() {
+			return new Point("spawn", 1, 2);
+		}
+
+		void setPoint(Point point);
+	}
+}